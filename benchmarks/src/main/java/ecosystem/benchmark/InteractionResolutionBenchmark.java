@@ -0,0 +1,52 @@
+package ecosystem.benchmark;
+
+import ecosystem.model.InteractionResult;
+import ecosystem.service.impl.InteractionServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Разрешение взаимодействий: допустимая пара, недопустимая пара и неизвестный хищник
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InteractionResolutionBenchmark {
+    @Param({"100", "10000"})
+    public int speciesCount;
+
+    private Path root;
+    private InteractionServiceImpl interactionService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = SyntheticEcosystems.create(speciesCount);
+        interactionService = InteractionServiceImpl.getInstance();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticEcosystems.delete(root);
+    }
+
+    @Benchmark
+    public InteractionResult resolveAllowed() {
+        return interactionService.resolveInteraction(SyntheticEcosystems.ECOSYSTEM,
+                SyntheticEcosystems.animal(0), SyntheticEcosystems.plant(speciesCount - 1));
+    }
+
+    @Benchmark
+    public InteractionResult resolveNotAllowed() {
+        return interactionService.resolveInteraction(SyntheticEcosystems.ECOSYSTEM,
+                SyntheticEcosystems.animal(2), SyntheticEcosystems.plant(speciesCount - 1));
+    }
+
+    @Benchmark
+    public InteractionResult resolveUnknown() {
+        return interactionService.resolveInteraction(SyntheticEcosystems.ECOSYSTEM, "Missing", SyntheticEcosystems.plant(0));
+    }
+}
@@ -0,0 +1,33 @@
+package ecosystem.benchmark;
+
+import ecosystem.model.Conditions;
+import ecosystem.service.impl.PredictionServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Прогноз по условиям, попадающим в разные ветви правил
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredictionBenchmark {
+    private final Conditions[] conditions = {
+            new Conditions(40, 20, 10),
+            new Conditions(32, 45, 15),
+            new Conditions(5, 10, 50),
+            new Conditions(22, 70, 60),
+            new Conditions(28, 40, 40)
+    };
+    private final PredictionServiceImpl predictionService = PredictionServiceImpl.getInstance();
+    private int next;
+
+    @Benchmark
+    public Map<String, String> predictPopulationChanges() {
+        next = (next + 1) % conditions.length;
+        return predictionService.predictPopulationChanges(conditions[next]);
+    }
+}
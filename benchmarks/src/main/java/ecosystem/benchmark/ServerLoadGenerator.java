@@ -0,0 +1,101 @@
+package ecosystem.benchmark;
+
+import ecosystem.api.EcosystemServer;
+import ecosystem.util.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Нагрузочный прогон HTTP-сервера на localhost: поднимает сервер на свободном порту поверх
+// синтетической экосистемы и выполняет смесь запросов из заданного числа параллельных клиентов.
+// Запуск: java -cp target/benchmarks.jar ecosystem.benchmark.ServerLoadGenerator [клиенты] [запросов на клиента]
+public class ServerLoadGenerator {
+    private static final int SPECIES = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        PrintStream console = System.out;
+        Path root = SyntheticEcosystems.create(SPECIES);
+        EcosystemServer server = new EcosystemServer("127.0.0.1", 0, 4096);
+        server.start();
+        try {
+            String base = "http://127.0.0.1:" + server.getPort() + "/ecosystems/" + SyntheticEcosystems.ECOSYSTEM;
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            LatencyHistogram clientLatency = new LatencyHistogram();
+            AtomicLong failures = new AtomicLong();
+
+            ExecutorService pool = Executors.newFixedThreadPool(clients);
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < clients; c++) {
+                int clientId = c;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < requestsPerClient; i++) {
+                        HttpRequest request = nextRequest(base, clientId, i);
+                        long sent = System.nanoTime();
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status >= 500) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                        clientLatency.record(System.nanoTime() - sent);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            pool.shutdown();
+
+            long total = (long) clients * requestsPerClient;
+            console.printf("clients=%d requests=%d failures=%d virtualThreads=%b%n",
+                    clients, total, failures.get(), server.isUsingVirtualThreads());
+            console.printf("throughput=%.0f req/s%n", total / (elapsed / 1e9));
+            console.printf("client latency: p50=%d us p99=%d us max=%d us%n",
+                    clientLatency.percentileNanos(0.50) / 1_000, clientLatency.percentileNanos(0.99) / 1_000,
+                    clientLatency.getMaxNanos() / 1_000);
+            console.printf("server latency: p50=%d us p99=%d us max=%d us%n",
+                    server.getLatency().percentileNanos(0.50) / 1_000, server.getLatency().percentileNanos(0.99) / 1_000,
+                    server.getLatency().getMaxNanos() / 1_000);
+        } finally {
+            server.stop();
+            SyntheticEcosystems.delete(root);
+        }
+    }
+
+    // Смесь запросов: чтение прогноза и списка экосистем, добавление растений и взаимодействия.
+    // Полное описание экосистемы не входит в смесь: его ответ растет с числом видов и измерял бы объем JSON, а не сервер
+    private static HttpRequest nextRequest(String base, int clientId, int i) {
+        switch (i % 4) {
+            case 0:
+                return HttpRequest.newBuilder(URI.create(base + "/predictions")).GET().build();
+            case 1:
+                return HttpRequest.newBuilder(URI.create(base + "/plants?name=Load" + clientId + "_" + i))
+                        .POST(HttpRequest.BodyPublishers.noBody()).build();
+            case 2:
+                int predator = (clientId * 31 + i) % SPECIES;
+                return HttpRequest.newBuilder(URI.create(base + "/interactions?predator=" + SyntheticEcosystems.animal(predator)
+                        + "&prey=" + SyntheticEcosystems.plant(predator))).POST(HttpRequest.BodyPublishers.noBody()).build();
+            default:
+                return HttpRequest.newBuilder(URI.create(base.substring(0, base.lastIndexOf('/')))).GET().build();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ecosystem.benchmark;
+
+import ecosystem.model.Conditions;
+import ecosystem.repository.impl.SimulationRepositoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationRepositoryBenchmark {
+    private Path root;
+    private SimulationRepositoryImpl repository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = SyntheticEcosystems.create(10);
+        repository = SimulationRepositoryImpl.getInstance();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticEcosystems.delete(root);
+    }
+
+    @Benchmark
+    public Conditions readEcosystemConditions() {
+        return repository.readEcosystemConditions(SyntheticEcosystems.ECOSYSTEM);
+    }
+}
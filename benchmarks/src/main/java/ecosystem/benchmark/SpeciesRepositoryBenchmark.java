@@ -0,0 +1,83 @@
+package ecosystem.benchmark;
+
+import ecosystem.model.Plant;
+import ecosystem.repository.impl.SpeciesLogStore;
+import ecosystem.repository.impl.SpeciesRepositoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Операции файлового репозитория видов при разных размерах файлов
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpeciesRepositoryBenchmark {
+    @Param({"100", "10000"})
+    public int speciesCount;
+
+    private Path root;
+    private SpeciesRepositoryImpl repository;
+    private String lastHerbivore;
+    private boolean toggle;
+    private long added;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = SyntheticEcosystems.create(speciesCount);
+        repository = SpeciesRepositoryImpl.getInstance();
+        int last = speciesCount - 1;
+        while (!SyntheticEcosystems.diet(last).equals("herbivore")) {
+            last--;
+        }
+        lastHerbivore = SyntheticEcosystems.animal(last);
+    }
+
+    // Журналы уплотняются перед каждой итерацией, поэтому каждая итерация начинается с пустого
+    // журнала, а не с журнала, накопленного предыдущими итерациями
+    @Setup(Level.Iteration)
+    public void compactJournals() {
+        SpeciesLogStore store = SpeciesLogStore.getInstance();
+        Path dir = root.resolve(SyntheticEcosystems.ECOSYSTEM);
+        store.compact(dir.resolve("plants.txt"));
+        store.compact(dir.resolve("animals.txt"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticEcosystems.delete(root);
+    }
+
+    @Benchmark
+    public void addPlant() {
+        repository.addPlant(SyntheticEcosystems.ECOSYSTEM, new Plant("Added" + added++));
+    }
+
+    // Удаление вида: запись-надгробие дописывается в журнал файла, а когда журнал превышает порог
+    // species.compaction.threshold, фоновый поток уплотняет файл. Вид отсутствует, поэтому
+    // содержимое файла между итерациями не меняется
+    @Benchmark
+    public void deleteSpecies() {
+        repository.deleteSpecies(SyntheticEcosystems.ECOSYSTEM, "Missing", true);
+    }
+
+    @Benchmark
+    public void updateAnimalDiet() {
+        toggle = !toggle;
+        repository.updateAnimalDiet(SyntheticEcosystems.ECOSYSTEM, lastHerbivore, toggle ? "omnivore" : "herbivore");
+    }
+
+    @Benchmark
+    public boolean checkIfHerbivore() {
+        return repository.checkIfHerbivore(SyntheticEcosystems.ECOSYSTEM, lastHerbivore);
+    }
+
+    @Benchmark
+    public boolean checkIfPlant() {
+        return repository.checkIfPlant(SyntheticEcosystems.ECOSYSTEM, SyntheticEcosystems.plant(speciesCount - 1));
+    }
+}
@@ -0,0 +1,68 @@
+package ecosystem.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Генерирует синтетические экосистемы во временной директории и направляет туда репозитории
+final class SyntheticEcosystems {
+    static final String ECOSYSTEM = "bench";
+
+    private SyntheticEcosystems() {
+    }
+
+    // Создает корневую директорию с экосистемой из speciesCount растений и такого же числа животных
+    // (половина травоядных, четверть хищников, четверть всеядных) и подменяет directory.path
+    static Path create(int speciesCount) throws IOException {
+        Path root = Files.createTempDirectory("ecosystem-bench");
+        Path dir = Files.createDirectories(root.resolve(ECOSYSTEM));
+
+        List<String> plants = new ArrayList<>(speciesCount);
+        List<String> animals = new ArrayList<>(speciesCount);
+        for (int i = 0; i < speciesCount; i++) {
+            plants.add(plant(i));
+            animals.add(animal(i) + " (" + diet(i) + ")");
+        }
+        Files.write(dir.resolve("plants.txt"), plants);
+        Files.write(dir.resolve("animals.txt"), animals);
+        Files.write(dir.resolve("interactions.txt"), List.of());
+        Files.write(dir.resolve("resources.txt"), List.of("Temperature: 25.0", "Humidity: 55.0", "Available water: 60.0"));
+
+        System.setProperty("directory.path", root.toString() + "/");
+        // Сообщения репозиториев не должны влиять на замеры
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return root;
+    }
+
+    static String plant(int i) {
+        return "Plant" + i;
+    }
+
+    static String animal(int i) {
+        return "Animal" + i;
+    }
+
+    static String diet(int i) {
+        switch (i % 4) {
+            case 0:
+            case 1:
+                return "herbivore";
+            case 2:
+                return "carnivore";
+            default:
+                return "omnivore";
+        }
+    }
+
+    static void delete(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
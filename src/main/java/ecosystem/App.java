@@ -1,11 +1,59 @@
 package ecosystem;
 
 import ecosystem.api.Ecosystem;
+import ecosystem.util.Config;
 
 public class App {
     public static void main(String[] args) {
         Ecosystem ecosystem = new Ecosystem();
+        // Режим пакетного прогона всех экосистем: --run-all [количество тиков]
+        if (args.length > 0 && args[0].equals("--run-all")) {
+            ecosystem.runAllEcosystems(args.length > 1 ? Long.parseLong(args[1]) : 1000);
+            return;
+        }
+        // Монте-Карло оценка прогноза: --sweep <экосистема> [количество выборок] [seed]
+        if (args.length > 1 && args[0].equals("--sweep")) {
+            ecosystem.runScenarioSweep(args[1],
+                    args.length > 2 ? Long.parseLong(args[2]) : 1_000_000,
+                    args.length > 3 ? Long.parseLong(args[3]) : 42);
+            return;
+        }
+        // Агентная симуляция на сетке: --grid <экосистема> [ширина] [высота] [шаги] [seed]
+        if (args.length > 1 && args[0].equals("--grid")) {
+            ecosystem.runGridSimulation(args[1],
+                    args.length > 2 ? Integer.parseInt(args[2]) : 1024,
+                    args.length > 3 ? Integer.parseInt(args[3]) : 1024,
+                    args.length > 4 ? Integer.parseInt(args[4]) : 10,
+                    args.length > 5 ? Long.parseLong(args[5]) : 42);
+            return;
+        }
+        // Продолжение симуляции на сетке с последнего снимка: --grid-resume <экосистема> [шаги]
+        if (args.length > 1 && args[0].equals("--grid-resume")) {
+            ecosystem.resumeGridSimulation(args[1], args.length > 2 ? Integer.parseInt(args[2]) : 10);
+            return;
+        }
+        // Колоночная выгрузка истории взаимодействий: --export <экосистема> [файл]
+        if (args.length > 1 && args[0].equals("--export")) {
+            ecosystem.exportInteractions(args[1], args.length > 2 ? args[2] : args[1] + "-interactions.eccf");
+            return;
+        }
+        // Проверка скомпилированных правил прогноза: --verify-rules
+        if (args.length > 0 && args[0].equals("--verify-rules")) {
+            if (!ecosystem.verifyPredictionRules()) {
+                System.exit(1);
+            }
+            return;
+        }
+        // HTTP-сервер для операций с экосистемами: --server [порт]
+        if (args.length > 0 && args[0].equals("--server")) {
+            ecosystem.startServer(args.length > 1 ? Integer.parseInt(args[1]) : (int) Config.getLongProperty("server.port", 8080));
+            return;
+        }
+        // Сценарий команд без интерактивного меню: --script [файл], без файла команды читаются из stdin
+        if (args.length > 0 && args[0].equals("--script")) {
+            ecosystem.runScript(args.length > 1 ? args[1] : null);
+            return;
+        }
         ecosystem.startEcoSystem();
     }
 }
-
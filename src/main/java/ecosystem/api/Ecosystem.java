@@ -1,11 +1,41 @@
 package ecosystem.api;
 
+import ecosystem.model.Conditions;
+import ecosystem.model.EcosystemCheckpoint;
+import ecosystem.model.EcosystemReport;
+import ecosystem.model.GridWorld;
+import ecosystem.model.PopulationChange;
+import ecosystem.model.RuleVerification;
+import ecosystem.model.SpeciesKind;
+import ecosystem.model.SweepResult;
 import ecosystem.service.ActionHandlerService;
+import ecosystem.service.GridSimulationService;
+import ecosystem.service.InteractionService;
+import ecosystem.service.PredictionService;
+import ecosystem.service.ScenarioSweepService;
+import ecosystem.service.SimulationRunnerService;
 import ecosystem.service.SimulationService;
 import ecosystem.service.UIService;
 import ecosystem.service.impl.ActionHandlerServiceImpl;
+import ecosystem.service.impl.GridSimulationServiceImpl;
+import ecosystem.service.impl.InteractionServiceImpl;
+import ecosystem.service.impl.PredictionServiceImpl;
+import ecosystem.service.impl.ScenarioSweepServiceImpl;
+import ecosystem.service.impl.SimulationRunnerServiceImpl;
 import ecosystem.service.impl.SimulationServiceImpl;
 import ecosystem.service.impl.UIServiceImpl;
+import ecosystem.util.Config;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import static ecosystem.util.Messages.*;
 
 public class Ecosystem {
@@ -14,6 +44,11 @@ public class Ecosystem {
     private final SimulationService simulationService = SimulationServiceImpl.getInstance();
     private final UIService uiService = UIServiceImpl.getInstance();
     private final ActionHandlerService actionHandler = ActionHandlerServiceImpl.getInstance();
+    private final SimulationRunnerService simulationRunner = SimulationRunnerServiceImpl.getInstance();
+    private final ScenarioSweepService scenarioSweepService = ScenarioSweepServiceImpl.getInstance();
+    private final GridSimulationService gridSimulationService = GridSimulationServiceImpl.getInstance();
+    private final InteractionService interactionService = InteractionServiceImpl.getInstance();
+    private final PredictionService predictionService = PredictionServiceImpl.getInstance();
 
     // Метод для запуска экосистемы
     public void startEcoSystem() {
@@ -95,4 +130,164 @@ public class Ecosystem {
             }
         }
     }
+
+    // Метод для пакетного прогона всех экосистем без участия пользователя
+    public void runAllEcosystems(long ticks) {
+        long start = System.nanoTime();
+        List<EcosystemReport> reports = simulationRunner.runAll(ticks);
+
+        uiService.displayMessage(SIMULATION_REPORT + ":");
+        for (EcosystemReport report : reports) {
+            if (report.isFailed()) {
+                uiService.displayMessage(report.getEcosystemName() + ": " + ECOSYSTEM_FAILED + ": " + report.getError());
+                continue;
+            }
+            StringBuilder line = new StringBuilder(report.getEcosystemName())
+                    .append(": ").append(report.getSpeciesCount()).append(' ').append(SPECIES_COUNT);
+            report.getPredictions().forEach((species, prediction) ->
+                    line.append(", ").append(species).append(' ').append(POPULATION).append(": ").append(prediction));
+            for (SpeciesKind kind : SpeciesKind.values()) {
+                double population = report.getPopulationByKind()[kind.ordinal()];
+                if (population > 0) {
+                    line.append(", ").append(kind.name().toLowerCase()).append('=').append(Math.round(population));
+                }
+            }
+            line.append(" (").append(report.getElapsedNanos() / 1_000_000).append(" ms)");
+            uiService.displayMessage(line.toString());
+        }
+        uiService.displayMessage(reports.size() + " " + ECOSYSTEMS_PROCESSED + " " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    // Метод для Монте-Карло оценки долей исходов прогноза вокруг текущих условий экосистемы
+    public void runScenarioSweep(String ecosystemName, long samples, long seed) {
+        SweepResult result = scenarioSweepService.sweep(ecosystemName, samples, seed);
+
+        uiService.displayMessage(SCENARIO_SWEEP + " " + ecosystemName + ": " + result.getSamples() + " " + SAMPLES
+                + ", " + SEED + " " + result.getSeed() + " (" + result.getElapsedNanos() / 1_000_000 + " ms)");
+        for (PopulationChange change : PopulationChange.values()) {
+            uiService.displayMessage(String.format("%-22s Plants %6.2f%%   Animals %6.2f%%", change.getLabel(),
+                    result.plantsFraction(change) * 100, result.animalsFraction(change) * 100));
+        }
+    }
+
+    // Метод для агентной симуляции видов экосистемы на сетке при ее текущих условиях;
+    // после каждого шага выводится число особей по типам
+    public void runGridSimulation(String ecosystemName, int width, int height, int steps, long seed) {
+        Conditions conditions = simulationService.getCurrentConditions(ecosystemName);
+        GridWorld world = gridSimulationService.createWorld(ecosystemName, width, height,
+                Config.getDoubleProperty("grid.density", 0.3), seed);
+        uiService.displayMessage(GRID_SIMULATION + " " + ecosystemName + ": " + width + "x" + height + ", " + SEED + " " + seed);
+        runGridSteps(ecosystemName, world, conditions, steps);
+    }
+
+    // Метод для продолжения симуляции на сетке с последнего снимка экосистемы: сетка и условия
+    // восстанавливаются из снимка, а не строятся заново по файлам
+    public void resumeGridSimulation(String ecosystemName, int steps) {
+        long start = System.nanoTime();
+        EcosystemCheckpoint checkpoint = simulationService.restoreCheckpoint(ecosystemName);
+        if (checkpoint == null || checkpoint.getWorld() == null) {
+            uiService.displayMessage(NO_GRID_CHECKPOINT + " " + ecosystemName);
+            return;
+        }
+        GridWorld world = checkpoint.getWorld();
+        uiService.displayMessage(CHECKPOINT_RESTORED + " (" + (System.nanoTime() - start) / 1_000_000 + " ms): "
+                + GRID_SIMULATION + " " + ecosystemName + ": " + world.getWidth() + "x" + world.getHeight()
+                + ", " + SEED + " " + world.getSeed());
+        runGridSteps(ecosystemName, world, checkpoint.getConditions(), steps);
+    }
+
+    // Выполняет шаги симуляции; каждые grid.checkpoint.steps шагов (0 — никогда) снимок записывается в фоне.
+    // Пока предыдущий снимок пишется, очередной пропускается, чтобы копии сетки не копились в очереди
+    // записи; последний шаг дожидается предыдущего снимка и записывается всегда
+    private void runGridSteps(String ecosystemName, GridWorld world, Conditions conditions, int steps) {
+        long checkpointSteps = Config.getLongProperty("grid.checkpoint.steps", 0);
+        CompletableFuture<Void> checkpoint = CompletableFuture.completedFuture(null);
+        displayGridCounts(world, 0);
+
+        long start = System.nanoTime();
+        for (int step = 1; step <= steps; step++) {
+            long stepStart = System.nanoTime();
+            gridSimulationService.step(world, conditions, 1);
+            displayGridCounts(world, System.nanoTime() - stepStart);
+            if (checkpointSteps > 0 && (world.getStep() % checkpointSteps == 0 || step == steps)
+                    && (checkpoint.isDone() || step == steps)) {
+                awaitCheckpoint(checkpoint);
+                checkpoint = simulationService.saveCheckpointAsync(ecosystemName, world);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        uiService.displayMessage(String.format("%d %s, %.2f %s", steps, STEPS, steps / Math.max(seconds, 1e-9), STEPS_PER_SECOND));
+        // Поток записи снимков фоновый: дожидаемся последнего снимка перед выходом
+        awaitCheckpoint(checkpoint);
+    }
+
+    // Дожидается записи снимка и сообщает об ошибке, с которой она завершилась
+    private void awaitCheckpoint(CompletableFuture<Void> checkpoint) {
+        try {
+            checkpoint.join();
+        } catch (CompletionException e) {
+            uiService.displayMessage(ERROR_WRITING_CHECKPOINT + ": " + e.getCause().getMessage());
+        }
+    }
+
+    private void displayGridCounts(GridWorld world, long elapsedNanos) {
+        long[] counts = world.countByKind();
+        StringBuilder line = new StringBuilder(STEP).append(' ').append(world.getStep()).append(':');
+        for (SpeciesKind kind : SpeciesKind.values()) {
+            if (kind != SpeciesKind.UNKNOWN) {
+                line.append(' ').append(kind.name().toLowerCase()).append('=').append(counts[kind.ordinal()]);
+            }
+        }
+        if (elapsedNanos > 0) {
+            line.append(" (").append(elapsedNanos / 1_000_000).append(" ms)");
+        }
+        uiService.displayMessage(line.toString());
+    }
+
+    // Метод для выгрузки истории взаимодействий экосистемы в колоночный файл для офлайн-анализа
+    public void exportInteractions(String ecosystemName, String target) {
+        long start = System.nanoTime();
+        long rows = interactionService.exportHistory(ecosystemName, Paths.get(target));
+        if (rows >= 0) {
+            uiService.displayMessage(INTERACTIONS_EXPORTED + ": " + rows + " -> " + target
+                    + " (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+        }
+    }
+
+    // Сверка скомпилированной таблицы прогноза с правилами из файла на всей области значений
+    public boolean verifyPredictionRules() {
+        RuleVerification verification = predictionService.verifyRules();
+        if (verification.isValid()) {
+            uiService.displayMessage(RULES_VERIFIED + ": " + verification.getPoints() + " points");
+        } else {
+            uiService.displayMessage(RULES_TABLE_MISMATCH + ": " + verification.getMismatches() + " of "
+                    + verification.getPoints() + " points, " + verification.getFirstMismatch());
+        }
+        return verification.isValid();
+    }
+
+    // Метод для запуска HTTP-сервера; сервер работает до завершения процесса
+    public void startServer(int port) {
+        try {
+            EcosystemServer server = new EcosystemServer(Config.getProperty("server.host"), port,
+                    (int) Config.getLongProperty("server.backlog", 1024));
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "server-stop-on-exit"));
+            uiService.displayMessage(SERVER_STARTED + " http://" + Config.getProperty("server.host") + ":" + server.getPort()
+                    + (server.isUsingVirtualThreads() ? " (virtual threads)" : ""));
+        } catch (IOException e) {
+            uiService.displayMessage(ERROR_STARTING_SERVER + ": " + e.getMessage());
+        }
+    }
+
+    // Метод для выполнения сценария команд (UTF-8) из файла или, если путь не задан, из стандартного ввода
+    public void runScript(String scriptPath) {
+        try (Reader script = scriptPath == null
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : new InputStreamReader(new FileInputStream(scriptPath), StandardCharsets.UTF_8)) {
+            new ScriptRunner().run(script);
+        } catch (IOException e) {
+            uiService.displayMessage(ERROR_READING_SCRIPT + ": " + e.getMessage());
+        }
+    }
 }
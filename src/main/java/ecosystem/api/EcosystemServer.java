@@ -0,0 +1,526 @@
+package ecosystem.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ecosystem.model.Animal;
+import ecosystem.model.ClimateHistory;
+import ecosystem.model.Conditions;
+import ecosystem.model.FoodWeb;
+import ecosystem.model.InteractionResult;
+import ecosystem.model.Species;
+import ecosystem.model.SpeciesCount;
+import ecosystem.model.SpeciesKind;
+import ecosystem.service.ActionHandlerService;
+import ecosystem.service.ClimateService;
+import ecosystem.service.FoodWebService;
+import ecosystem.service.InteractionService;
+import ecosystem.service.PredictionService;
+import ecosystem.service.SimulationService;
+import ecosystem.service.impl.ActionHandlerServiceImpl;
+import ecosystem.service.impl.ClimateServiceImpl;
+import ecosystem.service.impl.FoodWebServiceImpl;
+import ecosystem.service.impl.InteractionServiceImpl;
+import ecosystem.service.impl.PredictionServiceImpl;
+import ecosystem.service.impl.SimulationServiceImpl;
+import ecosystem.util.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static ecosystem.util.Messages.*;
+
+// HTTP-интерфейс к операциям ActionHandlerService и SimulationService на встроенном HttpServer JDK.
+// Каждый запрос обрабатывается в отдельном виртуальном потоке, если JVM их поддерживает (Java 21+);
+// на более старых JVM используется кэширующий пул обычных потоков.
+//
+//   GET    /ecosystems                                        список экосистем
+//   POST   /ecosystems?name=&temperature=&humidity=&water=    создание экосистемы
+//   GET    /ecosystems/{name}?offset=&limit=&type=            условия и страница видов
+//   GET    /ecosystems/{name}/predictions                     прогноз популяций
+//   GET    /ecosystems/{name}/foodweb?species=&limit=         пищевая сеть или место вида в ней
+//   POST   /ecosystems/{name}/plants?name=                    добавление растения
+//   POST   /ecosystems/{name}/animals?name=&diet=             добавление животного
+//   POST   /ecosystems/{name}/diet?name=&diet=                изменение диеты
+//   DELETE /ecosystems/{name}/species?name=&plant=            удаление вида
+//   POST   /ecosystems/{name}/interactions?predator=&prey=    взаимодействие
+//   GET    /ecosystems/{name}/history?predator=&prey=&limit=  число взаимодействий пары, вида или лидеры
+//   GET    /ecosystems/{name}/climate                         условия, статистики окна и прогнозы по окну
+//   POST   /ecosystems/{name}/readings?temperature=&humidity=&water=  показание условий
+//   GET    /stats                                             число запросов и задержки p50/p99
+//
+// Параметры принимаются в строке запроса или в теле application/x-www-form-urlencoded.
+public class EcosystemServer {
+    private static final String ECOSYSTEMS = "/ecosystems";
+    // Те же ограничения на имена, что и в консольном интерфейсе, плюс цифры и подчеркивание:
+    // имена попадают в пути и строки файлов, поэтому разделители и управляющие символы недопустимы
+    private static final Pattern NAME = Pattern.compile("[\\p{L}\\p{N}_]+");
+    private static final Pattern DIET = Pattern.compile("herbivore|carnivore|omnivore");
+
+    private final SimulationService simulationService = SimulationServiceImpl.getInstance();
+    private final ActionHandlerService actionHandler = ActionHandlerServiceImpl.getInstance();
+    private final FoodWebService foodWebService = FoodWebServiceImpl.getInstance();
+    private final InteractionService interactionService = InteractionServiceImpl.getInstance();
+    private final ClimateService climateService = ClimateServiceImpl.getInstance();
+    private final PredictionService predictionService = PredictionServiceImpl.getInstance();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    public EcosystemServer(String host, int port, int backlog) throws IOException {
+        // Без TCP_NODELAY короткие ответы задерживаются алгоритмом Нейгла до ~40 мс;
+        // свойство читается HttpServer один раз, поэтому задается до создания первого сервера
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(host, port), backlog);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        virtualThreads = virtual != null;
+        executor = virtualThreads ? virtual : newCachedExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor вызывается через рефлексию, так как проект
+    // компилируется под Java 17; при отсутствии метода или выключенном preview возвращается null
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newCachedExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "http-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Точка входа всех запросов: маршрутизация, перевод ошибок в коды ответа и учет задержки
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try {
+            Response response;
+            try {
+                response = route(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), readParameters(exchange));
+            } catch (IllegalArgumentException e) {
+                response = error(400, INVALID_PARAMETER + ": " + e.getMessage());
+            } catch (RuntimeException e) {
+                response = error(500, INTERNAL_SERVER_ERROR + ": " + e.getMessage());
+            }
+            send(exchange, response);
+        } finally {
+            exchange.close();
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    private Response route(String method, String path, Map<String, String> parameters) {
+        if (path.equals("/stats")) {
+            return method.equals("GET") ? stats() : error(405, METHOD_NOT_ALLOWED);
+        }
+        if (path.equals(ECOSYSTEMS) || path.equals(ECOSYSTEMS + "/")) {
+            switch (method) {
+                case "GET":
+                    return ok(jsonArray(simulationService.listEcosystems()));
+                case "POST":
+                    return createEcosystem(parameters);
+                default:
+                    return error(405, METHOD_NOT_ALLOWED);
+            }
+        }
+        if (!path.startsWith(ECOSYSTEMS + "/")) {
+            return error(404, UNKNOWN_ENDPOINT);
+        }
+
+        String[] segments = path.substring(ECOSYSTEMS.length() + 1).split("/");
+        if (segments.length > 2) {
+            return error(404, UNKNOWN_ENDPOINT);
+        }
+        String ecosystemName = name(segments[0], "ecosystem");
+        if (!simulationService.ecosystemExists(ecosystemName)) {
+            return error(404, ECOSYSTEM_NOT_FOUND + ": " + ecosystemName);
+        }
+        String resource = segments.length == 2 ? segments[1] : "";
+        String expectedMethod = expectedMethod(resource);
+        if (expectedMethod == null) {
+            return error(404, UNKNOWN_ENDPOINT);
+        }
+        if (!method.equals(expectedMethod)) {
+            return error(405, METHOD_NOT_ALLOWED);
+        }
+
+        switch (resource) {
+            case "":
+                return describeEcosystem(ecosystemName, parameters);
+            case "predictions":
+                return ok(jsonObject(actionHandler.getPopulationPredictions(ecosystemName)));
+            case "foodweb":
+                return describeFoodWeb(ecosystemName, parameters);
+            case "history":
+                return describeHistory(ecosystemName, parameters);
+            case "climate":
+                return describeClimate(ecosystemName);
+            case "readings":
+                climateService.recordReading(ecosystemName, number(parameters, "temperature"),
+                        number(parameters, "humidity"), number(parameters, "water"));
+                return created();
+            case "plants":
+                actionHandler.addPlant(ecosystemName, name(parameters.get("name"), "name"));
+                return created();
+            case "animals":
+                actionHandler.addAnimal(ecosystemName,
+                        new Animal(name(parameters.get("name"), "name"), diet(parameters.get("diet"))));
+                return created();
+            case "diet": {
+                String animalName = name(parameters.get("name"), "name");
+                if (!actionHandler.updateAnimalDiet(ecosystemName, animalName, diet(parameters.get("diet")))) {
+                    return error(404, SPECIES_NOT_FOUND + ": " + animalName);
+                }
+                return ok("{}");
+            }
+            case "species": {
+                String speciesName = name(parameters.get("name"), "name");
+                if (!actionHandler.deleteSpecies(ecosystemName, speciesName, Boolean.parseBoolean(parameters.get("plant")))) {
+                    return error(404, SPECIES_NOT_FOUND + ": " + speciesName);
+                }
+                return ok("{}");
+            }
+            default:
+                return interact(ecosystemName, parameters);
+        }
+    }
+
+    private static String expectedMethod(String resource) {
+        switch (resource) {
+            case "":
+            case "predictions":
+            case "foodweb":
+            case "history":
+            case "climate":
+                return "GET";
+            case "plants":
+            case "animals":
+            case "diet":
+            case "interactions":
+            case "readings":
+                return "POST";
+            case "species":
+                return "DELETE";
+            default:
+                return null;
+        }
+    }
+
+    private Response createEcosystem(Map<String, String> parameters) {
+        String ecosystemName = name(parameters.get("name"), "name");
+        Conditions conditions = new Conditions(number(parameters, "temperature"),
+                number(parameters, "humidity"), number(parameters, "water"));
+        if (simulationService.createEcosystem(ecosystemName, conditions) == null) {
+            return error(409, THIS_ECOSYSTEM_ALREADY_EXISTS);
+        }
+        return created();
+    }
+
+    // Условия экосистемы и страница видов; type (plant, herbivore, carnivore, omnivore) фильтрует виды
+    private Response describeEcosystem(String ecosystemName, Map<String, String> parameters) {
+        long offset = parameters.containsKey("offset") ? (long) number(parameters, "offset") : 0;
+        long limit = parameters.containsKey("limit") ? (long) number(parameters, "limit") : Long.MAX_VALUE;
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException(offset < 0 ? "offset" : "limit");
+        }
+        String typeFilter = parameters.get("type");
+        Predicate<Species> filter = typeFilter == null ? s -> true : s -> typeFilter.equals(typeOf(s));
+
+        Conditions conditions = simulationService.getCurrentConditions(ecosystemName);
+        StringBuilder json = new StringBuilder("{\"name\":").append(quote(ecosystemName))
+                .append(",\"temperature\":").append(conditions.getTemperature())
+                .append(",\"humidity\":").append(conditions.getHumidity())
+                .append(",\"water\":").append(conditions.getWaterAmount())
+                .append(",\"species\":[");
+        List<Species> species = simulationService.findSpecies(ecosystemName, filter, offset, limit);
+        for (int i = 0; i < species.size(); i++) {
+            Species s = species.get(i);
+            String type = typeOf(s);
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"name\":").append(quote(s.getName()))
+                    .append(",\"type\":").append(quote(type)).append('}');
+        }
+        return ok(json.append("]}").toString());
+    }
+
+    // Без параметра species — сводка сети по типам; с ним — уровень вида, его жертвы и хищники
+    // (не более limit имен в каждом списке, по умолчанию 100)
+    private Response describeFoodWeb(String ecosystemName, Map<String, String> parameters) {
+        FoodWeb foodWeb = foodWebService.getFoodWeb(ecosystemName);
+        if (!parameters.containsKey("species")) {
+            StringBuilder json = new StringBuilder("{\"species\":").append(foodWeb.size())
+                    .append(",\"longestChain\":").append(foodWeb.longestFoodChain())
+                    .append(",\"kinds\":{");
+            boolean first = true;
+            for (SpeciesKind kind : SpeciesKind.values()) {
+                if (kind == SpeciesKind.UNKNOWN) {
+                    continue;
+                }
+                json.append(first ? "" : ",").append(quote(kind.name().toLowerCase()))
+                        .append(":{\"count\":").append(foodWeb.count(kind))
+                        .append(",\"trophicLevel\":").append(foodWeb.trophicLevel(kind)).append('}');
+                first = false;
+            }
+            return ok(json.append("}}").toString());
+        }
+
+        String speciesName = name(parameters.get("species"), "species");
+        int limit = parameters.containsKey("limit") ? (int) number(parameters, "limit") : 100;
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit");
+        }
+        double level = foodWebService.trophicLevel(ecosystemName, speciesName);
+        if (Double.isNaN(level)) {
+            return error(404, SPECIES_NOT_FOUND + ": " + speciesName);
+        }
+        String json = "{\"name\":" + quote(speciesName)
+                + ",\"trophicLevel\":" + level
+                + ",\"chainLength\":" + foodWebService.foodChainLength(ecosystemName, speciesName)
+                + ",\"prey\":" + jsonArray(foodWebService.findPrey(ecosystemName, speciesName, limit))
+                + ",\"predators\":" + jsonArray(foodWebService.findPredators(ecosystemName, speciesName, limit)) + "}";
+        return ok(json);
+    }
+
+    // С predator и prey — сколько раз хищник съел жертву; с одним из них — итог вида в этой роли;
+    // без параметров — самые активные хищники и чаще всего съедаемые виды (limit, по умолчанию 10)
+    private Response describeHistory(String ecosystemName, Map<String, String> parameters) {
+        String predator = parameters.containsKey("predator") ? name(parameters.get("predator"), "predator") : null;
+        String prey = parameters.containsKey("prey") ? name(parameters.get("prey"), "prey") : null;
+        if (predator != null && prey != null) {
+            return ok("{\"predator\":" + quote(predator) + ",\"prey\":" + quote(prey)
+                    + ",\"count\":" + interactionService.countInteractions(ecosystemName, predator, prey) + "}");
+        }
+        if (predator != null) {
+            return ok("{\"predator\":" + quote(predator)
+                    + ",\"count\":" + interactionService.countAsPredator(ecosystemName, predator) + "}");
+        }
+        if (prey != null) {
+            return ok("{\"prey\":" + quote(prey)
+                    + ",\"count\":" + interactionService.countAsPrey(ecosystemName, prey) + "}");
+        }
+        int limit = parameters.containsKey("limit") ? (int) number(parameters, "limit") : 10;
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit");
+        }
+        return ok("{\"topPredators\":" + jsonCounts(interactionService.topPredators(ecosystemName, limit))
+                + ",\"mostEaten\":" + jsonCounts(interactionService.mostEatenSpecies(ecosystemName, limit)) + "}");
+    }
+
+    // Последнее показание, среднее, минимумы и максимумы окна истории и прогнозы по среднему и по худшему случаю
+    private Response describeClimate(String ecosystemName) {
+        ClimateHistory history = climateService.getHistory(ecosystemName);
+        String json = "{\"tick\":" + history.getTick()
+                + ",\"window\":" + history.size()
+                + ",\"current\":" + jsonConditions(history.current())
+                + ",\"mean\":" + jsonConditions(history.mean())
+                + ",\"min\":" + jsonConditions(history.minimum())
+                + ",\"max\":" + jsonConditions(history.maximum())
+                + ",\"meanPredictions\":" + jsonObject(predictionService.predictFromRollingMean(history))
+                + ",\"worstCasePredictions\":" + jsonObject(predictionService.predictFromExtremes(history)) + "}";
+        return ok(json);
+    }
+
+    private static String jsonConditions(Conditions conditions) {
+        return "{\"temperature\":" + conditions.getTemperature()
+                + ",\"humidity\":" + conditions.getHumidity()
+                + ",\"water\":" + conditions.getWaterAmount() + "}";
+    }
+
+    private static String typeOf(Species species) {
+        return species instanceof Animal ? ((Animal) species).getDietType() : "plant";
+    }
+
+    private Response interact(String ecosystemName, Map<String, String> parameters) {
+        InteractionResult result = actionHandler.handleInteraction(ecosystemName,
+                name(parameters.get("predator"), "predator"), name(parameters.get("prey"), "prey"));
+        String json = "{\"allowed\":" + result.isAllowed()
+                + ",\"predatorKind\":" + quote(result.getPredatorKind().name().toLowerCase())
+                + ",\"preyKind\":" + quote(result.getPreyKind().name().toLowerCase()) + "}";
+        return new Response(result.isAllowed() ? 200 : 422, json);
+    }
+
+    private Response stats() {
+        return ok("{\"requests\":" + latency.getCount()
+                + ",\"p50Micros\":" + latency.percentileNanos(0.50) / 1_000
+                + ",\"p99Micros\":" + latency.percentileNanos(0.99) / 1_000
+                + ",\"maxMicros\":" + latency.getMaxNanos() / 1_000
+                + ",\"virtualThreads\":" + virtualThreads + "}");
+    }
+
+    // Проверка имени: непустое, только буквы, цифры и подчеркивание
+    private static String name(String value, String parameter) {
+        if (value == null || !NAME.matcher(value).matches()) {
+            throw new IllegalArgumentException(parameter);
+        }
+        return value;
+    }
+
+    private static String diet(String value) {
+        if (value == null || !DIET.matcher(value).matches()) {
+            throw new IllegalArgumentException("diet");
+        }
+        return value;
+    }
+
+    // Число должно быть конечным: NaN и Infinity сохранились бы в условиях и попали бы в JSON ответов,
+    // где такие литералы недопустимы
+    private static double number(Map<String, String> parameters, String parameter) {
+        String value = parameters.get(parameter);
+        double number;
+        try {
+            number = Double.parseDouble(value);
+        } catch (NullPointerException | NumberFormatException e) {
+            throw new IllegalArgumentException(parameter);
+        }
+        if (!Double.isFinite(number)) {
+            throw new IllegalArgumentException(parameter);
+        }
+        return number;
+    }
+
+    // Объединяет параметры строки запроса и тела формы; при совпадении имен побеждает тело
+    private static Map<String, String> readParameters(HttpExchange exchange) throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), parameters);
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readAllBytes();
+            if (bytes.length > 0) {
+                parseForm(new String(bytes, StandardCharsets.UTF_8), parameters);
+            }
+        }
+        return parameters;
+    }
+
+    private static void parseForm(String form, Map<String, String> parameters) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Response ok(String json) {
+        return new Response(200, json);
+    }
+
+    private static Response created() {
+        return new Response(201, "{}");
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, "{\"error\":" + quote(message) + "}");
+    }
+
+    private static String jsonArray(List<String> values) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < values.size(); i++) {
+            json.append(i == 0 ? "" : ",").append(quote(values.get(i)));
+        }
+        return json.append(']').toString();
+    }
+
+    private static String jsonCounts(List<SpeciesCount> counts) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < counts.size(); i++) {
+            json.append(i == 0 ? "" : ",").append("{\"name\":").append(quote(counts.get(i).getName()))
+                    .append(",\"count\":").append(counts.get(i).getCount()).append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    private static String jsonObject(Map<String, String> values) {
+        StringBuilder json = new StringBuilder("{");
+        Iterator<Map.Entry<String, String>> entries = values.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, String> entry = entries.next();
+            json.append(quote(entry.getKey())).append(':').append(quote(entry.getValue()));
+            if (entries.hasNext()) {
+                json.append(',');
+            }
+        }
+        return json.append('}').toString();
+    }
+
+    private static String quote(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
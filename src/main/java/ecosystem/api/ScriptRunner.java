@@ -0,0 +1,170 @@
+package ecosystem.api;
+
+import ecosystem.model.Animal;
+import ecosystem.model.Conditions;
+import ecosystem.model.Species;
+import ecosystem.service.ActionHandlerService;
+import ecosystem.service.SimulationService;
+import ecosystem.service.UIService;
+import ecosystem.service.impl.ActionHandlerServiceImpl;
+import ecosystem.service.impl.SimulationServiceImpl;
+import ecosystem.service.impl.UIServiceImpl;
+import ecosystem.util.CommandTokenizer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.regex.Pattern;
+
+import static ecosystem.util.Messages.*;
+
+// Выполняет сценарий команд без интерактивного меню. Каждая строка — одна команда,
+// команды после create/load относятся к выбранной экосистеме:
+//
+//   create <экосистема> <температура> <влажность> <вода>
+//   load <экосистема>
+//   add-plant <имя>
+//   add-animal <имя> <herbivore|carnivore|omnivore>
+//   update-diet <имя> <herbivore|carnivore|omnivore>
+//   delete <plant|animal> <имя>
+//   interact <хищник> <жертва>
+//   predict
+//   list
+//
+// Ошибка в строке выводится с ее номером, выполнение сценария продолжается.
+public class ScriptRunner {
+    // Те же ограничения на имена, что и у HTTP-сервера
+    private static final Pattern NAME = Pattern.compile("[\\p{L}\\p{N}_]+");
+    private static final Pattern DIET = Pattern.compile("herbivore|carnivore|omnivore");
+
+    private final SimulationService simulationService = SimulationServiceImpl.getInstance();
+    private final ActionHandlerService actionHandler = ActionHandlerServiceImpl.getInstance();
+    private final UIService uiService = UIServiceImpl.getInstance();
+
+    private String ecosystemName;
+    private long executed;
+    private long errors;
+
+    // Выполняет все команды из потока и выводит итог
+    public void run(Reader script) throws IOException {
+        long start = System.nanoTime();
+        CommandTokenizer tokenizer = new CommandTokenizer(script);
+        while (tokenizer.next() >= 0) {
+            try {
+                execute(tokenizer);
+                executed++;
+            } catch (RuntimeException e) {
+                // Любая ошибка команды, в том числе ошибка ввода-вывода репозиториев, относится к ее строке
+                errors++;
+                uiService.displayMessage(SCRIPT_ERROR_AT_LINE + " " + tokenizer.getLineNumber() + ": " + e.getMessage());
+            }
+        }
+        uiService.displayMessage(executed + " " + COMMANDS_EXECUTED + " " + (System.nanoTime() - start) / 1_000_000
+                + " ms, " + errors + " " + SCRIPT_ERRORS);
+    }
+
+    public long getExecuted() {
+        return executed;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    private void execute(CommandTokenizer command) {
+        if (command.tokenEquals(0, "add-plant")) {
+            expectArguments(command, 1);
+            actionHandler.addPlant(current(), name(command.token(1)));
+        } else if (command.tokenEquals(0, "add-animal")) {
+            expectArguments(command, 2);
+            actionHandler.addAnimal(current(), new Animal(name(command.token(1)), diet(command.token(2))));
+        } else if (command.tokenEquals(0, "interact")) {
+            expectArguments(command, 2);
+            // Недопустимое взаимодействие не является ошибкой сценария: сервис сам сообщает о нем
+            actionHandler.handleInteraction(current(), name(command.token(1)), name(command.token(2)));
+        } else if (command.tokenEquals(0, "update-diet")) {
+            expectArguments(command, 2);
+            String animalName = name(command.token(1));
+            if (!actionHandler.updateAnimalDiet(current(), animalName, diet(command.token(2)))) {
+                throw new IllegalArgumentException(SPECIES_NOT_FOUND + ": " + animalName);
+            }
+        } else if (command.tokenEquals(0, "delete")) {
+            expectArguments(command, 2);
+            boolean isPlant = command.tokenEquals(1, "plant");
+            if (!isPlant && !command.tokenEquals(1, "animal")) {
+                throw new IllegalArgumentException(INVALID_PARAMETER + ": " + command.token(1));
+            }
+            String speciesName = name(command.token(2));
+            if (!actionHandler.deleteSpecies(current(), speciesName, isPlant)) {
+                throw new IllegalArgumentException(SPECIES_NOT_FOUND + ": " + speciesName);
+            }
+        } else if (command.tokenEquals(0, "predict")) {
+            expectArguments(command, 0);
+            actionHandler.displayPopulationPredictions(current());
+        } else if (command.tokenEquals(0, "list")) {
+            expectArguments(command, 0);
+            for (Species species : actionHandler.listSpecies(current())) {
+                uiService.displayMessage(species instanceof Animal
+                        ? species.getName() + " (" + ((Animal) species).getDietType() + ")"
+                        : species.getName());
+            }
+        } else if (command.tokenEquals(0, "load")) {
+            expectArguments(command, 1);
+            String name = name(command.token(1));
+            if (!simulationService.ecosystemExists(name)) {
+                throw new IllegalArgumentException(ECOSYSTEM_NOT_FOUND + ": " + name);
+            }
+            ecosystemName = name;
+        } else if (command.tokenEquals(0, "create")) {
+            expectArguments(command, 4);
+            String name = name(command.token(1));
+            Conditions conditions = new Conditions(number(command.token(2)), number(command.token(3)), number(command.token(4)));
+            if (simulationService.createEcosystem(name, conditions) == null) {
+                throw new IllegalArgumentException(THIS_ECOSYSTEM_ALREADY_EXISTS);
+            }
+            ecosystemName = name;
+        } else {
+            throw new IllegalArgumentException(UNKNOWN_COMMAND + ": " + command.token(0));
+        }
+    }
+
+    private String current() {
+        if (ecosystemName == null) {
+            throw new IllegalStateException(NO_ECOSYSTEM_SELECTED);
+        }
+        return ecosystemName;
+    }
+
+    private static void expectArguments(CommandTokenizer command, int count) {
+        if (command.getTokenCount() != count + 1) {
+            throw new IllegalArgumentException(WRONG_NUMBER_OF_ARGUMENTS + ": " + command.token(0));
+        }
+    }
+
+    private static String name(String value) {
+        if (!NAME.matcher(value).matches()) {
+            throw new IllegalArgumentException(INCORRECT_NAME + ": " + value);
+        }
+        return value;
+    }
+
+    private static String diet(String value) {
+        if (!DIET.matcher(value).matches()) {
+            throw new IllegalArgumentException(INCORECT_TYPE_OF_DIET + ": " + value);
+        }
+        return value;
+    }
+
+    // NaN и бесконечности не принимаются: они испортили бы сохраненные условия экосистемы
+    private static double number(String value) {
+        double number;
+        try {
+            number = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(INVALID_PARAMETER + ": " + value);
+        }
+        if (!Double.isFinite(number)) {
+            throw new IllegalArgumentException(INVALID_PARAMETER + ": " + value);
+        }
+        return number;
+    }
+}
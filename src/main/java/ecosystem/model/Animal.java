@@ -12,4 +12,9 @@ public class Animal extends Species {
         super(name, "animal");
         this.dietType = dietType;
     }
+
+    public Animal(int id, String name, String dietType) {
+        super(id, name, "animal");
+        this.dietType = dietType;
+    }
 }
@@ -0,0 +1,30 @@
+package ecosystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+// Итог пакетной обработки взаимодействий
+@Getter
+@ToString
+@AllArgsConstructor
+public class BatchResult {
+    private long applied;
+    // Отклонено, потому что хищник или жертва не найдены (или жертва уже съедена в этом пакете)
+    private long rejectedUnknown;
+    // Отклонено по правилам диеты
+    private long rejectedNotAllowed;
+    private long elapsedNanos;
+    // Первые отклоненные пары для диагностики (ограниченное количество)
+    private List<InteractionResult> rejectedSample;
+
+    public long getRejected() {
+        return rejectedUnknown + rejectedNotAllowed;
+    }
+
+    public double getInteractionsPerSecond() {
+        return elapsedNanos == 0 ? 0 : (applied + getRejected()) * 1_000_000_000.0 / elapsedNanos;
+    }
+}
@@ -0,0 +1,91 @@
+package ecosystem.model;
+
+import ecosystem.util.RollingWindow;
+
+// Недавняя история условий экосистемы: по кольцевому буферу фиксированной емкости на каждый
+// параметр со скользящими средним, минимумом и максимумом. Новое показание учитывается за O(1)
+// без выделения памяти. Показания поступают от модели климата или извне; tick — номер следующего
+// показания. Методы синхронизированы: показания и запросы могут идти из разных потоков.
+public class ClimateHistory {
+    // Сохраненные условия экосистемы — исходная точка модели климата; обновляются при изменении файла условий
+    private Conditions base;
+    private final RollingWindow temperature;
+    private final RollingWindow humidity;
+    private final RollingWindow waterAmount;
+
+    public ClimateHistory(Conditions base, int capacity) {
+        this.base = base;
+        this.temperature = new RollingWindow(capacity);
+        this.humidity = new RollingWindow(capacity);
+        this.waterAmount = new RollingWindow(capacity);
+    }
+
+    public synchronized Conditions getBase() {
+        return base;
+    }
+
+    public synchronized void setBase(Conditions base) {
+        this.base = base;
+    }
+
+    public synchronized void record(double temperatureValue, double humidityValue, double waterValue) {
+        temperature.add(temperatureValue);
+        humidity.add(humidityValue);
+        waterAmount.add(waterValue);
+    }
+
+    public synchronized long getTick() {
+        return temperature.getCount();
+    }
+
+    public synchronized int size() {
+        return temperature.size();
+    }
+
+    public int capacity() {
+        return temperature.capacity();
+    }
+
+    // Последнее показание; до первого показания — исходные условия
+    public synchronized Conditions current() {
+        if (temperature.getCount() == 0) {
+            return copyOf(base);
+        }
+        return new Conditions(temperature.last(), humidity.last(), waterAmount.last());
+    }
+
+    // Средние значения параметров за окно
+    public synchronized Conditions mean() {
+        if (temperature.getCount() == 0) {
+            return copyOf(base);
+        }
+        return new Conditions(temperature.mean(), humidity.mean(), waterAmount.mean());
+    }
+
+    // Худшее для популяций сочетание экстремумов окна: самая высокая температура
+    // при самых низких влажности и количестве воды
+    public synchronized Conditions worstCase() {
+        if (temperature.getCount() == 0) {
+            return copyOf(base);
+        }
+        return new Conditions(temperature.max(), humidity.min(), waterAmount.min());
+    }
+
+    public synchronized Conditions minimum() {
+        if (temperature.getCount() == 0) {
+            return copyOf(base);
+        }
+        return new Conditions(temperature.min(), humidity.min(), waterAmount.min());
+    }
+
+    public synchronized Conditions maximum() {
+        if (temperature.getCount() == 0) {
+            return copyOf(base);
+        }
+        return new Conditions(temperature.max(), humidity.max(), waterAmount.max());
+    }
+
+    private static Conditions copyOf(Conditions conditions) {
+        return new Conditions(conditions.getTemperature(), conditions.getHumidity(), conditions.getWaterAmount());
+    }
+}
@@ -0,0 +1,16 @@
+package ecosystem.model;
+
+// Модель изменения условий экосистемы во времени. Реализация записывает температуру, влажность
+// и количество воды на тике tick в out[0..2], не выделяя памяти, чтобы модель можно было
+// вызывать на каждом тике симуляции.
+@FunctionalInterface
+public interface ClimateModel {
+    // Условия не меняются и равны исходным
+    ClimateModel STATIC = (tick, base, out) -> {
+        out[0] = base.getTemperature();
+        out[1] = base.getHumidity();
+        out[2] = base.getWaterAmount();
+    };
+
+    void conditionsAt(long tick, Conditions base, double[] out);
+}
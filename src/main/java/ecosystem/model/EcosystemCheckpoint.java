@@ -0,0 +1,17 @@
+package ecosystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Снимок полного состояния экосистемы: виды с диетами (id — из таблицы символов экосистемы),
+// условия и, если снимок сделан во время симуляции на сетке, состояние сетки (иначе null)
+@Getter
+@AllArgsConstructor
+public class EcosystemCheckpoint {
+    private long createdAt;
+    private Conditions conditions;
+    private List<Species> species;
+    private GridWorld world;
+}
@@ -0,0 +1,32 @@
+package ecosystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+// Итог прогноза и симуляции одной экосистемы при пакетном прогоне
+@Getter
+@ToString
+@AllArgsConstructor
+public class EcosystemReport {
+    private String ecosystemName;
+    private Conditions conditions;
+    private Map<String, String> predictions;
+    private int speciesCount;
+    // Суммарная численность по типам видов после симуляции (индекс — ordinal SpeciesKind)
+    private double[] populationByKind;
+    private long elapsedNanos;
+    // Сообщение об ошибке, если экосистему не удалось обработать; null при успехе
+    private String error;
+
+    // Отчет об экосистеме, обработка которой завершилась ошибкой
+    public static EcosystemReport failed(String ecosystemName, String error) {
+        return new EcosystemReport(ecosystemName, null, Map.of(), 0, new double[SpeciesKind.values().length], 0, error);
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+}
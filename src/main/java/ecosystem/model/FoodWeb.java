@@ -0,0 +1,224 @@
+package ecosystem.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Пищевая сеть экосистемы по id видов из таблицы символов.
+// Кого может съесть вид, определяется только его типом, поэтому матрица смежности хранится
+// в разложенном виде: битовое множество видов каждого типа и битовая маска типов-жертв для
+// каждого типа. Строка матрицы для вида — объединение множеств типов из его маски; полная
+// матрица n x n для миллиона видов заняла бы терабит, а разложенная — n бит на тип.
+// Трофические уровни и длины пищевых цепей одинаковы для видов одного типа и пересчитываются
+// по числу видов каждого типа (O(типов^2)) при первом запросе после изменения.
+public class FoodWeb {
+    private static final SpeciesKind[] KINDS = SpeciesKind.values();
+    private static final int UNKNOWN = SpeciesKind.UNKNOWN.ordinal();
+    // Маска типов, которые может съесть тип (бит m — тип с ordinal m), и обратная маска хищников
+    private static final int[] PREY_KINDS = new int[KINDS.length];
+    private static final int[] PREDATOR_KINDS = new int[KINDS.length];
+
+    static {
+        for (SpeciesKind predator : KINDS) {
+            for (SpeciesKind prey : KINDS) {
+                if (predator.canEat(prey)) {
+                    PREY_KINDS[predator.ordinal()] |= 1 << prey.ordinal();
+                    PREDATOR_KINDS[prey.ordinal()] |= 1 << predator.ordinal();
+                }
+            }
+        }
+    }
+
+    // Тип вида по id: 0 — вида нет, иначе ordinal типа + 1
+    private byte[] kinds;
+    private final BitSet[] members = new BitSet[KINDS.length];
+    private final int[] counts = new int[KINDS.length];
+
+    // Трофический уровень и длина самой длинной цепи до продуцента по типам; пересчитываются лениво
+    private final double[] trophicLevels = new double[KINDS.length];
+    private final int[] chainLengths = new int[KINDS.length];
+    private boolean levelsValid;
+
+    public FoodWeb() {
+        kinds = new byte[64];
+        for (int k = 0; k < KINDS.length; k++) {
+            members[k] = new BitSet();
+        }
+    }
+
+    private FoodWeb(FoodWeb other) {
+        kinds = other.kinds.clone();
+        for (int k = 0; k < KINDS.length; k++) {
+            members[k] = (BitSet) other.members[k].clone();
+        }
+        System.arraycopy(other.counts, 0, counts, 0, counts.length);
+    }
+
+    // Независимая копия для чтения вне блокировки владельца
+    public FoodWeb copy() {
+        return new FoodWeb(this);
+    }
+
+    // Добавляет вид или меняет его тип; SpeciesKind.UNKNOWN удаляет вид из сети
+    public void put(int id, SpeciesKind kind) {
+        if (kind == SpeciesKind.UNKNOWN) {
+            remove(id);
+            return;
+        }
+        if (id >= kinds.length) {
+            kinds = Arrays.copyOf(kinds, Math.max(id + 1, kinds.length * 2));
+        }
+        int previous = kinds[id] - 1;
+        if (previous == kind.ordinal()) {
+            return;
+        }
+        if (previous >= 0) {
+            members[previous].clear(id);
+            counts[previous]--;
+        }
+        kinds[id] = (byte) (kind.ordinal() + 1);
+        members[kind.ordinal()].set(id);
+        counts[kind.ordinal()]++;
+        levelsValid = false;
+    }
+
+    public void remove(int id) {
+        int previous = id >= 0 && id < kinds.length ? kinds[id] - 1 : -1;
+        if (previous < 0) {
+            return;
+        }
+        kinds[id] = 0;
+        members[previous].clear(id);
+        counts[previous]--;
+        levelsValid = false;
+    }
+
+    public SpeciesKind kindOf(int id) {
+        int kind = id >= 0 && id < kinds.length ? kinds[id] : 0;
+        return kind == 0 ? SpeciesKind.UNKNOWN : KINDS[kind - 1];
+    }
+
+    public boolean contains(int id) {
+        return kindOf(id) != SpeciesKind.UNKNOWN;
+    }
+
+    public int size() {
+        int size = 0;
+        for (int count : counts) {
+            size += count;
+        }
+        return size;
+    }
+
+    public int count(SpeciesKind kind) {
+        return counts[kind.ordinal()];
+    }
+
+    // Проверка ребра "хищник -> жертва" за O(1): бит типа жертвы в маске типа хищника
+    public boolean canEat(int predatorId, int preyId) {
+        int predator = kindOf(predatorId).ordinal();
+        int prey = kindOf(preyId).ordinal();
+        return predator != UNKNOWN && prey != UNKNOWN && (PREY_KINDS[predator] & (1 << prey)) != 0;
+    }
+
+    // Id всех видов, которых может съесть вид (строка матрицы смежности)
+    public BitSet preyOf(int id) {
+        return union(PREY_KINDS[kindOf(id).ordinal()]);
+    }
+
+    // Id всех видов, которые могут съесть вид (столбец матрицы смежности)
+    public BitSet predatorsOf(int id) {
+        return union(PREDATOR_KINDS[kindOf(id).ordinal()]);
+    }
+
+    public int preyCount(int id) {
+        return countKinds(PREY_KINDS[kindOf(id).ordinal()]);
+    }
+
+    public int predatorCount(int id) {
+        return countKinds(PREDATOR_KINDS[kindOf(id).ordinal()]);
+    }
+
+    // Трофический уровень вида: 1 для видов без жертв (продуцентов), иначе 1 + средний уровень
+    // его жертв; NaN для вида не из сети
+    public double trophicLevel(int id) {
+        return trophicLevel(kindOf(id));
+    }
+
+    // Трофический уровень видов типа при текущем составе сети
+    public double trophicLevel(SpeciesKind kind) {
+        if (kind == SpeciesKind.UNKNOWN) {
+            return Double.NaN;
+        }
+        computeLevels();
+        return trophicLevels[kind.ordinal()];
+    }
+
+    // Число звеньев в самой длинной пищевой цепи от вида до продуцента; -1 для вида не из сети
+    public int foodChainLength(int id) {
+        SpeciesKind kind = kindOf(id);
+        if (kind == SpeciesKind.UNKNOWN) {
+            return -1;
+        }
+        computeLevels();
+        return chainLengths[kind.ordinal()];
+    }
+
+    // Самая длинная пищевая цепь сети (в звеньях); 0 для сети без ребер
+    public int longestFoodChain() {
+        computeLevels();
+        int longest = 0;
+        for (int k = 0; k < KINDS.length; k++) {
+            if (counts[k] > 0) {
+                longest = Math.max(longest, chainLengths[k]);
+            }
+        }
+        return longest;
+    }
+
+    private BitSet union(int kindMask) {
+        BitSet result = new BitSet();
+        for (int k = 0; k < KINDS.length; k++) {
+            if ((kindMask & (1 << k)) != 0) {
+                result.or(members[k]);
+            }
+        }
+        return result;
+    }
+
+    private int countKinds(int kindMask) {
+        int total = 0;
+        for (int k = 0; k < KINDS.length; k++) {
+            if ((kindMask & (1 << k)) != 0) {
+                total += counts[k];
+            }
+        }
+        return total;
+    }
+
+    // Уровни по типам итерациями до неподвижной точки: граф типов ацикличен, поэтому хватает
+    // числа типов проходов. Учитываются только типы-жертвы, виды которых есть в сети.
+    private void computeLevels() {
+        if (levelsValid) {
+            return;
+        }
+        Arrays.fill(trophicLevels, 1);
+        Arrays.fill(chainLengths, 0);
+        for (int pass = 0; pass < KINDS.length; pass++) {
+            for (int k = 0; k < KINDS.length; k++) {
+                double weightedLevels = 0;
+                int preySpecies = 0;
+                int longestChain = -1;
+                for (int m = 0; m < KINDS.length; m++) {
+                    if ((PREY_KINDS[k] & (1 << m)) != 0 && counts[m] > 0) {
+                        weightedLevels += counts[m] * trophicLevels[m];
+                        preySpecies += counts[m];
+                        longestChain = Math.max(longestChain, chainLengths[m]);
+                    }
+                }
+                trophicLevels[k] = preySpecies == 0 ? 1 : 1 + weightedLevels / preySpecies;
+                chainLengths[k] = longestChain + 1;
+            }
+        }
+        levelsValid = true;
+    }
+}
@@ -0,0 +1,120 @@
+package ecosystem.model;
+
+import lombok.Getter;
+
+// Двумерный мир для агентной симуляции: каждая клетка пуста или занята одной особью.
+// Состояние хранится столбцами по номеру клетки (y * width + x): тип, id вида и энергия особи.
+// Края склеены (тор), поэтому у каждой клетки ровно четыре соседа.
+// Шаг строит следующее состояние в отдельных массивах и затем меняет их местами с текущими;
+// массивы намерений и разрешения конфликтов выделяются один раз на мир.
+@Getter
+public class GridWorld {
+    private static final SpeciesKind[] KINDS = SpeciesKind.values();
+
+    private final int width;
+    private final int height;
+    private final long seed;
+    private long step;
+
+    // Текущее состояние: тип особи (0 — пусто, иначе ordinal типа + 1), id вида, энергия
+    private byte[] kinds;
+    private int[] species;
+    private float[] energy;
+
+    // Следующее состояние, заполняемое на шаге
+    private byte[] nextKinds;
+    private int[] nextSpecies;
+    private float[] nextEnergy;
+
+    // Рабочие массивы шага: целевая клетка и действие особи, отметка нападения, победитель за клетку
+    private final int[] intents;
+    private final byte[] actions;
+    private final boolean[] attacked;
+    private final int[] winners;
+
+    public GridWorld(int width, int height, long seed) {
+        this(width, height, seed, 0);
+    }
+
+    // Мир с заданным номером шага, например при восстановлении из снимка
+    public GridWorld(int width, int height, long seed, long step) {
+        if (width < 2 || height < 2 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.seed = seed;
+        this.step = step;
+        int cells = width * height;
+        kinds = new byte[cells];
+        species = new int[cells];
+        energy = new float[cells];
+        nextKinds = new byte[cells];
+        nextSpecies = new int[cells];
+        nextEnergy = new float[cells];
+        intents = new int[cells];
+        actions = new byte[cells];
+        attacked = new boolean[cells];
+        winners = new int[cells];
+    }
+
+    // Копия текущего состояния для записи снимка параллельно с симуляцией. Копируются только
+    // массивы текущего состояния, поэтому выполнять шаги на копии нельзя
+    public GridWorld snapshot() {
+        return new GridWorld(this);
+    }
+
+    private GridWorld(GridWorld source) {
+        width = source.width;
+        height = source.height;
+        seed = source.seed;
+        step = source.step;
+        kinds = source.kinds.clone();
+        species = source.species.clone();
+        energy = source.energy.clone();
+        intents = null;
+        actions = null;
+        attacked = null;
+        winners = null;
+    }
+
+    public int getCells() {
+        return kinds.length;
+    }
+
+    // Помещает особь в клетку (используется при заселении мира)
+    public void place(int cell, SpeciesKind kind, int speciesId, float initialEnergy) {
+        kinds[cell] = (byte) (kind.ordinal() + 1);
+        species[cell] = speciesId;
+        energy[cell] = initialEnergy;
+    }
+
+    public SpeciesKind kindAt(int cell) {
+        return kinds[cell] == 0 ? SpeciesKind.UNKNOWN : KINDS[kinds[cell] - 1];
+    }
+
+    // Делает следующее состояние текущим после завершения шага
+    public void swapBuffers() {
+        byte[] k = kinds;
+        kinds = nextKinds;
+        nextKinds = k;
+        int[] s = species;
+        species = nextSpecies;
+        nextSpecies = s;
+        float[] e = energy;
+        energy = nextEnergy;
+        nextEnergy = e;
+        step++;
+    }
+
+    // Число особей по типам (индекс — ordinal SpeciesKind)
+    public long[] countByKind() {
+        long[] counts = new long[KINDS.length];
+        for (byte kind : kinds) {
+            if (kind != 0) {
+                counts[kind - 1]++;
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,14 @@
+package ecosystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// Пара "хищник — жертва" для пакетной обработки взаимодействий
+@Getter
+@ToString
+@AllArgsConstructor
+public class InteractionPair {
+    private String predator;
+    private String prey;
+}
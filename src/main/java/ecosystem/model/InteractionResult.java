@@ -0,0 +1,34 @@
+package ecosystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// Результат разрешения взаимодействия: типы хищника и жертвы и допустимость поедания
+@Getter
+@ToString
+@AllArgsConstructor
+public class InteractionResult {
+    // Id видов в таблице символов экосистемы; -1 для незарегистрированных имен
+    private int predatorId;
+    private String predator;
+    private int preyId;
+    private String prey;
+    private SpeciesKind predatorKind;
+    private SpeciesKind preyKind;
+    private boolean allowed;
+
+    // Классифицирует пару по уже известным типам видов
+    public static InteractionResult of(String predator, String prey, SpeciesKind predatorKind, SpeciesKind preyKind) {
+        return of(-1, predator, -1, prey, predatorKind, preyKind);
+    }
+
+    public static InteractionResult of(int predatorId, String predator, int preyId, String prey,
+                                       SpeciesKind predatorKind, SpeciesKind preyKind) {
+        return new InteractionResult(predatorId, predator, preyId, prey, predatorKind, preyKind, predatorKind.canEat(preyKind));
+    }
+
+    public boolean isPreyPlant() {
+        return preyKind == SpeciesKind.PLANT;
+    }
+}
@@ -7,4 +7,8 @@ public class Plant extends Species {
     public Plant(String name) {
         super(name, "plant");
     }
+
+    public Plant(int id, String name) {
+        super(id, name, "plant");
+    }
 }
@@ -0,0 +1,28 @@
+package ecosystem.model;
+
+import lombok.Getter;
+
+// Прогнозируемое изменение популяции; ordinal используется как байтовый код в пакетных прогнозах
+@Getter
+public enum PopulationChange {
+    SIGNIFICANT_DECREASE("Significant Decrease"),
+    DECREASE("Decrease"),
+    STABLE("Stable"),
+    INCREASE("Increase");
+
+    private static final PopulationChange[] VALUES = values();
+
+    private final String label;
+
+    PopulationChange(String label) {
+        this.label = label;
+    }
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    public static PopulationChange fromCode(byte code) {
+        return VALUES[code];
+    }
+}
@@ -0,0 +1,61 @@
+package ecosystem.model;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+// Состояние популяций экосистемы в виде столбцов примитивов (structure-of-arrays).
+// Индекс в массивах — номер вида в состоянии, поэтому шаг симуляции проходит по массивам без аллокаций.
+// Имена не хранятся: speciesIds содержит id видов в таблице символов экосистемы.
+@Getter
+public class PopulationState {
+    private int[] speciesIds;
+    private byte[] kinds;
+    private double[] population;
+    private double[] birthRate;
+    private double[] deathRate;
+    private int size;
+    private long tick;
+
+    public PopulationState(int capacity) {
+        int initial = Math.max(capacity, 8);
+        speciesIds = new int[initial];
+        kinds = new byte[initial];
+        population = new double[initial];
+        birthRate = new double[initial];
+        deathRate = new double[initial];
+    }
+
+    // Добавляет вид и возвращает его номер в состоянии
+    public int add(int speciesId, SpeciesKind kind, double initialPopulation, double birth, double death) {
+        if (size == speciesIds.length) {
+            int capacity = size * 2;
+            speciesIds = Arrays.copyOf(speciesIds, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            population = Arrays.copyOf(population, capacity);
+            birthRate = Arrays.copyOf(birthRate, capacity);
+            deathRate = Arrays.copyOf(deathRate, capacity);
+        }
+        speciesIds[size] = speciesId;
+        kinds[size] = (byte) kind.ordinal();
+        population[size] = initialPopulation;
+        birthRate[size] = birth;
+        deathRate[size] = death;
+        return size++;
+    }
+
+    public void advanceTick(long ticks) {
+        tick += ticks;
+    }
+
+    // Суммарная численность видов заданного типа
+    public double totalPopulation(SpeciesKind kind) {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] == kind.ordinal()) {
+                total += population[i];
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,186 @@
+package ecosystem.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+// Упорядоченные правила прогноза изменения популяций растений и животных.
+// Строка правила: цель (plants или animals), исход (значение PopulationChange в любом регистре)
+// и условия через запятую, которые должны выполняться все одновременно, либо "*" — всегда.
+// Условие: параметр (temperature, humidity, water), оператор (<, <=, >, >=) и число:
+//   plants  significant_decrease  temperature > 35, humidity < 30
+// Для каждой цели применяется первое подходящее правило; если не подошло ни одно — STABLE.
+// Пустые строки и строки, начинающиеся с '#', пропускаются.
+// Здесь правила интерпретируются по порядку; для прогноза их компилирует RuleTable.
+public class PredictionRules {
+    public static final int PLANTS = 0;
+    public static final int ANIMALS = 1;
+    public static final int TEMPERATURE = 0;
+    public static final int HUMIDITY = 1;
+    public static final int WATER = 2;
+
+    static final String[] TARGETS = {"plants", "animals"};
+    static final String[] PARAMETERS = {"temperature", "humidity", "water"};
+    private static final String[] OPERATORS = {"<", "<=", ">", ">="};
+    private static final int LESS = 0;
+    private static final int LESS_OR_EQUAL = 1;
+    private static final int GREATER = 2;
+
+    // Правила, действовавшие до переноса в файл конфигурации
+    private static final List<String> DEFAULT_RULES = List.of(
+            "plants   significant_decrease  temperature > 35, humidity < 30",
+            "plants   decrease              temperature > 30, water < 20",
+            "plants   stable                temperature < 10",
+            "plants   stable                humidity < 15",
+            "plants   increase              temperature > 15, temperature <= 25, humidity >= 50",
+            "animals  significant_decrease  temperature > 35, water < 30",
+            "animals  decrease              temperature > 30, humidity < 40",
+            "animals  stable                temperature < 10, water > 40",
+            "animals  increase              temperature >= 20, temperature <= 30, humidity > 60, water > 50");
+
+    // Правила по целям в порядке приоритета
+    private final List<List<Rule>> rules;
+
+    private PredictionRules(List<List<Rule>> rules) {
+        this.rules = rules;
+    }
+
+    public static PredictionRules defaults() {
+        return parse(DEFAULT_RULES);
+    }
+
+    // Разбирает строки правил; при ошибке бросает IllegalArgumentException с номером строки
+    public static PredictionRules parse(List<String> lines) {
+        List<List<Rule>> rules = new ArrayList<>();
+        for (int i = 0; i < TARGETS.length; i++) {
+            rules.add(new ArrayList<>());
+        }
+        for (int number = 1; number <= lines.size(); number++) {
+            String line = lines.get(number - 1).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                String[] parts = line.split("\\s+", 3);
+                if (parts.length < 3) {
+                    throw new IllegalArgumentException("expected target, change and conditions");
+                }
+                int target = indexOf(TARGETS, parts[0].toLowerCase(Locale.ROOT), "target");
+                PopulationChange change = parseChange(parts[1]);
+                rules.get(target).add(parseRule(change, parts[2].trim()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("line " + number + ": " + e.getMessage(), e);
+            }
+        }
+        return new PredictionRules(rules);
+    }
+
+    private static Rule parseRule(PopulationChange change, String conditions) {
+        if (conditions.equals("*")) {
+            return new Rule(change, new int[0], new int[0], new double[0]);
+        }
+        String[] clauses = conditions.split(",");
+        int[] parameters = new int[clauses.length];
+        int[] operators = new int[clauses.length];
+        double[] values = new double[clauses.length];
+        for (int i = 0; i < clauses.length; i++) {
+            String[] tokens = clauses[i].trim().split("\\s+");
+            if (tokens.length != 3) {
+                throw new IllegalArgumentException("condition must be '<parameter> <operator> <number>': " + clauses[i].trim());
+            }
+            parameters[i] = indexOf(PARAMETERS, tokens[0].toLowerCase(Locale.ROOT), "parameter");
+            operators[i] = indexOf(OPERATORS, tokens[1], "operator");
+            values[i] = Double.parseDouble(tokens[2]);
+            if (!Double.isFinite(values[i])) {
+                throw new IllegalArgumentException("threshold must be finite: " + tokens[2]);
+            }
+        }
+        return new Rule(change, parameters, operators, values);
+    }
+
+    private static PopulationChange parseChange(String name) {
+        for (PopulationChange change : PopulationChange.values()) {
+            if (change.name().equalsIgnoreCase(name)) {
+                return change;
+            }
+        }
+        throw new IllegalArgumentException("unknown change " + name);
+    }
+
+    private static int indexOf(String[] names, String name, String what) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("unknown " + what + " " + name);
+    }
+
+    // Прогноз по правилам цели в порядке их приоритета
+    public PopulationChange evaluate(int target, double temperature, double humidity, double waterAmount) {
+        for (Rule rule : rules.get(target)) {
+            if (rule.matches(temperature, humidity, waterAmount)) {
+                return rule.change;
+            }
+        }
+        return PopulationChange.STABLE;
+    }
+
+    // Различные пороги параметра в условиях правил цели, по возрастанию
+    public double[] thresholds(int target, int parameter) {
+        TreeSet<Double> thresholds = new TreeSet<>();
+        for (Rule rule : rules.get(target)) {
+            for (int i = 0; i < rule.parameters.length; i++) {
+                if (rule.parameters[i] == parameter) {
+                    // -0.0 и 0.0 — один порог: сравнения их не различают
+                    thresholds.add(rule.values[i] == 0 ? 0.0 : rule.values[i]);
+                }
+            }
+        }
+        return thresholds.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    public int size() {
+        return rules.stream().mapToInt(List::size).sum();
+    }
+
+    private static final class Rule {
+        private final PopulationChange change;
+        private final int[] parameters;
+        private final int[] operators;
+        private final double[] values;
+
+        Rule(PopulationChange change, int[] parameters, int[] operators, double[] values) {
+            this.change = change;
+            this.parameters = parameters;
+            this.operators = operators;
+            this.values = values;
+        }
+
+        boolean matches(double temperature, double humidity, double waterAmount) {
+            for (int i = 0; i < parameters.length; i++) {
+                double value = parameters[i] == TEMPERATURE ? temperature : parameters[i] == HUMIDITY ? humidity : waterAmount;
+                boolean holds;
+                switch (operators[i]) {
+                    case LESS:
+                        holds = value < values[i];
+                        break;
+                    case LESS_OR_EQUAL:
+                        holds = value <= values[i];
+                        break;
+                    case GREATER:
+                        holds = value > values[i];
+                        break;
+                    default:
+                        holds = value >= values[i];
+                        break;
+                }
+                if (!holds) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
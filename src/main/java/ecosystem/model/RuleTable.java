@@ -0,0 +1,259 @@
+package ecosystem.model;
+
+import java.util.Arrays;
+
+// Правила прогноза, скомпилированные в трехмерную таблицу исходов для каждой цели.
+// Ось параметра делится порогами его условий t0 < t1 < ... < tn-1 на участки: (-inf, t0), [t0],
+// (t0, t1), [t1], ..., (tn-1, +inf) и отдельный участок для NaN — всего 2n + 2. Любое условие
+// вида "параметр <оператор> порог" на каждом участке либо выполняется целиком, либо не выполняется,
+// поэтому исход правил постоянен в каждой ячейке и вычисляется при компиляции по одной точке ячейки.
+// Прогноз — номера участков по трем осям (фиксированное для таблицы число сравнений без ветвлений)
+// и чтение одного байта кода PopulationChange.
+public class RuleTable {
+    private static final int TARGETS = PredictionRules.TARGETS.length;
+    private static final int PARAMETERS = PredictionRules.PARAMETERS.length;
+
+    // Правила, из которых скомпилирована таблица: хранятся вместе с ней, чтобы замена правил
+    // была одной записью ссылки на таблицу
+    private final PredictionRules rules;
+    private final Target[] targets = new Target[TARGETS];
+
+    private RuleTable(PredictionRules rules, double[][][] thresholds, byte[][] cells) {
+        this.rules = rules;
+        for (int target = 0; target < TARGETS; target++) {
+            targets[target] = new Target(thresholds[target], cells[target]);
+        }
+    }
+
+    public static RuleTable compile(PredictionRules rules) {
+        double[][][] thresholds = new double[TARGETS][PARAMETERS][];
+        byte[][] cells = new byte[TARGETS][];
+        for (int target = 0; target < TARGETS; target++) {
+            double[][] points = new double[PARAMETERS][];
+            for (int parameter = 0; parameter < PARAMETERS; parameter++) {
+                thresholds[target][parameter] = rules.thresholds(target, parameter);
+                points[parameter] = representatives(thresholds[target][parameter]);
+            }
+            cells[target] = new byte[points[0].length * points[1].length * points[2].length];
+            int cell = 0;
+            for (double temperature : points[0]) {
+                for (double humidity : points[1]) {
+                    for (double waterAmount : points[2]) {
+                        cells[target][cell++] = rules.evaluate(target, temperature, humidity, waterAmount).code();
+                    }
+                }
+            }
+        }
+        return new RuleTable(rules, thresholds, cells);
+    }
+
+    // Точка каждого участка оси в порядке номеров участков
+    private static double[] representatives(double[] thresholds) {
+        int n = thresholds.length;
+        double[] points = new double[2 * n + 2];
+        for (int k = 0; k <= n; k++) {
+            // Открытый интервал перед порогом k (или после последнего порога)
+            points[2 * k] = n == 0 ? 0 : k == 0 ? Math.nextDown(thresholds[0]) : Math.nextUp(thresholds[k - 1]);
+            if (k < n) {
+                points[2 * k + 1] = thresholds[k];
+            }
+        }
+        points[2 * n + 1] = Double.NaN;
+        return points;
+    }
+
+    // Номер участка по перебору порогов: каждый порог ниже значения дает 2, совпадение с порогом — 1.
+    // Для NaN все сравнения ложны, поэтому к нулю прибавляется номер последнего участка
+    private static int segment(double[] thresholds, double value) {
+        int segment = value != value ? 2 * thresholds.length + 1 : 0;
+        for (double threshold : thresholds) {
+            segment += (value > threshold ? 2 : 0) + (value == threshold ? 1 : 0);
+        }
+        return segment;
+    }
+
+    // Код PopulationChange для цели (PredictionRules.PLANTS или ANIMALS)
+    public byte lookup(int target, double temperature, double humidity, double waterAmount) {
+        return targets[target].lookup(temperature, humidity, waterAmount);
+    }
+
+    // Коды PopulationChange растений и животных для первых n строк массивов условий за один проход
+    public void lookup(double[] temperature, double[] humidity, double[] waterAmount, byte[] plantsOut, byte[] animalsOut, int n) {
+        Target plants = targets[PredictionRules.PLANTS];
+        Target animals = targets[PredictionRules.ANIMALS];
+        for (int i = 0; i < n; i++) {
+            double t = temperature[i];
+            double h = humidity[i];
+            double w = waterAmount[i];
+            plantsOut[i] = plants.lookup(t, h, w);
+            animalsOut[i] = animals.lookup(t, h, w);
+        }
+    }
+
+    public PredictionRules getRules() {
+        return rules;
+    }
+
+    public int cellCount() {
+        return Arrays.stream(targets).mapToInt(target -> target.cells.length).sum();
+    }
+
+    // Таблица одной цели: оси и коды исходов
+    // [(участок температуры * участков влажности + участок влажности) * участков воды + участок воды]
+    private static final class Target {
+        private final Axis temperature;
+        private final Axis humidity;
+        private final Axis water;
+        private final int humiditySegments;
+        private final int waterSegments;
+        private final byte[] cells;
+
+        Target(double[][] thresholds, byte[] cells) {
+            this.temperature = new Axis(thresholds[0]);
+            this.humidity = new Axis(thresholds[1]);
+            this.water = new Axis(thresholds[2]);
+            this.humiditySegments = 2 * thresholds[1].length + 2;
+            this.waterSegments = 2 * thresholds[2].length + 2;
+            this.cells = cells;
+        }
+
+        byte lookup(double t, double h, double w) {
+            return cells[(temperature.segment(t) * humiditySegments + humidity.segment(h)) * waterSegments
+                    + water.segment(w)];
+        }
+    }
+
+    // Квантованная ось: диапазон от первого до последнего порога делится на равные корзины так,
+    // чтобы в каждую попал не больше чем один порог. Номер корзины монотонно зависит от значения,
+    // поэтому все пороги из корзин левее лежат ниже значения, а правее — выше; участок равен
+    // числу участков до корзины плюс сравнение с порогом самой корзины. Вычисление — умножение,
+    // два сравнения и два чтения из массивов при любом числе порогов.
+    private static final class Axis {
+        private static final int MAX_BUCKETS = 1 << 16;
+
+        private final double[] thresholds;
+        private final double origin;
+        private final double scale;
+        private final int lastBucket;
+        // Номер участка в начале корзины и порог внутри корзины (NaN — порога нет)
+        private final int[] bucketSegments;
+        private final double[] bucketThresholds;
+        private final int nanSegment;
+        // Пороги так близки, что не разделяются корзинами: участок ищется перебором
+        private final boolean scan;
+
+        Axis(double[] thresholds) {
+            this.thresholds = thresholds;
+            this.nanSegment = 2 * thresholds.length + 1;
+            int n = thresholds.length;
+            double range = n > 1 ? thresholds[n - 1] - thresholds[0] : 0;
+            int buckets = 16;
+            while (range > 0 && buckets < MAX_BUCKETS && !separates(thresholds, (buckets - 1) / range, buckets)) {
+                buckets *= 2;
+            }
+            this.origin = n > 0 ? thresholds[0] : 0;
+            this.scale = range > 0 ? (buckets - 1) / range : 0;
+            this.lastBucket = buckets - 1;
+            this.scan = n > 1 && !separates(thresholds, scale, buckets);
+            this.bucketSegments = new int[buckets];
+            this.bucketThresholds = new double[buckets];
+            Arrays.fill(bucketThresholds, Double.NaN);
+            for (int k = 0; k < n; k++) {
+                int bucket = bucket(thresholds[k]);
+                bucketThresholds[bucket] = thresholds[k];
+                for (int b = bucket + 1; b < buckets; b++) {
+                    bucketSegments[b] = 2 * (k + 1);
+                }
+            }
+        }
+
+        private boolean separates(double[] thresholds, double scale, int buckets) {
+            int previous = -1;
+            for (double threshold : thresholds) {
+                int bucket = clamp((int) ((threshold - thresholds[0]) * scale), buckets - 1);
+                if (bucket == previous) {
+                    return false;
+                }
+                previous = bucket;
+            }
+            return true;
+        }
+
+        private static int clamp(int bucket, int lastBucket) {
+            return Math.max(0, Math.min(lastBucket, bucket));
+        }
+
+        private int bucket(double value) {
+            return clamp((int) ((value - origin) * scale), lastBucket);
+        }
+
+        int segment(double value) {
+            if (scan) {
+                return RuleTable.segment(thresholds, value);
+            }
+            int bucket = bucket(value);
+            double threshold = bucketThresholds[bucket];
+            return bucketSegments[bucket] + (value >= threshold ? 1 : 0) + (value > threshold ? 1 : 0)
+                    + (value != value ? nanSegment : 0);
+        }
+    }
+
+    // Сверяет таблицу с интерпретацией правил. По каждой оси берутся сами пороги, соседние с ними
+    // представимые числа с обеих сторон, середины интервалов, крайние значения, бесконечности и NaN;
+    // проверяются все их сочетания. Так проверяется каждый участок каждой оси и каждая граница между
+    // участками, а внутри участка исход правил не меняется — совпадение во всех точках означает
+    // совпадение таблицы с правилами на всей области значений.
+    public RuleVerification verify() {
+        return verify(rules);
+    }
+
+    public RuleVerification verify(PredictionRules rules) {
+        long points = 0;
+        long mismatches = 0;
+        String firstMismatch = null;
+        for (int target = 0; target < TARGETS; target++) {
+            double[][] samples = new double[PARAMETERS][];
+            for (int parameter = 0; parameter < PARAMETERS; parameter++) {
+                samples[parameter] = samples(rules.thresholds(target, parameter));
+            }
+            for (double temperature : samples[0]) {
+                for (double humidity : samples[1]) {
+                    for (double waterAmount : samples[2]) {
+                        points++;
+                        byte expected = rules.evaluate(target, temperature, humidity, waterAmount).code();
+                        byte actual = lookup(target, temperature, humidity, waterAmount);
+                        if (expected != actual) {
+                            mismatches++;
+                            if (firstMismatch == null) {
+                                firstMismatch = PredictionRules.TARGETS[target] + " at temperature=" + temperature
+                                        + ", humidity=" + humidity + ", water=" + waterAmount + ": rules "
+                                        + PopulationChange.fromCode(expected) + ", table " + PopulationChange.fromCode(actual);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return new RuleVerification(points, mismatches, firstMismatch);
+    }
+
+    private static double[] samples(double[] thresholds) {
+        double[] samples = new double[4 * thresholds.length + 6];
+        int count = 0;
+        for (int k = 0; k < thresholds.length; k++) {
+            samples[count++] = Math.nextDown(thresholds[k]);
+            samples[count++] = thresholds[k];
+            samples[count++] = Math.nextUp(thresholds[k]);
+            if (k + 1 < thresholds.length) {
+                samples[count++] = thresholds[k] + (thresholds[k + 1] - thresholds[k]) / 2;
+            }
+        }
+        samples[count++] = 0;
+        samples[count++] = -Double.MAX_VALUE;
+        samples[count++] = Double.MAX_VALUE;
+        samples[count++] = Double.NEGATIVE_INFINITY;
+        samples[count++] = Double.POSITIVE_INFINITY;
+        samples[count++] = Double.NaN;
+        return Arrays.copyOf(samples, count);
+    }
+}
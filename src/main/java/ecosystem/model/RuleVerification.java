@@ -0,0 +1,20 @@
+package ecosystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// Итог сверки скомпилированной таблицы прогноза с правилами: число проверенных точек,
+// расхождений и описание первого расхождения (null, если их нет)
+@Getter
+@ToString
+@AllArgsConstructor
+public class RuleVerification {
+    private long points;
+    private long mismatches;
+    private String firstMismatch;
+
+    public boolean isValid() {
+        return mismatches == 0;
+    }
+}
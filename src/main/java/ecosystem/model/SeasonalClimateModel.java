@@ -0,0 +1,30 @@
+package ecosystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Сезонные колебания и линейный дрейф вокруг исходных условий: значение параметра на тике —
+// исходное значение плюс амплитуда * sin(2π * tick / seasonTicks) плюс дрейф * tick.
+// Влажность и вода колеблются в противофазе с температурой (жаркий сезон — сухой);
+// влажность ограничена диапазоном 0..100, вода не бывает отрицательной.
+@Getter
+@AllArgsConstructor
+public class SeasonalClimateModel implements ClimateModel {
+    private final long seasonTicks;
+    private final double temperatureAmplitude;
+    private final double humidityAmplitude;
+    private final double waterAmplitude;
+    // Изменение параметров за один тик
+    private final double temperatureDrift;
+    private final double humidityDrift;
+    private final double waterDrift;
+
+    @Override
+    public void conditionsAt(long tick, Conditions base, double[] out) {
+        double season = seasonTicks > 0 ? Math.sin(2 * Math.PI * (tick % seasonTicks) / seasonTicks) : 0;
+        out[0] = base.getTemperature() + temperatureAmplitude * season + temperatureDrift * tick;
+        double humidity = base.getHumidity() - humidityAmplitude * season + humidityDrift * tick;
+        out[1] = Math.max(0, Math.min(100, humidity));
+        out[2] = Math.max(0, base.getWaterAmount() - waterAmplitude * season + waterDrift * tick);
+    }
+}
@@ -8,6 +8,12 @@ import lombok.ToString;
 @ToString
 @AllArgsConstructor
 public abstract class Species {
+    // Id вида в таблице символов экосистемы; -1, если вид еще не зарегистрирован в экосистеме
+    private int id;
     private String name;
     private String type;
+
+    protected Species(String name, String type) {
+        this(-1, name, type);
+    }
 }
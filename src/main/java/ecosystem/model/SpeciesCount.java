@@ -0,0 +1,14 @@
+package ecosystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// Вид и число взаимодействий с его участием (как хищника или как жертвы)
+@Getter
+@AllArgsConstructor
+@ToString
+public class SpeciesCount {
+    private final String name;
+    private final long count;
+}
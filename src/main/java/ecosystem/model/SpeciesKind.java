@@ -0,0 +1,55 @@
+package ecosystem.model;
+
+// Тип вида с точки зрения пищевой цепи: растение или животное с определенной диетой
+public enum SpeciesKind {
+    PLANT,
+    HERBIVORE,
+    CARNIVORE,
+    OMNIVORE,
+    UNKNOWN;
+
+    // Таблица "кто кого может съесть", вычисленная один раз: [хищник][жертва]
+    private static final boolean[][] CAN_EAT = new boolean[values().length][values().length];
+
+    static {
+        CAN_EAT[HERBIVORE.ordinal()][PLANT.ordinal()] = true;
+        CAN_EAT[CARNIVORE.ordinal()][HERBIVORE.ordinal()] = true;
+        CAN_EAT[OMNIVORE.ordinal()][PLANT.ordinal()] = true;
+        CAN_EAT[OMNIVORE.ordinal()][HERBIVORE.ordinal()] = true;
+        CAN_EAT[OMNIVORE.ordinal()][CARNIVORE.ordinal()] = true;
+    }
+
+    // Проверяет по таблице, может ли вид этого типа съесть вид типа prey
+    public boolean canEat(SpeciesKind prey) {
+        return CAN_EAT[ordinal()][prey.ordinal()];
+    }
+
+    public boolean isAnimal() {
+        return this == HERBIVORE || this == CARNIVORE || this == OMNIVORE;
+    }
+
+    // Определяет тип по объекту вида
+    public static SpeciesKind of(Species species) {
+        if (species instanceof Animal) {
+            return fromDiet(((Animal) species).getDietType());
+        }
+        return species instanceof Plant ? PLANT : UNKNOWN;
+    }
+
+    // Возвращает тип по строке диеты животного (herbivore/carnivore/omnivore)
+    public static SpeciesKind fromDiet(String dietType) {
+        if (dietType == null) {
+            return UNKNOWN;
+        }
+        switch (dietType) {
+            case "herbivore":
+                return HERBIVORE;
+            case "carnivore":
+                return CARNIVORE;
+            case "omnivore":
+                return OMNIVORE;
+            default:
+                return UNKNOWN;
+        }
+    }
+}
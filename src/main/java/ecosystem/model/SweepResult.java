@@ -0,0 +1,26 @@
+package ecosystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// Итог Монте-Карло прогона: гистограммы исходов для растений и животных (индекс — код PopulationChange)
+@Getter
+@ToString
+@AllArgsConstructor
+public class SweepResult {
+    private Conditions baseConditions;
+    private long samples;
+    private long seed;
+    private long[] plantsHistogram;
+    private long[] animalsHistogram;
+    private long elapsedNanos;
+
+    public double plantsFraction(PopulationChange change) {
+        return samples == 0 ? 0 : (double) plantsHistogram[change.ordinal()] / samples;
+    }
+
+    public double animalsFraction(PopulationChange change) {
+        return samples == 0 ? 0 : (double) animalsHistogram[change.ordinal()] / samples;
+    }
+}
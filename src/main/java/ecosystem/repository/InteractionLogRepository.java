@@ -0,0 +1,46 @@
+package ecosystem.repository;
+
+import ecosystem.model.InteractionResult;
+import ecosystem.model.SpeciesCount;
+import ecosystem.model.SpeciesKind;
+
+import java.nio.file.Path;
+import java.util.List;
+
+public interface InteractionLogRepository {
+    // Открывает журнал экосистемы; при первом открытии в него переносится история из текстового файла
+    void open(String ecosystemName);
+
+    void append(String ecosystemName, InteractionResult result);
+
+    void scan(String ecosystemName, RecordVisitor visitor);
+
+    String speciesName(String ecosystemName, int speciesId);
+
+    // Потоково выгружает историю и словарь видов в колоночный файл (ColumnarInteractionWriter);
+    // возвращает число выгруженных взаимодействий или -1 при ошибке
+    long exportColumnar(String ecosystemName, Path target);
+
+    // Запросы к агрегатам истории: отвечают без прохода по журналу
+    long countInteractions(String ecosystemName, String predatorName, String preyName);
+
+    long countAsPredator(String ecosystemName, String speciesName);
+
+    long countAsPrey(String ecosystemName, String speciesName);
+
+    // Не более limit видов с наибольшим числом взаимодействий, по убыванию;
+    // limit ограничен свойством interactions.aggregates.top.k
+    List<SpeciesCount> topPredators(String ecosystemName, int limit);
+
+    List<SpeciesCount> topPrey(String ecosystemName, int limit);
+
+    void flush(String ecosystemName);
+
+    void persistAggregates(String ecosystemName);
+
+    // Получатель записей журнала при полном проходе по истории
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(int predatorId, int preyId, long timestamp, SpeciesKind predatorKind, SpeciesKind preyKind);
+    }
+}
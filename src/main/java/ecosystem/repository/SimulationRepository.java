@@ -1,10 +1,18 @@
 package ecosystem.repository;
 
 import ecosystem.model.Conditions;
+import ecosystem.model.EcosystemCheckpoint;
+import ecosystem.model.GridWorld;
+import ecosystem.model.Species;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public interface SimulationRepository {
 
-    void createNewSimulation(String ecosystemName);
+    // false, если экосистема с таким именем уже существует
+    boolean createNewSimulation(String ecosystemName);
 
     void loadSimulation(String ecosystemName);
 
@@ -13,4 +21,18 @@ public interface SimulationRepository {
     Conditions readEcosystemConditions(String ecosystemName);
 
     boolean ecosystemExists(String ecosystemName);
+
+    List<String> listEcosystems();
+
+    // Ленивый поток видов (сначала растения, затем животные), прошедших фильтр, начиная с offset,
+    // не более limit штук. Файлы читаются по мере потребления; поток нужно закрыть
+    Stream<Species> streamSpecies(String ecosystemName, Predicate<? super Species> filter, long offset, long limit);
+
+    long countSpecies(String ecosystemName, Predicate<? super Species> filter);
+
+    // Записывает двоичный снимок видов, условий и (если world не null) состояния сетки экосистемы
+    void saveCheckpoint(String ecosystemName, GridWorld world);
+
+    // Читает последний снимок экосистемы; null, если снимка нет или он поврежден
+    EcosystemCheckpoint loadCheckpoint(String ecosystemName);
 }
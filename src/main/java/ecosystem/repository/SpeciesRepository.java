@@ -1,7 +1,13 @@
 package ecosystem.repository;
 
 import ecosystem.model.Animal;
+import ecosystem.model.FoodWeb;
+import ecosystem.model.InteractionResult;
 import ecosystem.model.Plant;
+import ecosystem.model.Species;
+import ecosystem.model.SpeciesKind;
+
+import java.util.List;
 
 public interface SpeciesRepository {
     void addPlant(String ecosystemName, Plant plant);
@@ -10,7 +16,12 @@ public interface SpeciesRepository {
 
     void deleteSpecies(String ecosystemName, String speciesName, boolean isPlant);
 
-    void updateAnimalDiet(String ecosystemName, String animalName, String newDietType);
+    // Удаляет вид, только если он есть в экосистеме; проверка и удаление выполняются атомарно,
+    // поэтому из параллельных вызовов для одного вида true вернет только один
+    boolean deleteSpeciesIfPresent(String ecosystemName, String speciesName, boolean isPlant);
+
+    // Возвращает false, если животного с таким именем нет
+    boolean updateAnimalDiet(String ecosystemName, String animalName, String newDietType);
 
     boolean checkIfHerbivore(String ecosystemName, String animalName);
 
@@ -21,4 +32,26 @@ public interface SpeciesRepository {
     void recordInteraction(String interaction, String ecosystemName);
 
     boolean checkIfOmnivore(String ecosystemName, String predator);
+
+    SpeciesKind classifySpecies(String ecosystemName, String speciesName);
+
+    SpeciesKind classifySpecies(String ecosystemName, int speciesId);
+
+    // Id вида в таблице символов экосистемы или -1, если вид с таким именем не зарегистрирован
+    int findSpeciesId(String ecosystemName, String speciesName);
+
+    // Применяет взаимодействия, жертвы которых еще есть в экосистеме, и возвращает примененные
+    List<InteractionResult> applyInteractions(String ecosystemName, List<InteractionResult> interactions);
+
+    List<Species> findAllSpecies(String ecosystemName);
+
+    // Снимок пищевой сети экосистемы; изменения видов после вызова в него не попадают
+    FoodWeb findFoodWeb(String ecosystemName);
+
+    // Записывает на диск отложенные изменения экосистемы, чтобы чтение файлов их учитывало
+    void flush(String ecosystemName);
+
+    // Записывает отложенные изменения и освобождает загруженные в память данные экосистемы;
+    // следующее обращение загрузит их с диска заново
+    void release(String ecosystemName);
 }
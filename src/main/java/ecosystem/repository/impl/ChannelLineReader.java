@@ -0,0 +1,125 @@
+package ecosystem.repository.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Построчное чтение файла через FileChannel и прямой буфер. Читаются только первые limit байт,
+// поэтому строки, дописанные после открытия, не попадают в уже начатый проход.
+// Прямые буферы переиспользуются между читателями через небольшой пул.
+class ChannelLineReader implements Iterator<String>, Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int POOL_SIZE = 16;
+    private static final Queue<ByteBuffer> BUFFER_POOL = new ConcurrentLinkedQueue<>();
+
+    private final FileChannel channel;
+    private final long limit;
+    private final Charset charset;
+    private ByteBuffer buffer;
+    private long position;
+    private byte[] line = new byte[256];
+    private String next;
+    private boolean closed;
+
+    ChannelLineReader(FileChannel channel, long limit, Charset charset) {
+        this.channel = channel;
+        this.limit = limit;
+        this.charset = charset;
+        ByteBuffer pooled = BUFFER_POOL.poll();
+        buffer = pooled != null ? pooled : ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.clear().limit(0);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !closed) {
+            try {
+                next = readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String result = next;
+        next = null;
+        return result;
+    }
+
+    // Возвращает следующую строку без символов перевода строки или null в конце данных
+    private String readLine() throws IOException {
+        int length = 0;
+        boolean readAny = false;
+        while (true) {
+            if (!buffer.hasRemaining() && !fill()) {
+                return readAny ? decode(length) : null;
+            }
+            readAny = true;
+            byte b = buffer.get();
+            if (b == '\n') {
+                return decode(length);
+            }
+            if (length == line.length) {
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[length++] = b;
+        }
+    }
+
+    private String decode(int length) {
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return new String(line, 0, length, charset);
+    }
+
+    private boolean fill() throws IOException {
+        if (position >= limit) {
+            return false;
+        }
+        buffer.clear();
+        if (limit - position < buffer.capacity()) {
+            buffer.limit((int) (limit - position));
+        }
+        int read = channel.read(buffer, position);
+        buffer.flip();
+        if (read <= 0) {
+            return false;
+        }
+        position += read;
+        return true;
+    }
+
+    // Сколько байт файла прочитано с диска
+    long bytesRead() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        next = null;
+        if (BUFFER_POOL.size() < POOL_SIZE) {
+            BUFFER_POOL.offer(buffer);
+        }
+        buffer = null;
+        channel.close();
+    }
+}
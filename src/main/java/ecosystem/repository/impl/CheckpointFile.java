@@ -0,0 +1,307 @@
+package ecosystem.repository.impl;
+
+import ecosystem.model.Animal;
+import ecosystem.model.Conditions;
+import ecosystem.model.EcosystemCheckpoint;
+import ecosystem.model.GridWorld;
+import ecosystem.model.Plant;
+import ecosystem.model.Species;
+import ecosystem.util.SymbolTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Двоичный снимок состояния экосистемы в одном файле, порядок байт little-endian.
+// Заголовок (24 байта): magic "ECCP" (int), версия (short), число секций (short), время создания (long),
+// CRC32 таблицы секций (int), резерв (int). Затем таблица секций — для каждой 24 байта:
+// тип (int), CRC32 данных (int), смещение от начала файла (long), длина (long).
+// Данные секций выровнены по 8 байтам:
+//   CONDITIONS — температура, влажность и вода (3 double);
+//   NAMES      — имена таблицы символов экосистемы по порядку id: число имен (int),
+//                смещения имен в блоке (int[n + 1]) и блок UTF-8 байт;
+//   DIETS      — различные строки диет животных в том же формате;
+//   SPECIES    — число видов (int), id видов (int[n]) и номер диеты (short[n], -1 — растение);
+//   GRID       — ширина, высота (int), seed, шаг (long), id видов (int[]), энергия (float[]) и типы (byte[]) клеток.
+// Файл пишется во временный и атомарно заменяет предыдущий снимок, поэтому сбой при записи его не портит.
+// Чтение отображает файл в память, сверяет контрольные суммы и копирует секции в массивы целиком.
+final class CheckpointFile {
+    static final int MAGIC = 0x45434350; // "ECCP"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    static final int INDEX_ENTRY_SIZE = 24;
+
+    static final int CONDITIONS = 1;
+    static final int NAMES = 2;
+    static final int DIETS = 3;
+    static final int SPECIES = 4;
+    static final int GRID = 5;
+
+    private static final int GRID_HEADER_SIZE = 24;
+
+    private CheckpointFile() {
+    }
+
+    // Записывает снимок и возвращает размер файла. Имена видов берутся из таблицы символов,
+    // поэтому id в снимке совпадают с id видов и клеток сетки
+    static long write(Path file, EcosystemCheckpoint checkpoint, SymbolTable symbols) throws IOException {
+        Map<Integer, ByteBuffer> sections = new LinkedHashMap<>();
+        sections.put(CONDITIONS, conditionsSection(checkpoint.getConditions()));
+        String[] names = new String[symbols.size()];
+        for (int id = 0; id < names.length; id++) {
+            names[id] = symbols.name(id);
+        }
+        sections.put(NAMES, stringsSection(names));
+        List<String> diets = new ArrayList<>();
+        sections.put(SPECIES, speciesSection(checkpoint.getSpecies(), diets));
+        sections.put(DIETS, stringsSection(diets.toArray(new String[0])));
+        if (checkpoint.getWorld() != null) {
+            sections.put(GRID, gridSection(checkpoint.getWorld()));
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + sections.size() * INDEX_ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.position(HEADER_SIZE);
+        long offset = align(header.capacity());
+        long end = offset;
+        long[] offsets = new long[sections.size()];
+        int i = 0;
+        for (Map.Entry<Integer, ByteBuffer> section : sections.entrySet()) {
+            ByteBuffer data = section.getValue();
+            header.putInt(section.getKey()).putInt(crc(data)).putLong(offset).putLong(data.remaining());
+            offsets[i++] = offset;
+            end = offset + data.remaining();
+            offset = align(end);
+        }
+        header.putInt(0, MAGIC)
+                .putShort(4, VERSION)
+                .putShort(6, (short) sections.size())
+                .putLong(8, checkpoint.getCreatedAt())
+                .putInt(16, crc(header.slice(HEADER_SIZE, header.capacity() - HEADER_SIZE)));
+        header.clear();
+
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header, 0);
+            i = 0;
+            for (ByteBuffer data : sections.values()) {
+                writeFully(channel, data, offsets[i++]);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return end;
+    }
+
+    // Читает снимок; имена видов регистрируются в таблице символов, и если их id в текущей таблице
+    // отличаются от записанных, id видов и клеток сетки переводятся в текущие
+    static EcosystemCheckpoint read(Path file, SymbolTable symbols) throws IOException {
+        Map<Integer, ByteBuffer> sections = new HashMap<>();
+        long createdAt;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw corrupted(file, "size " + size);
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            if (map.getInt(0) != MAGIC) {
+                throw corrupted(file, "bad magic");
+            }
+            if (map.getShort(4) != VERSION) {
+                throw corrupted(file, "unsupported version " + map.getShort(4));
+            }
+            int count = map.getShort(6) & 0xFFFF;
+            createdAt = map.getLong(8);
+            if (HEADER_SIZE + (long) count * INDEX_ENTRY_SIZE > size) {
+                throw corrupted(file, "truncated section index");
+            }
+            ByteBuffer index = map.slice(HEADER_SIZE, count * INDEX_ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (crc(index) != map.getInt(16)) {
+                throw corrupted(file, "section index checksum mismatch");
+            }
+            for (int i = 0; i < count; i++) {
+                int base = i * INDEX_ENTRY_SIZE;
+                int type = index.getInt(base);
+                long offset = index.getLong(base + 8);
+                long length = index.getLong(base + 16);
+                if (offset < 0 || length < 0 || offset + length > size) {
+                    throw corrupted(file, "section " + type + " out of bounds");
+                }
+                ByteBuffer data = map.slice((int) offset, (int) length).order(ByteOrder.LITTLE_ENDIAN);
+                if (crc(data) != index.getInt(base + 4)) {
+                    throw corrupted(file, "section " + type + " checksum mismatch");
+                }
+                sections.put(type, data);
+            }
+        }
+        for (int required : new int[]{CONDITIONS, NAMES, DIETS, SPECIES}) {
+            if (!sections.containsKey(required)) {
+                throw corrupted(file, "missing section " + required);
+            }
+        }
+
+        String[] names = readStrings(sections.get(NAMES));
+        int[] ids = new int[names.length];
+        boolean sameIds = true;
+        for (int id = 0; id < names.length; id++) {
+            ids[id] = symbols.intern(names[id]);
+            sameIds &= ids[id] == id;
+        }
+        ByteBuffer grid = sections.get(GRID);
+        return new EcosystemCheckpoint(createdAt,
+                readConditions(sections.get(CONDITIONS)),
+                readSpecies(sections.get(SPECIES), readStrings(sections.get(DIETS)), names, ids),
+                grid != null ? readGrid(grid, sameIds ? null : ids) : null);
+    }
+
+    private static ByteBuffer conditionsSection(Conditions conditions) {
+        ByteBuffer data = ByteBuffer.allocate(3 * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        data.putDouble(conditions.getTemperature()).putDouble(conditions.getHumidity()).putDouble(conditions.getWaterAmount());
+        return data.flip();
+    }
+
+    private static Conditions readConditions(ByteBuffer data) {
+        return new Conditions(data.getDouble(0), data.getDouble(8), data.getDouble(16));
+    }
+
+    private static ByteBuffer stringsSection(String[] strings) {
+        byte[][] encoded = new byte[strings.length][];
+        int[] offsets = new int[strings.length + 1];
+        for (int i = 0; i < strings.length; i++) {
+            encoded[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+            offsets[i + 1] = offsets[i] + encoded[i].length;
+        }
+        ByteBuffer data = ByteBuffer.allocate(Integer.BYTES * (strings.length + 2) + offsets[strings.length])
+                .order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(strings.length);
+        data.asIntBuffer().put(offsets);
+        data.position(data.position() + Integer.BYTES * offsets.length);
+        for (byte[] bytes : encoded) {
+            data.put(bytes);
+        }
+        return data.flip();
+    }
+
+    private static String[] readStrings(ByteBuffer data) {
+        int count = data.getInt(0);
+        int[] offsets = new int[count + 1];
+        data.position(Integer.BYTES).asIntBuffer().get(offsets);
+        int blobStart = Integer.BYTES * (count + 2);
+        byte[] blob = new byte[offsets[count]];
+        data.get(blobStart, blob);
+        String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            strings[i] = new String(blob, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    // Диеты животных собираются в diets в порядке первого появления
+    private static ByteBuffer speciesSection(List<Species> species, List<String> diets) {
+        int count = species.size();
+        int[] ids = new int[count];
+        short[] dietIndexes = new short[count];
+        Map<String, Short> dietNumbers = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            Species s = species.get(i);
+            ids[i] = s.getId();
+            if (s instanceof Animal) {
+                dietIndexes[i] = dietNumbers.computeIfAbsent(((Animal) s).getDietType(), diet -> {
+                    diets.add(diet);
+                    return (short) (diets.size() - 1);
+                });
+            } else {
+                dietIndexes[i] = -1;
+            }
+        }
+        ByteBuffer data = ByteBuffer.allocate(Integer.BYTES + count * (Integer.BYTES + Short.BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(count);
+        data.asIntBuffer().put(ids);
+        data.position(Integer.BYTES + count * Integer.BYTES);
+        data.asShortBuffer().put(dietIndexes);
+        return data.rewind();
+    }
+
+    private static List<Species> readSpecies(ByteBuffer data, String[] diets, String[] names, int[] currentIds) {
+        int count = data.getInt(0);
+        int[] ids = new int[count];
+        short[] dietIndexes = new short[count];
+        data.position(Integer.BYTES).asIntBuffer().get(ids);
+        data.position(Integer.BYTES + count * Integer.BYTES).asShortBuffer().get(dietIndexes);
+        List<Species> species = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = currentIds[ids[i]];
+            String name = names[ids[i]];
+            species.add(dietIndexes[i] < 0 ? new Plant(id, name) : new Animal(id, name, diets[dietIndexes[i]]));
+        }
+        return species;
+    }
+
+    private static ByteBuffer gridSection(GridWorld world) {
+        int cells = world.getCells();
+        ByteBuffer data = ByteBuffer.allocate(GRID_HEADER_SIZE + cells * (Integer.BYTES + Float.BYTES + 1))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(world.getWidth()).putInt(world.getHeight()).putLong(world.getSeed()).putLong(world.getStep());
+        data.asIntBuffer().put(world.getSpecies());
+        data.position(data.position() + cells * Integer.BYTES);
+        data.asFloatBuffer().put(world.getEnergy());
+        data.position(data.position() + cells * Float.BYTES);
+        data.put(world.getKinds());
+        return data.flip();
+    }
+
+    // currentIds == null, если id видов в снимке совпадают с текущими
+    private static GridWorld readGrid(ByteBuffer data, int[] currentIds) {
+        GridWorld world = new GridWorld(data.getInt(0), data.getInt(4), data.getLong(8), data.getLong(16));
+        int cells = world.getCells();
+        data.position(GRID_HEADER_SIZE).asIntBuffer().get(world.getSpecies());
+        data.position(GRID_HEADER_SIZE + cells * Integer.BYTES).asFloatBuffer().get(world.getEnergy());
+        data.get(GRID_HEADER_SIZE + cells * (Integer.BYTES + Float.BYTES), world.getKinds());
+        if (currentIds != null) {
+            int[] species = world.getSpecies();
+            byte[] kinds = world.getKinds();
+            for (int cell = 0; cell < cells; cell++) {
+                if (kinds[cell] != 0) {
+                    species[cell] = currentIds[species[cell]];
+                }
+            }
+        }
+        return world;
+    }
+
+    private static int crc(ByteBuffer data) {
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data, long position) throws IOException {
+        ByteBuffer source = data.duplicate();
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+    }
+
+    private static IOException corrupted(Path file, String reason) {
+        return new IOException(file.getFileName() + ": " + reason);
+    }
+}
@@ -0,0 +1,280 @@
+package ecosystem.repository.impl;
+
+import ecosystem.model.SpeciesKind;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import static ecosystem.repository.impl.ColumnarInteractionWriter.*;
+
+// Чтение колоночного файла истории взаимодействий (формат описан в ColumnarInteractionWriter).
+// При открытии читаются только футер и словарь видов; блоки колонок читаются с диска по запросу,
+// поэтому задача анализа читает лишь нужные ей колонки, а по min/max блоков может пропускать группы.
+// Значения всех колонок возвращаются как long: id видов, время в миллисекундах или ordinal SpeciesKind.
+public class ColumnarInteractionReader implements Closeable {
+    public static final String PREDATOR = ColumnarInteractionWriter.PREDATOR;
+    public static final String PREY = ColumnarInteractionWriter.PREY;
+    public static final String TIMESTAMP = ColumnarInteractionWriter.TIMESTAMP;
+    public static final String PREDATOR_KIND = ColumnarInteractionWriter.PREDATOR_KIND;
+    public static final String PREY_KIND = ColumnarInteractionWriter.PREY_KIND;
+
+    private final FileChannel channel;
+    private final long rowCount;
+    private final String[] columnNames;
+    private final byte[] encodings;
+    private final long[] fileMins;
+    private final long[] fileMaxes;
+    private final int[] groupRows;
+    // Метаданные блоков: [группа][колонка]
+    private final long[][] chunkOffsets;
+    private final int[][] chunkLengths;
+    private final byte[][] chunkWidths;
+    private final long[][] chunkMins;
+    private final long[][] chunkMaxes;
+    private final String[] speciesNames;
+    private final byte[] speciesKinds;
+
+    private ColumnarInteractionReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        if (size < HEADER_SIZE + TRAILER_SIZE) {
+            throw new IOException("Not a columnar interaction file");
+        }
+        ByteBuffer header = read(0, HEADER_SIZE);
+        ByteBuffer trailer = read(size - TRAILER_SIZE, TRAILER_SIZE);
+        if (header.getInt(0) != MAGIC || trailer.getInt(4) != MAGIC) {
+            throw new IOException("Not a columnar interaction file");
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported columnar file version " + header.getInt(4));
+        }
+        int footerLength = trailer.getInt(0);
+        ByteBuffer footer = read(size - TRAILER_SIZE - footerLength, footerLength);
+
+        rowCount = footer.getLong();
+        int groups = footer.getInt();
+        int columns = footer.getInt();
+        columnNames = new String[columns];
+        encodings = new byte[columns];
+        fileMins = new long[columns];
+        fileMaxes = new long[columns];
+        for (int c = 0; c < columns; c++) {
+            byte[] name = new byte[footer.getShort()];
+            footer.get(name);
+            columnNames[c] = new String(name, StandardCharsets.UTF_8);
+            encodings[c] = footer.get();
+            fileMins[c] = footer.getLong();
+            fileMaxes[c] = footer.getLong();
+        }
+        groupRows = new int[groups];
+        chunkOffsets = new long[groups][columns];
+        chunkLengths = new int[groups][columns];
+        chunkWidths = new byte[groups][columns];
+        chunkMins = new long[groups][columns];
+        chunkMaxes = new long[groups][columns];
+        for (int g = 0; g < groups; g++) {
+            groupRows[g] = footer.getInt();
+            for (int c = 0; c < columns; c++) {
+                chunkOffsets[g][c] = footer.getLong();
+                chunkLengths[g][c] = footer.getInt();
+                chunkWidths[g][c] = footer.get();
+                chunkMins[g][c] = footer.getLong();
+                chunkMaxes[g][c] = footer.getLong();
+            }
+        }
+        long dictionaryOffset = footer.getLong();
+        int dictionaryLength = footer.getInt();
+
+        ByteBuffer dictionary = read(dictionaryOffset, dictionaryLength);
+        int count = dictionary.getInt();
+        int[] offsets = new int[count + 1];
+        for (int i = 0; i <= count; i++) {
+            offsets[i] = dictionary.getInt();
+        }
+        byte[] names = new byte[offsets[count]];
+        dictionary.get(names);
+        speciesNames = new String[count];
+        for (int id = 0; id < count; id++) {
+            speciesNames[id] = new String(names, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+        }
+        speciesKinds = new byte[count];
+        dictionary.get(speciesKinds);
+    }
+
+    public static ColumnarInteractionReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new ColumnarInteractionReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public List<String> getColumns() {
+        return Collections.unmodifiableList(Arrays.asList(columnNames));
+    }
+
+    public int getRowGroupCount() {
+        return groupRows.length;
+    }
+
+    public int getRowGroupRows(int group) {
+        return groupRows[group];
+    }
+
+    // Минимум и максимум колонки по всему файлу
+    public long getMin(String column) {
+        return fileMins[columnIndex(column)];
+    }
+
+    public long getMax(String column) {
+        return fileMaxes[columnIndex(column)];
+    }
+
+    // Минимум и максимум колонки в группе: по ним можно пропустить группу, не читая ее
+    public long getMin(String column, int group) {
+        return chunkMins[group][columnIndex(column)];
+    }
+
+    public long getMax(String column, int group) {
+        return chunkMaxes[group][columnIndex(column)];
+    }
+
+    public int getSpeciesCount() {
+        return speciesNames.length;
+    }
+
+    public String speciesName(int id) {
+        return id >= 0 && id < speciesNames.length ? speciesNames[id] : null;
+    }
+
+    // Тип вида по последнему взаимодействию с ним в истории
+    public SpeciesKind speciesKind(int id) {
+        return id >= 0 && id < speciesKinds.length ? kindOf(speciesKinds[id]) : SpeciesKind.UNKNOWN;
+    }
+
+    // Читает и декодирует один блок колонки
+    public long[] readColumn(String column, int group) throws IOException {
+        int c = columnIndex(column);
+        int rows = groupRows[group];
+        long[] values = new long[rows];
+        ByteBuffer chunk = read(chunkOffsets[group][c], chunkLengths[group][c]);
+        switch (encodings[c]) {
+            case BIT_PACKED:
+                decodeBitPacked(chunk, values, chunkMins[group][c], chunkWidths[group][c]);
+                break;
+            case DELTA:
+                decodeDelta(chunk, values);
+                break;
+            case RUN_LENGTH:
+                decodeRunLength(chunk, values);
+                break;
+            default:
+                throw new IOException("Unknown encoding " + encodings[c] + " of column " + column);
+        }
+        return values;
+    }
+
+    // Передает все значения колонки по порядку строк, читая по одному блоку за раз
+    public void forEach(String column, LongConsumer consumer) throws IOException {
+        for (int group = 0; group < groupRows.length; group++) {
+            for (long value : readColumn(column, group)) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    private static void decodeBitPacked(ByteBuffer chunk, long[] values, long min, int width) {
+        if (width == 0) {
+            Arrays.fill(values, min);
+            return;
+        }
+        long mask = width == 64 ? -1L : (1L << width) - 1;
+        long word = 0;
+        int available = 0;
+        for (int i = 0; i < values.length; i++) {
+            long value;
+            if (available >= width) {
+                value = word & mask;
+                word >>>= width;
+                available -= width;
+            } else {
+                long next = chunk.getLong();
+                value = (word | (next << available)) & mask;
+                int taken = width - available;
+                word = taken == 64 ? 0 : next >>> taken;
+                available = 64 - taken;
+            }
+            values[i] = value + min;
+        }
+    }
+
+    private static void decodeDelta(ByteBuffer chunk, long[] values) {
+        long previous = 0;
+        for (int i = 0; i < values.length; i++) {
+            previous += getVarLong(chunk);
+            values[i] = previous;
+        }
+    }
+
+    private static void decodeRunLength(ByteBuffer chunk, long[] values) {
+        int i = 0;
+        while (i < values.length) {
+            long value = getVarLong(chunk);
+            int run = (int) getVarLong(chunk);
+            Arrays.fill(values, i, i + run, value);
+            i += run;
+        }
+    }
+
+    private static long getVarLong(ByteBuffer chunk) {
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = chunk.get();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private int columnIndex(String column) {
+        for (int c = 0; c < columnNames.length; c++) {
+            if (columnNames[c].equals(column)) {
+                return c;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column " + column);
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of columnar file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,293 @@
+package ecosystem.repository.impl;
+
+import ecosystem.model.SpeciesKind;
+import ecosystem.util.SymbolTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Потоковая запись истории взаимодействий в колоночный файл для офлайн-анализа, порядок байт little-endian.
+// Строки накапливаются группами по rowGroupRows; каждая колонка группы кодируется и пишется
+// отдельным блоком, поэтому память ограничена размером группы при любой длине истории.
+// Колонки и кодирование:
+//   predator, prey                — id видов из словаря файла, упакованные по битам относительно минимума группы;
+//   timestamp                     — первое значение и разности соседних значений (zigzag varint);
+//   predator_kind, prey_kind      — ordinal SpeciesKind, серии одинаковых значений (значение, длина серии).
+// Файл: magic "ECCF" и версия, блоки колонок по группам, словарь видов (id -> имя и тип по истории),
+// футер с описанием колонок, min/max по файлу и по каждому блоку, смещениями блоков и словаря,
+// затем длина футера (int) и magic. Читатель находит футер с конца файла и читает только нужные колонки.
+final class ColumnarInteractionWriter implements Closeable {
+    static final int MAGIC = 0x46434345; // "ECCF"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int TRAILER_SIZE = 8;
+
+    static final byte BIT_PACKED = 1;
+    static final byte DELTA = 2;
+    static final byte RUN_LENGTH = 3;
+
+    static final String PREDATOR = "predator";
+    static final String PREY = "prey";
+    static final String TIMESTAMP = "timestamp";
+    static final String PREDATOR_KIND = "predator_kind";
+    static final String PREY_KIND = "prey_kind";
+    static final String[] COLUMNS = {PREDATOR, PREY, TIMESTAMP, PREDATOR_KIND, PREY_KIND};
+    static final byte[] ENCODINGS = {BIT_PACKED, BIT_PACKED, DELTA, RUN_LENGTH, RUN_LENGTH};
+
+    private static final SpeciesKind[] KINDS = SpeciesKind.values();
+
+    private final FileChannel channel;
+    private final SymbolTable symbols;
+    private final int rowGroupRows;
+
+    // Текущая группа строк по колонкам
+    private final long[][] columns;
+    private int rows;
+    private long totalRows;
+
+    // Тип каждого вида по последней записи истории (ordinal + 1, 0 — вид не встречался)
+    private byte[] speciesKinds = new byte[64];
+
+    // Метаданные записанных блоков: по группам и колонкам
+    private final List<long[]> chunkOffsets = new ArrayList<>();
+    private final List<int[]> chunkLengths = new ArrayList<>();
+    private final List<byte[]> chunkWidths = new ArrayList<>();
+    private final List<long[]> chunkMins = new ArrayList<>();
+    private final List<long[]> chunkMaxes = new ArrayList<>();
+    private final List<Integer> groupRows = new ArrayList<>();
+    private final long[] fileMins = new long[COLUMNS.length];
+    private final long[] fileMaxes = new long[COLUMNS.length];
+
+    // Буфер кодирования блока, переиспользуется между блоками
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    private long position;
+
+    ColumnarInteractionWriter(Path target, SymbolTable symbols, int rowGroupRows) throws IOException {
+        this.channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.symbols = symbols;
+        this.rowGroupRows = rowGroupRows;
+        this.columns = new long[COLUMNS.length][rowGroupRows];
+        Arrays.fill(fileMins, Long.MAX_VALUE);
+        Arrays.fill(fileMaxes, Long.MIN_VALUE);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        flushBuffer();
+    }
+
+    void append(int predatorId, int preyId, long timestamp, SpeciesKind predatorKind, SpeciesKind preyKind) throws IOException {
+        columns[0][rows] = predatorId;
+        columns[1][rows] = preyId;
+        columns[2][rows] = timestamp;
+        columns[3][rows] = predatorKind.ordinal();
+        columns[4][rows] = preyKind.ordinal();
+        rememberKind(predatorId, predatorKind);
+        rememberKind(preyId, preyKind);
+        if (++rows == rowGroupRows) {
+            writeRowGroup();
+        }
+    }
+
+    long getRowCount() {
+        return totalRows + rows;
+    }
+
+    private void rememberKind(int id, SpeciesKind kind) {
+        if (id < 0) {
+            return;
+        }
+        if (id >= speciesKinds.length) {
+            speciesKinds = Arrays.copyOf(speciesKinds, Math.max(id + 1, speciesKinds.length * 2));
+        }
+        speciesKinds[id] = (byte) (kind.ordinal() + 1);
+    }
+
+    private void writeRowGroup() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        long[] offsets = new long[COLUMNS.length];
+        int[] lengths = new int[COLUMNS.length];
+        byte[] widths = new byte[COLUMNS.length];
+        long[] mins = new long[COLUMNS.length];
+        long[] maxes = new long[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            long[] values = columns[c];
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < rows; i++) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            switch (ENCODINGS[c]) {
+                case BIT_PACKED:
+                    widths[c] = (byte) (64 - Long.numberOfLeadingZeros(max - min));
+                    encodeBitPacked(values, rows, min, widths[c]);
+                    break;
+                case DELTA:
+                    encodeDelta(values, rows);
+                    break;
+                default:
+                    encodeRunLength(values, rows);
+                    break;
+            }
+            offsets[c] = position;
+            lengths[c] = buffer.position();
+            mins[c] = min;
+            maxes[c] = max;
+            fileMins[c] = Math.min(fileMins[c], min);
+            fileMaxes[c] = Math.max(fileMaxes[c], max);
+            flushBuffer();
+        }
+        chunkOffsets.add(offsets);
+        chunkLengths.add(lengths);
+        chunkWidths.add(widths);
+        chunkMins.add(mins);
+        chunkMaxes.add(maxes);
+        groupRows.add(rows);
+        totalRows += rows;
+        rows = 0;
+    }
+
+    // Значения минус минимум группы, по width бит на значение, младшие биты первыми
+    private void encodeBitPacked(long[] values, int count, long min, int width) {
+        ensureCapacity(((long) count * width + 63) / 64 * Long.BYTES);
+        if (width == 0) {
+            return;
+        }
+        long word = 0;
+        int used = 0;
+        for (int i = 0; i < count; i++) {
+            long value = values[i] - min;
+            word |= value << used;
+            used += width;
+            if (used >= 64) {
+                buffer.putLong(word);
+                used -= 64;
+                word = used > 0 ? value >>> (width - used) : 0;
+            }
+        }
+        if (used > 0) {
+            buffer.putLong(word);
+        }
+    }
+
+    private void encodeDelta(long[] values, int count) {
+        ensureCapacity((long) count * 10);
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            putVarLong(values[i] - previous);
+            previous = values[i];
+        }
+    }
+
+    private void encodeRunLength(long[] values, int count) {
+        ensureCapacity((long) count * 20);
+        int start = 0;
+        for (int i = 1; i <= count; i++) {
+            if (i == count || values[i] != values[start]) {
+                putVarLong(values[start]);
+                putVarLong(i - start);
+                start = i;
+            }
+        }
+    }
+
+    // Знаковое число в zigzag varint: по 7 бит в байте, старший бит — признак продолжения
+    private void putVarLong(long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            buffer.put((byte) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        buffer.put((byte) zigzag);
+    }
+
+    private void ensureCapacity(long bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate((int) Math.max(buffer.capacity() * 2L, buffer.position() + bytes))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Словарь видов: число, смещения имен (int[n + 1]), UTF-8 байты имен и типы (byte[n])
+    private void writeDictionary() {
+        int count = symbols.size();
+        byte[][] names = new byte[count][];
+        int[] offsets = new int[count + 1];
+        for (int id = 0; id < count; id++) {
+            names[id] = symbols.name(id).getBytes(StandardCharsets.UTF_8);
+            offsets[id + 1] = offsets[id] + names[id].length;
+        }
+        ensureCapacity(Integer.BYTES * (count + 2L) + offsets[count] + count);
+        buffer.putInt(count);
+        for (int offset : offsets) {
+            buffer.putInt(offset);
+        }
+        for (byte[] name : names) {
+            buffer.put(name);
+        }
+        for (int id = 0; id < count; id++) {
+            byte kind = id < speciesKinds.length ? speciesKinds[id] : 0;
+            buffer.put((byte) (kind == 0 ? SpeciesKind.UNKNOWN.ordinal() : kind - 1));
+        }
+    }
+
+    // Дописывает последнюю группу, словарь и футер
+    @Override
+    public void close() throws IOException {
+        try {
+            writeRowGroup();
+            long dictionaryOffset = position;
+            writeDictionary();
+            int dictionaryLength = buffer.position();
+            flushBuffer();
+
+            int groups = groupRows.size();
+            ensureCapacity(64L + COLUMNS.length * 64L + groups * (Integer.BYTES + COLUMNS.length * 29L));
+            buffer.putLong(totalRows).putInt(groups).putInt(COLUMNS.length);
+            for (int c = 0; c < COLUMNS.length; c++) {
+                byte[] name = COLUMNS[c].getBytes(StandardCharsets.UTF_8);
+                buffer.putShort((short) name.length).put(name).put(ENCODINGS[c])
+                        .putLong(totalRows == 0 ? 0 : fileMins[c]).putLong(totalRows == 0 ? 0 : fileMaxes[c]);
+            }
+            for (int g = 0; g < groups; g++) {
+                buffer.putInt(groupRows.get(g));
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    buffer.putLong(chunkOffsets.get(g)[c]).putInt(chunkLengths.get(g)[c]).put(chunkWidths.get(g)[c])
+                            .putLong(chunkMins.get(g)[c]).putLong(chunkMaxes.get(g)[c]);
+                }
+            }
+            buffer.putLong(dictionaryOffset).putInt(dictionaryLength);
+            int footerLength = buffer.position();
+            buffer.putInt(footerLength).putInt(MAGIC);
+            flushBuffer();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    static SpeciesKind kindOf(long ordinal) {
+        return ordinal >= 0 && ordinal < KINDS.length ? KINDS[(int) ordinal] : SpeciesKind.UNKNOWN;
+    }
+}
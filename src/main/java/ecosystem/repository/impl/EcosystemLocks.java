@@ -0,0 +1,61 @@
+package ecosystem.repository.impl;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Полосатые (striped) блокировки чтения-записи по имени экосистемы, общие для всех репозиториев.
+// Чтения любых экосистем выполняются параллельно, запись в одну экосистему исключает
+// остальные операции с ней. Разные экосистемы блокируют друг друга, только если
+// попали в одну полосу.
+final class EcosystemLocks {
+    // Степень двойки, чтобы номер полосы вычислялся маской
+    private static final int STRIPES = 64;
+    private static final ReadWriteLock[] LOCKS = new ReadWriteLock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    private EcosystemLocks() {
+    }
+
+    static ReadWriteLock forEcosystem(String ecosystemName) {
+        int hash = ecosystemName.hashCode();
+        return LOCKS[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    static <T> T read(String ecosystemName, Supplier<T> action) {
+        return locked(forEcosystem(ecosystemName).readLock(), action);
+    }
+
+    static void read(String ecosystemName, Runnable action) {
+        locked(forEcosystem(ecosystemName).readLock(), () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static <T> T write(String ecosystemName, Supplier<T> action) {
+        return locked(forEcosystem(ecosystemName).writeLock(), action);
+    }
+
+    static void write(String ecosystemName, Runnable action) {
+        locked(forEcosystem(ecosystemName).writeLock(), () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static <T> T locked(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package ecosystem.repository.impl;
+
+import ecosystem.model.Animal;
+import ecosystem.model.FoodWeb;
+import ecosystem.model.InteractionResult;
+import ecosystem.model.Plant;
+import ecosystem.model.Species;
+import ecosystem.model.SpeciesKind;
+import ecosystem.repository.SpeciesRepository;
+import ecosystem.service.UIService;
+import ecosystem.service.impl.UIServiceImpl;
+import ecosystem.util.Config;
+import ecosystem.util.Metrics;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static ecosystem.util.Messages.*;
+
+// Репозиторий видов, который загружает каждую экосистему в память один раз.
+// Проверки выполняются по хеш-индексам без обращения к диску, а изменения
+// записываются отложенно (write-behind) фоновым потоком в журналы SpeciesLogStore.
+public class IndexedSpeciesRepositoryImpl implements SpeciesRepository {
+    // Singleton instance для обеспечения единственного экземпляра репозитория видов
+    private static IndexedSpeciesRepositoryImpl instance;
+    private final UIService uiService = UIServiceImpl.getInstance();
+    private final SpeciesLogStore speciesLogStore = SpeciesLogStore.getInstance();
+    // Загрузка индекса и сброс изменений — единственные обращения к диску; учитываются как species.*
+    private final Metrics metrics = Metrics.getInstance();
+
+    // Загруженные индексы экосистем по имени экосистемы
+    private final Map<String, SpeciesIndex> indexes = new ConcurrentHashMap<>();
+    // Один фоновый поток, который сбрасывает накопленные изменения в файлы
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "species-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Задержка перед записью, за которую изменения успевают накопиться
+    private final long flushDelayMillis = Config.getLongProperty("species.flush.delay.ms", 200);
+
+    // Приватный конструктор для синглтона
+    private IndexedSpeciesRepositoryImpl() {
+        // Гарантируем, что несохраненные изменения попадут на диск при завершении программы
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushAll, "species-flush-on-exit"));
+    }
+
+    // Метод для получения экземпляра Singleton
+    public static synchronized IndexedSpeciesRepositoryImpl getInstance() {
+        if (instance == null) {
+            instance = new IndexedSpeciesRepositoryImpl(); // Создаем новый экземпляр, если он еще не существует
+        }
+        return instance; // Возвращаем существующий экземпляр
+    }
+
+    // Возвращает путь к директории конкретной экосистемы по ее названию
+    private String getEcosystemDirectory(String ecosystemName) {
+        return Config.getDirectory() + ecosystemName;
+    }
+
+    private Path getFilePath(String ecosystemName, String fileProperty) {
+        return Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty(fileProperty));
+    }
+
+    // Возвращает индекс экосистемы, загружая его с диска при первом обращении
+    private SpeciesIndex getIndex(String ecosystemName) {
+        return indexes.computeIfAbsent(ecosystemName, this::loadIndex);
+    }
+
+    // Однократно восстанавливает растения и животных (базовый файл с примененным журналом) в индекс
+    private SpeciesIndex loadIndex(String ecosystemName) {
+        long start = System.nanoTime();
+        SpeciesIndex index = new SpeciesIndex(SymbolTables.forEcosystem(ecosystemName));
+        for (String line : readLines(getFilePath(ecosystemName, "plants.file"))) {
+            if (!line.isBlank()) {
+                index.putPlant(line);
+            }
+        }
+        for (String line : readLines(getFilePath(ecosystemName, "animals.file"))) {
+            Animal animal = SpeciesIndex.parseAnimal(line);
+            if (animal != null) {
+                index.putAnimal(animal.getName(), animal.getDietType());
+            }
+        }
+        metrics.recordLatency("species.loadIndex", start);
+        return index;
+    }
+
+    private List<String> readLines(Path filePath) {
+        try {
+            return speciesLogStore.readLive(filePath);
+        } catch (IOException e) {
+            uiService.displayMessage(ERROR_WHILE_READING_A_FILE + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    // Добавляет растение в индекс и ставит его запись в очередь
+    @Override
+    public void addPlant(String ecosystemName, Plant plant) {
+        SpeciesIndex index = getIndex(ecosystemName);
+        synchronized (index) {
+            index.putPlant(plant.getName());
+            index.pendingPlantRecords.add(SpeciesLogStore.addRecord(plant.getName()));
+            scheduleFlush(ecosystemName, index);
+        }
+        uiService.displayMessage(plant.getName() + " " + ADDED_TO_ECOSYSTEM + " " + ecosystemName);
+    }
+
+    // Добавляет животное в индекс и ставит его запись в очередь
+    @Override
+    public void addAnimal(String ecosystemName, Animal animal) {
+        String line = SpeciesIndex.formatAnimal(animal);
+        SpeciesIndex index = getIndex(ecosystemName);
+        synchronized (index) {
+            index.putAnimal(animal.getName(), animal.getDietType());
+            index.pendingAnimalRecords.add(SpeciesLogStore.addRecord(line));
+            scheduleFlush(ecosystemName, index);
+        }
+        uiService.displayMessage(line + " " + ADDED_TO_ECOSYSTEM + " " + ecosystemName);
+    }
+
+    // Удаляет вид из индекса; при следующем сбросе в журнал будет дописано надгробие
+    @Override
+    public void deleteSpecies(String ecosystemName, String speciesName, boolean isPlant) {
+        SpeciesIndex index = getIndex(ecosystemName);
+        synchronized (index) {
+            removeSpecies(index, speciesName, isPlant);
+            scheduleFlush(ecosystemName, index);
+        }
+        uiService.displayMessage(SPECIE + " " + speciesName + " " + REMOVED_FROM_THE_ECOSYSTEM + " " + ecosystemName);
+    }
+
+    // Проверка наличия и удаление выполняются под одним монитором индекса
+    @Override
+    public boolean deleteSpeciesIfPresent(String ecosystemName, String speciesName, boolean isPlant) {
+        SpeciesIndex index = getIndex(ecosystemName);
+        boolean removed;
+        synchronized (index) {
+            removed = removeSpecies(index, speciesName, isPlant);
+            scheduleFlush(ecosystemName, index);
+        }
+        if (removed) {
+            uiService.displayMessage(SPECIE + " " + speciesName + " " + REMOVED_FROM_THE_ECOSYSTEM + " " + ecosystemName);
+        }
+        return removed;
+    }
+
+    // Обновляет тип диеты животного в индексе
+    @Override
+    public boolean updateAnimalDiet(String ecosystemName, String animalName, String newDietType) {
+        SpeciesIndex index = getIndex(ecosystemName);
+        synchronized (index) {
+            if (!index.animals.containsKey(animalName)) {
+                return false;
+            }
+            Animal animal = index.putAnimal(animalName, newDietType);
+            index.pendingAnimalRecords.add(SpeciesLogStore.updateRecord(animalName, SpeciesIndex.formatAnimal(animal)));
+            scheduleFlush(ecosystemName, index);
+        }
+        uiService.displayMessage(ANIMAL_DIET + " " + animalName + " " + UPDATED_TO + " " + newDietType);
+        return true;
+    }
+
+    @Override
+    public boolean checkIfHerbivore(String ecosystemName, String animalName) {
+        return hasDiet(ecosystemName, animalName, "herbivore");
+    }
+
+    @Override
+    public boolean checkIfCarnivore(String ecosystemName, String animalName) {
+        return hasDiet(ecosystemName, animalName, "carnivore");
+    }
+
+    @Override
+    public boolean checkIfOmnivore(String ecosystemName, String speciesName) {
+        return hasDiet(ecosystemName, speciesName, "omnivore");
+    }
+
+    // Проверка диеты по типу вида в индексе
+    private boolean hasDiet(String ecosystemName, String animalName, String dietType) {
+        SpeciesIndex index = getIndex(ecosystemName);
+        synchronized (index) {
+            return index.kindOf(index.symbols.idOf(animalName)) == SpeciesKind.fromDiet(dietType);
+        }
+    }
+
+    @Override
+    public boolean checkIfPlant(String ecosystemName, String speciesName) {
+        SpeciesIndex index = getIndex(ecosystemName);
+        synchronized (index) {
+            return index.plants.containsKey(speciesName);
+        }
+    }
+
+    // Определяет тип вида: одно обращение к таблице символов и одно к массиву типов
+    @Override
+    public SpeciesKind classifySpecies(String ecosystemName, String speciesName) {
+        return classifySpecies(ecosystemName, findSpeciesId(ecosystemName, speciesName));
+    }
+
+    @Override
+    public SpeciesKind classifySpecies(String ecosystemName, int speciesId) {
+        SpeciesIndex index = getIndex(ecosystemName);
+        synchronized (index) {
+            return index.kindOf(speciesId);
+        }
+    }
+
+    // Id вида без регистрации нового имени: неизвестные имена не засоряют таблицу символов
+    @Override
+    public int findSpeciesId(String ecosystemName, String speciesName) {
+        return getIndex(ecosystemName).symbols.idOf(speciesName);
+    }
+
+    // Возвращает снимок всех видов экосистемы: сначала растения, затем животные
+    @Override
+    public List<Species> findAllSpecies(String ecosystemName) {
+        SpeciesIndex index = getIndex(ecosystemName);
+        synchronized (index) {
+            List<Species> species = new ArrayList<>(index.plants.size() + index.animals.size());
+            species.addAll(index.plants.values());
+            species.addAll(index.animals.values());
+            return species;
+        }
+    }
+
+    // Копия пищевой сети, которую индекс поддерживает при каждом изменении видов
+    @Override
+    public FoodWeb findFoodWeb(String ecosystemName) {
+        SpeciesIndex index = getIndex(ecosystemName);
+        synchronized (index) {
+            return index.foodWeb.copy();
+        }
+    }
+
+    // Ставит взаимодействие в очередь на запись в файл взаимодействий
+    @Override
+    public void recordInteraction(String interaction, String ecosystemName) {
+        SpeciesIndex index = getIndex(ecosystemName);
+        synchronized (index) {
+            index.pendingInteractions.add(interaction);
+            scheduleFlush(ecosystemName, index);
+        }
+        uiService.displayMessage(INTERACTION_RECORDED + ": " + interaction);
+    }
+
+    // Применяет пакет взаимодействий одной операцией над индексом; запись на диск группируется
+    // в один сброс, а сообщения по отдельным взаимодействиям не выводятся. Взаимодействие,
+    // жертву которого уже удалил параллельный вызов, не применяется и не записывается
+    @Override
+    public List<InteractionResult> applyInteractions(String ecosystemName, List<InteractionResult> interactions) {
+        SpeciesIndex index = getIndex(ecosystemName);
+        List<InteractionResult> applied = new ArrayList<>(interactions.size());
+        synchronized (index) {
+            for (InteractionResult interaction : interactions) {
+                if (removeSpecies(index, interaction.getPrey(), interaction.isPreyPlant())) {
+                    index.pendingInteractions.add(interaction.getPredator() + " " + ATE + " " + interaction.getPrey());
+                    applied.add(interaction);
+                }
+            }
+            scheduleFlush(ecosystemName, index);
+        }
+        return applied;
+    }
+
+    // Удаляет вид из индекса и ставит надгробие в очередь, если вид был в индексе (вызывается под монитором индекса)
+    private boolean removeSpecies(SpeciesIndex index, String speciesName, boolean isPlant) {
+        if (isPlant ? index.removePlant(speciesName) == null : index.removeAnimal(speciesName) == null) {
+            return false;
+        }
+        (isPlant ? index.pendingPlantRecords : index.pendingAnimalRecords).add(SpeciesLogStore.deleteRecord(speciesName));
+        return true;
+    }
+
+    // Планирует сброс индекса на диск, если он еще не запланирован (вызывается под монитором индекса)
+    private void scheduleFlush(String ecosystemName, SpeciesIndex index) {
+        if (!index.flushScheduled && index.hasPendingChanges()) {
+            index.flushScheduled = true;
+            writer.schedule(() -> flush(ecosystemName), flushDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Сбрасывает накопленные изменения всех загруженных экосистем
+    public void flushAll() {
+        for (String ecosystemName : indexes.keySet()) {
+            flush(ecosystemName);
+        }
+    }
+
+    // Сбрасывает изменения и убирает индекс из памяти. Индекс убирается под блокировкой сброса
+    // и только без несохраненных изменений, иначе он остается и будет сброшен по расписанию.
+    // Вызывается, когда экосистему никто не изменяет, например после ее обработки в пакетном прогоне
+    @Override
+    public void release(String ecosystemName) {
+        SpeciesIndex index = indexes.get(ecosystemName);
+        if (index == null) {
+            return;
+        }
+        synchronized (index.flushLock) {
+            flush(ecosystemName);
+            synchronized (index) {
+                if (!index.hasPendingChanges()) {
+                    indexes.remove(ecosystemName, index);
+                }
+            }
+        }
+    }
+
+    // Записывает накопленные изменения экосистемы: записи видов дописываются в журналы
+    // SpeciesLogStore в порядке применения, взаимодействия — в файл взаимодействий.
+    // Записи убираются из очередей только после успешной записи; при ошибке они остаются
+    // в начале очередей и будут записаны при следующем сбросе
+    @Override
+    public void flush(String ecosystemName) {
+        SpeciesIndex index = indexes.get(ecosystemName);
+        if (index == null) {
+            return;
+        }
+        // Запись выполняется под отдельной блокировкой, чтобы параллельные сбросы не перемешивали строки
+        long start = System.nanoTime();
+        synchronized (index.flushLock) {
+            List<String> plantRecords;
+            List<String> animalRecords;
+            List<String> interactions;
+            synchronized (index) {
+                index.flushScheduled = false;
+                if (!index.hasPendingChanges()) {
+                    return;
+                }
+                plantRecords = new ArrayList<>(index.pendingPlantRecords);
+                animalRecords = new ArrayList<>(index.pendingAnimalRecords);
+                interactions = new ArrayList<>(index.pendingInteractions);
+            }
+            // Блокировка экосистемы общая с SpeciesRepositoryImpl: читатели файлов видят оба файла согласованными.
+            // Результат — сколько файлов видов записано: растения пишутся первыми
+            int speciesFilesWritten = EcosystemLocks.write(ecosystemName, () -> {
+                try {
+                    speciesLogStore.append(getFilePath(ecosystemName, "plants.file"), plantRecords);
+                } catch (IOException e) {
+                    uiService.displayMessage(ERROR_WRITING_SPECIES_FILES + ": " + e.getMessage());
+                    return 0;
+                }
+                try {
+                    speciesLogStore.append(getFilePath(ecosystemName, "animals.file"), animalRecords);
+                } catch (IOException e) {
+                    uiService.displayMessage(ERROR_WRITING_SPECIES_FILES + ": " + e.getMessage());
+                    return 1;
+                }
+                return 2;
+            });
+            boolean interactionsWritten = interactions.isEmpty()
+                    || writeLines(getFilePath(ecosystemName, "interactions.file"), interactions);
+            // Новые изменения за время записи добавлялись в конец очередей, поэтому записанные — их начало
+            synchronized (index) {
+                if (speciesFilesWritten > 0) {
+                    index.pendingPlantRecords.subList(0, plantRecords.size()).clear();
+                }
+                if (speciesFilesWritten > 1) {
+                    index.pendingAnimalRecords.subList(0, animalRecords.size()).clear();
+                }
+                if (interactionsWritten) {
+                    index.pendingInteractions.subList(0, interactions.size()).clear();
+                }
+            }
+            metrics.recordLatency("species.flush", start);
+        }
+    }
+
+    // Дописывает строки в файл одним вызовом; false, если записать не удалось
+    private boolean writeLines(Path filePath, List<String> lines) {
+        // Записанные байты — изменение размера файла: символы имен могут занимать несколько байт
+        long written;
+        try {
+            Files.createDirectories(filePath.getParent());
+            long sizeBefore = Files.exists(filePath) ? Files.size(filePath) : 0;
+            Files.write(filePath, lines, Charset.defaultCharset(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            written = Files.size(filePath) - sizeBefore;
+        } catch (IOException e) {
+            uiService.displayMessage(ERROR_WRITING_SPECIES_FILES + ": " + e.getMessage());
+            return false;
+        }
+        metrics.recordBytesWritten(filePath, written);
+        return true;
+    }
+}
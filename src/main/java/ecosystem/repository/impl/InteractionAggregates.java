@@ -0,0 +1,380 @@
+package ecosystem.repository.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+// Агрегаты истории взаимодействий одной экосистемы, обновляемые при каждой записи в журнал:
+// число взаимодействий по парам (хищник, жертва), итоги по хищникам и по жертвам и две кучи
+// лидеров (top-k) по этим итогам. Ответы на запросы не требуют прохода по истории:
+// счетчики — O(1), лидеры — O(k log k) для k не больше емкости кучи.
+// Класс не потокобезопасен: вызовы синхронизирует InteractionLog.
+//
+// Файл агрегатов, порядок байт little-endian. Заголовок (24 байта): magic "ECAG" (int), версия (int),
+// число учтенных записей журнала (long), CRC32 данных (int), резерв (int). Данные: число id (int),
+// итоги хищников (long[n]), итоги жертв (long[n]), число пар (int) и пары — ключ (long), счетчик (long).
+// Кучи лидеров не хранятся и восстанавливаются по итогам при чтении.
+final class InteractionAggregates {
+    static final int MAGIC = 0x47414345; // "ECAG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+
+    private final PairCounts pairs = new PairCounts();
+    private long[] predatorTotals = new long[64];
+    private long[] preyTotals = new long[64];
+    private int idCount;
+    private final TopK topPredators;
+    private final TopK topPrey;
+
+    InteractionAggregates(int topCapacity) {
+        topPredators = new TopK(topCapacity);
+        topPrey = new TopK(topCapacity);
+    }
+
+    void record(int predatorId, int preyId) {
+        ensureId(Math.max(predatorId, preyId));
+        pairs.increment(key(predatorId, preyId));
+        predatorTotals[predatorId]++;
+        preyTotals[preyId]++;
+        topPredators.update(predatorId, predatorTotals);
+        topPrey.update(preyId, preyTotals);
+    }
+
+    long pairCount(int predatorId, int preyId) {
+        return predatorId < 0 || preyId < 0 ? 0 : pairs.get(key(predatorId, preyId));
+    }
+
+    long predatorTotal(int predatorId) {
+        return predatorId >= 0 && predatorId < idCount ? predatorTotals[predatorId] : 0;
+    }
+
+    long preyTotal(int preyId) {
+        return preyId >= 0 && preyId < idCount ? preyTotals[preyId] : 0;
+    }
+
+    // Id хищников с наибольшим числом взаимодействий, по убыванию
+    int[] topPredators(int limit) {
+        return topPredators.top(limit, predatorTotals);
+    }
+
+    // Id видов, которые съедали чаще всего, по убыванию
+    int[] topPrey(int limit) {
+        return topPrey.top(limit, preyTotals);
+    }
+
+    private void ensureId(int id) {
+        if (id >= predatorTotals.length) {
+            int length = Math.max(id + 1, predatorTotals.length * 2);
+            predatorTotals = Arrays.copyOf(predatorTotals, length);
+            preyTotals = Arrays.copyOf(preyTotals, length);
+        }
+        idCount = Math.max(idCount, id + 1);
+    }
+
+    private static long key(int predatorId, int preyId) {
+        return (long) predatorId << 32 | (preyId & 0xFFFFFFFFL);
+    }
+
+    // Кодирует агрегаты вместе с числом учтенных записей журнала; запись в файл выполняет write
+    ByteBuffer encode(long records) {
+        int pairCount = pairs.size();
+        long length = HEADER_SIZE + Integer.BYTES + 2L * idCount * Long.BYTES + Integer.BYTES + 2L * pairCount * Long.BYTES;
+        ByteBuffer data = ByteBuffer.allocate(Math.toIntExact(length)).order(ByteOrder.LITTLE_ENDIAN);
+        data.position(HEADER_SIZE);
+        data.putInt(idCount);
+        for (int id = 0; id < idCount; id++) {
+            data.putLong(predatorTotals[id]);
+        }
+        for (int id = 0; id < idCount; id++) {
+            data.putLong(preyTotals[id]);
+        }
+        data.putInt(pairCount);
+        pairs.forEach((key, count) -> data.putLong(key).putLong(count));
+        data.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, records)
+                .putInt(16, crc(data.slice(HEADER_SIZE, data.capacity() - HEADER_SIZE))).putInt(20, 0);
+        return data.flip();
+    }
+
+    // Пишет закодированные агрегаты во временный файл и атомарно заменяет предыдущий
+    static void write(Path file, ByteBuffer encoded) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (encoded.hasRemaining()) {
+                channel.write(encoded);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Число записей журнала, учтенных в файле агрегатов
+    static long records(ByteBuffer file) {
+        return file.getLong(8);
+    }
+
+    // Читает файл агрегатов; возвращает буфер файла после проверки заголовка и контрольной суммы
+    static ByteBuffer read(Path file) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + 2 * Integer.BYTES) {
+                throw new IOException(file.getFileName() + ": truncated aggregates file");
+            }
+            data = ByteBuffer.allocate(Math.toIntExact(size)).order(ByteOrder.LITTLE_ENDIAN);
+            while (data.hasRemaining()) {
+                if (channel.read(data) < 0) {
+                    throw new IOException(file.getFileName() + ": unexpected end of aggregates file");
+                }
+            }
+        }
+        if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException(file.getFileName() + ": not an aggregates file");
+        }
+        if (data.getInt(16) != crc(data.slice(HEADER_SIZE, data.capacity() - HEADER_SIZE))) {
+            throw new IOException(file.getFileName() + ": aggregates checksum mismatch");
+        }
+        return data;
+    }
+
+    // Восстанавливает агрегаты из проверенного буфера файла; кучи лидеров строятся по итогам,
+    // и при равных счетчиках в них попадают те же виды, что были в кучах до записи
+    static InteractionAggregates decode(ByteBuffer file, int topCapacity) {
+        InteractionAggregates aggregates = new InteractionAggregates(topCapacity);
+        ByteBuffer data = file.position(HEADER_SIZE);
+        int ids = data.getInt();
+        if (ids > 0) {
+            aggregates.ensureId(ids - 1);
+        }
+        for (int id = 0; id < ids; id++) {
+            aggregates.predatorTotals[id] = data.getLong();
+        }
+        for (int id = 0; id < ids; id++) {
+            aggregates.preyTotals[id] = data.getLong();
+        }
+        int pairCount = data.getInt();
+        for (int i = 0; i < pairCount; i++) {
+            aggregates.pairs.put(data.getLong(), data.getLong());
+        }
+        for (int id = 0; id < ids; id++) {
+            if (aggregates.predatorTotals[id] > 0) {
+                aggregates.topPredators.update(id, aggregates.predatorTotals);
+            }
+            if (aggregates.preyTotals[id] > 0) {
+                aggregates.topPrey.update(id, aggregates.preyTotals);
+            }
+        }
+        return aggregates;
+    }
+
+    private static int crc(ByteBuffer data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    // Счетчики пар в открытой адресации по ключу (id хищника << 32 | id жертвы): без объектов на пару
+    private static final class PairCounts {
+        private static final long EMPTY = -1L;
+
+        private long[] keys = newKeys(1024);
+        private long[] counts = new long[1024];
+        private int size;
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return counts[slot];
+                }
+                if (keys[slot] == EMPTY) {
+                    return 0;
+                }
+            }
+        }
+
+        // Ячейка вычисляется до обращения к counts: insert может заменить массивы при росте
+        void increment(long key) {
+            int slot = insert(key);
+            counts[slot]++;
+        }
+
+        void put(long key, long count) {
+            int slot = insert(key);
+            counts[slot] = count;
+        }
+
+        // Возвращает ячейку ключа, добавляя его при отсутствии; заполненность держится не выше половины
+        private int insert(long key) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (keys[slot] != key) {
+                if (keys[slot] == EMPTY) {
+                    keys[slot] = key;
+                    size++;
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldCounts = counts;
+            keys = newKeys(oldKeys.length * 2);
+            counts = new long[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slot(oldKeys[i], mask);
+                    while (keys[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        void forEach(PairConsumer consumer) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY) {
+                    consumer.accept(keys[i], counts[i]);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface PairConsumer {
+        void accept(long key, long count);
+    }
+
+    // Точный top-k по неубывающим счетчикам: куча с минимумом в корне и позициями id в куче.
+    // Счетчик растет на единицу, поэтому вид вне кучи может попасть в нее, только обогнав корень.
+    // Порядок тот же, что в ответе top(): больше счетчик, при равных — меньший id. Поэтому при
+    // равных счетчиках на границе кучи в ней остаются одни и те же виды, записывались ли итоги
+    // по одному или куча восстановлена по итогам из файла после перезапуска
+    private static final class TopK {
+        private final int[] heap;
+        private int size;
+        // Позиция id в куче или -1
+        private int[] positions = new int[0];
+
+        TopK(int capacity) {
+            heap = new int[capacity];
+        }
+
+        int capacity() {
+            return heap.length;
+        }
+
+        void update(int id, long[] totals) {
+            if (heap.length == 0) {
+                return;
+            }
+            if (id >= positions.length) {
+                int length = Math.max(id + 1, positions.length * 2);
+                int from = positions.length;
+                positions = Arrays.copyOf(positions, length);
+                Arrays.fill(positions, from, length, -1);
+            }
+            int position = positions[id];
+            if (position >= 0) {
+                siftDown(position, totals);
+            } else if (size < heap.length) {
+                heap[size] = id;
+                positions[id] = size;
+                siftUp(size++, totals);
+            } else if (ranksBelow(heap[0], id, totals)) {
+                positions[heap[0]] = -1;
+                heap[0] = id;
+                positions[id] = 0;
+                siftDown(0, totals);
+            }
+        }
+
+        int[] top(int limit, long[] totals) {
+            Integer[] ids = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = heap[i];
+            }
+            // При равных счетчиках первым идет меньший id, чтобы порядок ответа был стабильным
+            Arrays.sort(ids, (a, b) -> a.equals(b) ? 0 : ranksBelow(a, b, totals) ? 1 : -1);
+            int count = Math.min(Math.max(limit, 0), size);
+            int[] result = new int[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = ids[i];
+            }
+            return result;
+        }
+
+        private void siftUp(int position, long[] totals) {
+            int id = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (ranksBelow(heap[parent], id, totals)) {
+                    break;
+                }
+                move(heap[parent], position);
+                position = parent;
+            }
+            move(id, position);
+        }
+
+        private void siftDown(int position, long[] totals) {
+            int id = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && ranksBelow(heap[child + 1], heap[child], totals)) {
+                    child++;
+                }
+                if (ranksBelow(id, heap[child], totals)) {
+                    break;
+                }
+                move(heap[child], position);
+                position = child;
+            }
+            move(id, position);
+        }
+
+        // Вид a стоит ниже вида b: у него меньше счетчик или при равных счетчиках больший id
+        private static boolean ranksBelow(int a, int b, long[] totals) {
+            return totals[a] != totals[b] ? totals[a] < totals[b] : a > b;
+        }
+
+        private void move(int id, int position) {
+            heap[position] = id;
+            positions[id] = position;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package ecosystem.repository.impl;
+
+import ecosystem.model.SpeciesKind;
+import ecosystem.repository.InteractionLogRepository.RecordVisitor;
+import ecosystem.util.Metrics;
+import ecosystem.util.SymbolTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Сегментированный журнал взаимодействий одной экосистемы с записями фиксированной длины.
+// Запись (24 байта): id хищника (int), id жертвы (int), время (long), тип хищника (byte),
+// тип жертвы (byte), 6 зарезервированных байт. Каждый сегмент начинается с 16-байтового заголовка.
+// Id видов — id таблицы символов экосистемы, ее словарь хранится в директории журнала.
+// Вместе с журналом ведутся агрегаты истории (InteractionAggregates): они обновляются при каждой
+// записи и периодически сохраняются рядом с сегментами вместе с числом учтенных записей.
+class InteractionLog {
+    static final int MAGIC = 0x4543494C; // "ECIL"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 24;
+    // Сегмент читается одним отображением в память с int-смещениями, поэтому не длиннее 2 ГБ
+    static final long MAX_SEGMENT_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+    private static final int BATCH_RECORDS = 4096;
+    private static final SpeciesKind[] KINDS = SpeciesKind.values();
+    static final String AGGREGATES_FILE = "aggregates.bin";
+
+    private final Path directory;
+    private final long segmentRecords;
+
+    private final SymbolTable symbols;
+    private final Metrics metrics = Metrics.getInstance();
+
+    // Пакет записей, накапливаемый перед записью в канал
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(RECORD_SIZE * BATCH_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+    private FileChannel channel;
+    private int segmentIndex;
+    private long recordsInSegment;
+    private long totalRecords;
+
+    private InteractionAggregates aggregates;
+    // Есть ли изменения агрегатов, еще не записанные в файл
+    private boolean aggregatesDirty;
+    // Упорядочивает запись файла агрегатов: более старый снимок не может заменить более новый
+    private final Object aggregatesWriteLock = new Object();
+
+    InteractionLog(Path directory, long segmentRecords, SymbolTable symbols, int topCapacity) throws IOException {
+        if (segmentRecords < 1 || segmentRecords > MAX_SEGMENT_RECORDS) {
+            throw new IllegalArgumentException("segment records: " + segmentRecords);
+        }
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.symbols = symbols;
+        Files.createDirectories(directory);
+        openLastSegment();
+        loadAggregates(topCapacity);
+    }
+
+    // Загружает сохраненные агрегаты и дочитывает записи журнала, сделанные после их сохранения.
+    // Полный проход по истории нужен, только если файла нет, он поврежден или учитывает больше
+    // записей, чем осталось в журнале после отбрасывания недописанного хвоста
+    private void loadAggregates(int topCapacity) throws IOException {
+        Path file = directory.resolve(AGGREGATES_FILE);
+        long covered = 0;
+        InteractionAggregates loaded = null;
+        if (Files.exists(file)) {
+            try {
+                ByteBuffer data = InteractionAggregates.read(file);
+                covered = InteractionAggregates.records(data);
+                if (covered <= totalRecords) {
+                    loaded = InteractionAggregates.decode(data, topCapacity);
+                    metrics.recordBytesRead(file, data.capacity());
+                }
+            } catch (IOException | RuntimeException e) {
+                // Поврежденный файл агрегатов восстанавливается по журналу
+                loaded = null;
+            }
+        }
+        if (loaded == null) {
+            loaded = new InteractionAggregates(topCapacity);
+            covered = 0;
+        }
+        InteractionAggregates target = loaded;
+        if (covered < totalRecords) {
+            scan(covered, (predatorId, preyId, timestamp, predatorKind, preyKind) -> target.record(predatorId, preyId));
+            aggregatesDirty = true;
+        }
+        aggregates = target;
+    }
+
+    // Открывает последний сегмент на дозапись, отбрасывая недописанный хвост после сбоя
+    private void openLastSegment() throws IOException {
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size() - 1; i++) {
+            totalRecords += (Files.size(segments.get(i)) - HEADER_SIZE) / RECORD_SIZE;
+        }
+        if (segments.isEmpty()) {
+            openSegment(0);
+            return;
+        }
+        Path last = segments.get(segments.size() - 1);
+        if (Files.size(last) < HEADER_SIZE) {
+            // Сегмент оборвался на заголовке — создаем его заново
+            openSegment(parseSegmentIndex(last));
+            return;
+        }
+        segmentIndex = parseSegmentIndex(last);
+        channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recordsInSegment = Math.max(0, (channel.size() - HEADER_SIZE) / RECORD_SIZE);
+        channel.truncate(HEADER_SIZE + recordsInSegment * RECORD_SIZE);
+        channel.position(HEADER_SIZE + recordsInSegment * RECORD_SIZE);
+        totalRecords += recordsInSegment;
+    }
+
+    private void openSegment(int index) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        segmentIndex = index;
+        recordsInSegment = 0;
+        channel = FileChannel.open(segmentPath(index), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putLong(System.currentTimeMillis());
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("segment-%08d.log", index));
+    }
+
+    private static int parseSegmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring("segment-".length(), name.length() - ".log".length()));
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().matches("segment-\\d{8}\\.log"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    synchronized void append(int predatorId, int preyId, SpeciesKind predatorKind, SpeciesKind preyKind, long timestamp)
+            throws IOException {
+        if (!batch.hasRemaining()) {
+            drain();
+        }
+        batch.putInt(predatorId)
+                .putInt(preyId)
+                .putLong(timestamp)
+                .put((byte) predatorKind.ordinal())
+                .put((byte) preyKind.ordinal())
+                .putShort((short) 0)
+                .putInt(0);
+        aggregates.record(predatorId, preyId);
+        aggregatesDirty = true;
+    }
+
+    // Записывает накопленный пакет в канал, переходя на новый сегмент при заполнении текущего
+    synchronized void drain() throws IOException {
+        // Словарь должен попасть на диск раньше записей, которые на него ссылаются
+        symbols.persist(directory.resolve(SymbolTables.DICTIONARY_FILE));
+        batch.flip();
+        while (batch.hasRemaining()) {
+            if (recordsInSegment == segmentRecords) {
+                openSegment(segmentIndex + 1);
+            }
+            int records = (int) Math.min(batch.remaining() / RECORD_SIZE, segmentRecords - recordsInSegment);
+            int limit = batch.limit();
+            batch.limit(batch.position() + records * RECORD_SIZE);
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            batch.limit(limit);
+            metrics.recordBytesWritten(directory, (long) records * RECORD_SIZE);
+            recordsInSegment += records;
+            totalRecords += records;
+        }
+        batch.clear();
+    }
+
+    synchronized long count() {
+        return totalRecords + batch.position() / RECORD_SIZE;
+    }
+
+    String name(int id) {
+        return symbols.name(id);
+    }
+
+    int id(String name) {
+        return symbols.idOf(name);
+    }
+
+    synchronized long pairCount(int predatorId, int preyId) {
+        return aggregates.pairCount(predatorId, preyId);
+    }
+
+    synchronized long predatorTotal(int predatorId) {
+        return aggregates.predatorTotal(predatorId);
+    }
+
+    synchronized long preyTotal(int preyId) {
+        return aggregates.preyTotal(preyId);
+    }
+
+    synchronized int[] topPredators(int limit) {
+        return aggregates.topPredators(limit);
+    }
+
+    synchronized int[] topPrey(int limit) {
+        return aggregates.topPrey(limit);
+    }
+
+    // Сбрасывает пакет и сохраняет агрегаты, если они изменились. Агрегаты кодируются под
+    // блокировкой журнала вместе с числом записей, а файл пишется уже без нее
+    void persistAggregates() throws IOException {
+        synchronized (aggregatesWriteLock) {
+            ByteBuffer encoded;
+            synchronized (this) {
+                drain();
+                if (!aggregatesDirty) {
+                    return;
+                }
+                encoded = aggregates.encode(totalRecords);
+                aggregatesDirty = false;
+            }
+            try {
+                InteractionAggregates.write(directory.resolve(AGGREGATES_FILE), encoded);
+            } catch (IOException e) {
+                synchronized (this) {
+                    aggregatesDirty = true;
+                }
+                throw e;
+            }
+            metrics.recordBytesWritten(directory, encoded.limit());
+        }
+    }
+
+    // Полный проход по истории: сегменты отображаются в память и читаются без копирования
+    void scan(RecordVisitor visitor) throws IOException {
+        scan(0, visitor);
+    }
+
+    // Проход по истории, начиная с записи с номером fromRecord; предшествующие сегменты пропускаются
+    void scan(long fromRecord, RecordVisitor visitor) throws IOException {
+        List<Path> segments;
+        long activeSize;
+        int activeIndex;
+        synchronized (this) {
+            drain();
+            segments = listSegments();
+            activeSize = HEADER_SIZE + recordsInSegment * RECORD_SIZE;
+            activeIndex = segmentIndex;
+        }
+        long skip = fromRecord;
+        for (Path segment : segments) {
+            try (FileChannel readChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                // Активный сегмент читаем только до границы, зафиксированной под блокировкой
+                long size = parseSegmentIndex(segment) == activeIndex ? activeSize : readChannel.size();
+                long records = (size - HEADER_SIZE) / RECORD_SIZE;
+                if (records <= skip) {
+                    skip -= Math.max(0, records);
+                    continue;
+                }
+                if (records > MAX_SEGMENT_RECORDS) {
+                    // Сегмент записан с прежним, большим размером сегмента
+                    throw new IOException(segment.getFileName() + ": segment larger than 2 GB");
+                }
+                MappedByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE + records * RECORD_SIZE);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                metrics.recordBytesRead(segment, HEADER_SIZE + (records - skip) * RECORD_SIZE);
+                if (buffer.getInt(0) != MAGIC) {
+                    throw new IOException(segment.getFileName() + ": bad segment header");
+                }
+                int start = (int) (HEADER_SIZE + skip * RECORD_SIZE);
+                skip = 0;
+                for (int offset = start; offset < buffer.limit(); offset += RECORD_SIZE) {
+                    visitor.visit(buffer.getInt(offset), buffer.getInt(offset + 4), buffer.getLong(offset + 8),
+                            KINDS[buffer.get(offset + 16)], KINDS[buffer.get(offset + 17)]);
+                }
+            }
+        }
+    }
+
+    void close() throws IOException {
+        persistAggregates();
+        synchronized (this) {
+            drain();
+            channel.close();
+        }
+    }
+}
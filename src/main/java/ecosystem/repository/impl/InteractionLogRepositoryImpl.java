@@ -0,0 +1,291 @@
+package ecosystem.repository.impl;
+
+import ecosystem.model.InteractionResult;
+import ecosystem.model.SpeciesCount;
+import ecosystem.model.SpeciesKind;
+import ecosystem.repository.InteractionLogRepository;
+import ecosystem.service.UIService;
+import ecosystem.service.impl.UIServiceImpl;
+import ecosystem.util.Config;
+import ecosystem.util.SymbolTable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static ecosystem.util.Messages.*;
+
+// Репозиторий бинарного журнала взаимодействий. Для каждой экосистемы держит открытый
+// FileChannel и пакетный буфер, так что запись взаимодействия не открывает файлов.
+// Запросы по истории (число взаимодействий пары, итоги видов, лидеры) обслуживаются агрегатами
+// журнала без прохода по сегментам.
+public class InteractionLogRepositoryImpl implements InteractionLogRepository {
+    // Singleton instance для обеспечения единственного экземпляра репозитория журнала
+    private static InteractionLogRepositoryImpl instance;
+    private final UIService uiService = UIServiceImpl.getInstance();
+
+    // Открытые журналы по имени экосистемы
+    private final Map<String, InteractionLog> logs = new ConcurrentHashMap<>();
+    // Размер сегмента ограничивается сверху: сегмент больше 2 ГБ нельзя прочитать одним отображением
+    private final long segmentRecords = Math.max(1, Math.min(
+            Config.getLongProperty("interactions.log.segment.records", 1 << 20), InteractionLog.MAX_SEGMENT_RECORDS));
+    // Строк в группе колоночной выгрузки
+    private final int rowGroupRows = (int) Config.getLongProperty("export.row.group.rows", 1 << 16);
+    // Емкость куч лидеров: запросы top-k ограничены этим числом
+    private final int topCapacity = (int) Config.getLongProperty("interactions.aggregates.top.k", 100);
+
+    // Приватный конструктор для синглтона
+    private InteractionLogRepositoryImpl() {
+        // Периодически сбрасываем пакеты, чтобы записи не задерживались в памяти надолго
+        long flushMillis = Config.getLongProperty("interactions.log.flush.ms", 1000);
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "interaction-log-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAll, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        // Агрегаты сохраняются реже: после сбоя недостающие записи дочитываются из журнала
+        long persistMillis = Config.getLongProperty("interactions.aggregates.persist.ms", 5000);
+        flusher.scheduleWithFixedDelay(this::persistAllAggregates, persistMillis, persistMillis, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::closeAll, "interaction-log-close"));
+    }
+
+    // Метод для получения экземпляра Singleton
+    public static synchronized InteractionLogRepositoryImpl getInstance() {
+        if (instance == null) {
+            instance = new InteractionLogRepositoryImpl(); // Создаем новый экземпляр, если он еще не существует
+        }
+        return instance; // Возвращаем существующий экземпляр
+    }
+
+    // Возвращает путь к директории конкретной экосистемы по ее названию
+    private String getEcosystemDirectory(String ecosystemName) {
+        return Config.getDirectory() + ecosystemName;
+    }
+
+    // Возвращает журнал экосистемы, открывая его при первом обращении
+    private InteractionLog getLog(String ecosystemName) {
+        return logs.computeIfAbsent(ecosystemName, this::openLog);
+    }
+
+    // Открывает журнал. Если директории журнала еще нет, в новый журнал переносится история
+    // из текстового файла взаимодействий, который велся до появления журнала
+    private InteractionLog openLog(String ecosystemName) {
+        Path directory = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("interactions.log.dir"));
+        try {
+            List<String> history = Files.exists(directory) ? List.of() : readTextHistory(ecosystemName);
+            InteractionLog log = new InteractionLog(directory, segmentRecords, SymbolTables.forEcosystem(ecosystemName), topCapacity);
+            if (!history.isEmpty()) {
+                importTextHistory(ecosystemName, log, history);
+            }
+            return log;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Строки текстового файла читаются до создания журнала: при ошибке чтения журнал не создается
+    // и перенос повторится при следующем обращении
+    private List<String> readTextHistory(String ecosystemName) throws IOException {
+        Path textFile = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("interactions.file"));
+        if (!Files.exists(textFile)) {
+            return List.of();
+        }
+        // Файл пишется в кодировке по умолчанию (IndexedSpeciesRepositoryImpl.writeLines)
+        return Files.readAllLines(textFile, Charset.defaultCharset());
+    }
+
+    // Строка текстового файла — "<хищник> ate <жертва>". Типы видов и время в файле не хранятся:
+    // записи получают тип UNKNOWN и время последнего изменения файла
+    private void importTextHistory(String ecosystemName, InteractionLog log, List<String> history) throws IOException {
+        Path textFile = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("interactions.file"));
+        long timestamp = Files.getLastModifiedTime(textFile).toMillis();
+        SymbolTable symbols = SymbolTables.forEcosystem(ecosystemName);
+        String separator = " " + ATE + " ";
+        for (String line : history) {
+            int at = line.indexOf(separator);
+            if (at <= 0) {
+                continue;
+            }
+            log.append(symbols.intern(line.substring(0, at).trim()), symbols.intern(line.substring(at + separator.length()).trim()),
+                    SpeciesKind.UNKNOWN, SpeciesKind.UNKNOWN, timestamp);
+        }
+        log.persistAggregates();
+    }
+
+    // Журнал открывается до применения взаимодействий, которые пишутся и в текстовый файл,
+    // чтобы перенос истории не учел их дважды
+    @Override
+    public void open(String ecosystemName) {
+        try {
+            getLog(ecosystemName);
+        } catch (UncheckedIOException e) {
+            uiService.displayMessage(ERROR_WHILE_READING_A_FILE + ": " + e.getMessage());
+        }
+    }
+
+    // Добавляет запись о взаимодействии в пакет журнала; имена регистрируются в таблице символов,
+    // только если результат пришел без id
+    @Override
+    public void append(String ecosystemName, InteractionResult result) {
+        try {
+            SymbolTable symbols = SymbolTables.forEcosystem(ecosystemName);
+            int predatorId = result.getPredatorId() >= 0 ? result.getPredatorId() : symbols.intern(result.getPredator());
+            int preyId = result.getPreyId() >= 0 ? result.getPreyId() : symbols.intern(result.getPrey());
+            getLog(ecosystemName).append(predatorId, preyId,
+                    result.getPredatorKind(), result.getPreyKind(), System.currentTimeMillis());
+        } catch (IOException | UncheckedIOException e) {
+            uiService.displayMessage(ERROR_RECORDING_INTERACTION + ": " + e.getMessage());
+        }
+    }
+
+    // Проходит по всей истории взаимодействий через отображенные в память сегменты
+    @Override
+    public void scan(String ecosystemName, RecordVisitor visitor) {
+        try {
+            getLog(ecosystemName).scan(visitor);
+        } catch (IOException | UncheckedIOException e) {
+            uiService.displayMessage(ERROR_WHILE_READING_A_FILE + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String speciesName(String ecosystemName, int speciesId) {
+        return getLog(ecosystemName).name(speciesId);
+    }
+
+    // Имена, не встречавшиеся в истории, не регистрируются в таблице символов: для них ответ 0
+    @Override
+    public long countInteractions(String ecosystemName, String predatorName, String preyName) {
+        InteractionLog log = getLog(ecosystemName);
+        return log.pairCount(log.id(predatorName), log.id(preyName));
+    }
+
+    @Override
+    public long countAsPredator(String ecosystemName, String speciesName) {
+        InteractionLog log = getLog(ecosystemName);
+        return log.predatorTotal(log.id(speciesName));
+    }
+
+    @Override
+    public long countAsPrey(String ecosystemName, String speciesName) {
+        InteractionLog log = getLog(ecosystemName);
+        return log.preyTotal(log.id(speciesName));
+    }
+
+    @Override
+    public List<SpeciesCount> topPredators(String ecosystemName, int limit) {
+        InteractionLog log = getLog(ecosystemName);
+        return speciesCounts(log, log.topPredators(limit), true);
+    }
+
+    @Override
+    public List<SpeciesCount> topPrey(String ecosystemName, int limit) {
+        InteractionLog log = getLog(ecosystemName);
+        return speciesCounts(log, log.topPrey(limit), false);
+    }
+
+    private static List<SpeciesCount> speciesCounts(InteractionLog log, int[] ids, boolean predators) {
+        List<SpeciesCount> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(new SpeciesCount(log.name(id), predators ? log.predatorTotal(id) : log.preyTotal(id)));
+        }
+        return result;
+    }
+
+    // Проход по отображенным сегментам с записью групп строк по мере заполнения: в памяти
+    // одновременно находится одна группа, поэтому объем истории не ограничен памятью.
+    // Файл пишется во временный рядом с целевым и атомарно заменяет его только после успешной
+    // записи, поэтому ошибка посреди выгрузки не портит предыдущую выгрузку
+    @Override
+    public long exportColumnar(String ecosystemName, Path target) {
+        InteractionLog log = getLog(ecosystemName);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            long rows;
+            try (ColumnarInteractionWriter writer = new ColumnarInteractionWriter(temp,
+                    SymbolTables.forEcosystem(ecosystemName), rowGroupRows)) {
+                log.scan((predatorId, preyId, timestamp, predatorKind, preyKind) -> {
+                    try {
+                        writer.append(predatorId, preyId, timestamp, predatorKind, preyKind);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                rows = writer.getRowCount();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return rows;
+        } catch (IOException | UncheckedIOException e) {
+            uiService.displayMessage(ERROR_EXPORTING_INTERACTIONS + ": " + e.getMessage());
+            return -1;
+        } finally {
+            // После успешной замены временного файла уже нет
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_EXPORTING_INTERACTIONS + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void flush(String ecosystemName) {
+        InteractionLog log = logs.get(ecosystemName);
+        if (log == null) {
+            return;
+        }
+        try {
+            log.drain();
+        } catch (IOException e) {
+            uiService.displayMessage(ERROR_RECORDING_INTERACTION + ": " + e.getMessage());
+        }
+    }
+
+    // Сбрасывает пакет журнала и сохраняет агрегаты экосистемы, если они изменились
+    @Override
+    public void persistAggregates(String ecosystemName) {
+        InteractionLog log = logs.get(ecosystemName);
+        if (log == null) {
+            return;
+        }
+        try {
+            log.persistAggregates();
+        } catch (IOException e) {
+            uiService.displayMessage(ERROR_WRITING_AGGREGATES + ": " + e.getMessage());
+        }
+    }
+
+    private void flushAll() {
+        for (String ecosystemName : logs.keySet()) {
+            flush(ecosystemName);
+        }
+    }
+
+    private void persistAllAggregates() {
+        for (String ecosystemName : logs.keySet()) {
+            persistAggregates(ecosystemName);
+        }
+    }
+
+    private void closeAll() {
+        for (InteractionLog log : logs.values()) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_RECORDING_INTERACTION + ": " + e.getMessage());
+            }
+        }
+    }
+}
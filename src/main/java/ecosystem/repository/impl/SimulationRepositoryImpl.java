@@ -1,26 +1,62 @@
 package ecosystem.repository.impl;
 
+import ecosystem.model.Animal;
 import ecosystem.model.Conditions;
+import ecosystem.model.EcosystemCheckpoint;
+import ecosystem.model.GridWorld;
+import ecosystem.model.Plant;
+import ecosystem.model.Species;
 import ecosystem.repository.SimulationRepository;
 import ecosystem.service.UIService;
 import ecosystem.service.impl.UIServiceImpl;
 import ecosystem.util.Config;
+import ecosystem.util.Metrics;
+import ecosystem.util.SymbolTable;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ecosystem.util.Messages.*;
 
+// Операции с файлами экосистемы выполняются под ее блокировкой из EcosystemLocks,
+// общей с репозиторием видов, поэтому загрузка симуляции не видит файлы видов в середине изменения
 public class SimulationRepositoryImpl implements SimulationRepository {
     // Singleton instance для обеспечения единственного экземпляра репозитория симуляции
     private static SimulationRepositoryImpl instance;
     private final UIService uiService = UIServiceImpl.getInstance();
+    // Число и задержка файловых операций — в Metrics под именами simulation.*
+    private final Metrics metrics = Metrics.getInstance();
+
+    // Кэш разобранных условий по имени экосистемы; сбрасывается при сохранении параметров
+    // или при изменении файла условий на диске
+    private final Map<String, Conditions> conditionsCache = new ConcurrentHashMap<>();
+    // Ключи наблюдения за директориями экосистем, условия которых есть в кэше
+    private final Map<WatchKey, String> watchedEcosystems = new ConcurrentHashMap<>();
+    private final Set<String> watchedNames = ConcurrentHashMap.newKeySet();
+    private WatchService watchService;
 
     // Приватный конструктор для синглтона
-    private SimulationRepositoryImpl() {}
+    private SimulationRepositoryImpl() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            Thread watcher = new Thread(this::watchConditionFiles, "conditions-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        } catch (IOException e) {
+            // Без WatchService кэш сбрасывается только при сохранении параметров через репозиторий
+            uiService.displayMessage(ERROR_WATCHING_FILES + ": " + e.getMessage());
+        }
+    }
 
     // Метод для получения экземпляра Singleton
     public static synchronized SimulationRepositoryImpl getInstance() {
@@ -35,22 +71,31 @@ public class SimulationRepositoryImpl implements SimulationRepository {
         return Config.getDirectory() + ecosystemName;
     }
 
-    // Создает новую симуляцию с указанным именем
+    // Создает новую симуляцию с указанным именем. Директория создается атомарно, поэтому из
+    // параллельных вызовов с одним именем симуляцию создает только один; остальные получают false
     @Override
-    public void createNewSimulation(String ecosystemName) {
-        Path ecosystemDirPath = Paths.get(getEcosystemDirectory(ecosystemName));
-        createDirectoryIfNotExists(ecosystemDirPath);
-        createSimulationFiles(ecosystemDirPath);
+    public boolean createNewSimulation(String ecosystemName) {
+        return metrics.time("simulation.createNewSimulation", () -> EcosystemLocks.write(ecosystemName, () -> {
+            Path ecosystemDirPath = Paths.get(getEcosystemDirectory(ecosystemName));
+            if (!createDirectory(ecosystemDirPath)) {
+                return false;
+            }
+            createSimulationFiles(ecosystemDirPath);
+            return true;
+        }));
     }
 
-    // Создает директорию для симуляции, если она не существует
-    private void createDirectoryIfNotExists(Path ecosystemDirPath) {
+    // Создает директорию симуляции; false, если она уже существует или не может быть создана
+    private boolean createDirectory(Path ecosystemDirPath) {
         try {
-            if (!Files.exists(ecosystemDirPath)) {
-                Files.createDirectories(ecosystemDirPath);
-            }
+            Files.createDirectories(ecosystemDirPath.getParent());
+            Files.createDirectory(ecosystemDirPath);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
         } catch (IOException e) {
             uiService.displayMessage(ERROR_CREATING_ECOSYSTEM + ": " + e.getMessage());
+            return false;
         }
     }
 
@@ -81,8 +126,10 @@ public class SimulationRepositoryImpl implements SimulationRepository {
     // Загружает симуляцию, отображая содержимое файлов для растений и животных
     @Override
     public void loadSimulation(String ecosystemName) {
-        displayFileContent(ecosystemName, Config.getProperty("plants.file"), PLANTS_IN_THE_ECOSYSTEM);
-        displayFileContent(ecosystemName, Config.getProperty("animals.file"), ANIMALS_IN_THE_ECOSYSTEM);
+        metrics.time("simulation.loadSimulation", () -> EcosystemLocks.read(ecosystemName, () -> {
+            displayFileContent(ecosystemName, Config.getProperty("plants.file"), PLANTS_IN_THE_ECOSYSTEM);
+            displayFileContent(ecosystemName, Config.getProperty("animals.file"), ANIMALS_IN_THE_ECOSYSTEM);
+        }));
     }
 
     // Отображает содержимое заданного файла с заголовком
@@ -92,13 +139,10 @@ public class SimulationRepositoryImpl implements SimulationRepository {
         readFileContent(filePath);
     }
 
-    // Читает содержимое файла и выводит его на экран
+    // Построчно выводит текущее содержимое файла видов (с учетом журнала изменений), не загружая его целиком
     private void readFileContent(Path filePath) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath.toFile()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                uiService.displayMessage(line);
-            }
+        try (Stream<String> lines = SpeciesLogStore.getInstance().streamLive(filePath)) {
+            lines.forEach(uiService::displayMessage);
         } catch (IOException e) {
             uiService.displayMessage(ERROR_WHILE_READING_A_FILE + ": " + e.getMessage());
         }
@@ -108,7 +152,11 @@ public class SimulationRepositoryImpl implements SimulationRepository {
     @Override
     public void saveEcosystemParameters(String ecosystemName, Conditions conditions) {
         Path resourceFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("resource.file"));
-        writeConditionsToFile(resourceFilePath, conditions);
+        metrics.time("simulation.saveEcosystemParameters",
+                () -> EcosystemLocks.write(ecosystemName, () -> writeConditionsToFile(resourceFilePath, conditions)));
+        // Кэш сбрасывается после снятия блокировки: computeIfAbsent берет блокировку чтения,
+        // удерживая ключ кэша, и обратный порядок привел бы к взаимной блокировке
+        conditionsCache.remove(ecosystemName);
     }
 
     // Записывает условия экосистемы в файл
@@ -119,14 +167,74 @@ public class SimulationRepositoryImpl implements SimulationRepository {
             writer.write(AVAILABLE_WATER + ": " + conditions.getWaterAmount() + "\n");
         } catch (IOException e) {
             uiService.displayMessage(ERROR_WHEN_RECORDING_PARAMETRS + ": " + e.getMessage());
+            return;
         }
+        metrics.recordBytesWritten(filePath, filePath.toFile().length());
     }
 
-    // Читает параметры экосистемы из файла и возвращает их как объект Conditions
+    // Возвращает параметры экосистемы из кэша, разбирая файл только при первом обращении
+    // или после его изменения. Возвращается копия, так как Conditions изменяем
     @Override
     public Conditions readEcosystemConditions(String ecosystemName) {
+        Conditions cached = conditionsCache.computeIfAbsent(ecosystemName, this::loadConditions);
+        if (cached == null) {
+            return new Conditions(0.0, 0.0, 0.0);
+        }
+        return new Conditions(cached.getTemperature(), cached.getHumidity(), cached.getWaterAmount());
+    }
+
+    // Разбирает файл условий для кэша; наблюдение за директорией включается до чтения,
+    // чтобы не пропустить изменение, произошедшее во время разбора
+    private Conditions loadConditions(String ecosystemName) {
         Path resourceFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("resource.file"));
-        return parseConditionsFromFile(resourceFilePath);
+        watchEcosystem(ecosystemName, resourceFilePath.getParent());
+        return metrics.time("simulation.readEcosystemConditions",
+                () -> EcosystemLocks.read(ecosystemName, () -> parseConditionsFromFile(resourceFilePath)));
+    }
+
+    private void watchEcosystem(String ecosystemName, Path directory) {
+        if (watchService == null || !Files.isDirectory(directory) || !watchedNames.add(ecosystemName)) {
+            return;
+        }
+        try {
+            WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            watchedEcosystems.put(key, ecosystemName);
+        } catch (IOException e) {
+            watchedNames.remove(ecosystemName);
+            uiService.displayMessage(ERROR_WATCHING_FILES + ": " + e.getMessage());
+        }
+    }
+
+    // Фоновый цикл: сбрасывает кэш экосистемы при любом изменении ее файла условий.
+    // remove ждет завершения computeIfAbsent по тому же ключу, поэтому устаревшее значение не останется в кэше
+    private void watchConditionFiles() {
+        String resourceFile = Config.getProperty("resource.file");
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            String ecosystemName = watchedEcosystems.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                Object context = event.context();
+                boolean overflow = event.kind() == StandardWatchEventKinds.OVERFLOW;
+                if (ecosystemName != null && (overflow || (context instanceof Path && context.toString().equals(resourceFile)))) {
+                    conditionsCache.remove(ecosystemName);
+                }
+            }
+            if (!key.reset()) {
+                // Директория удалена — прекращаем наблюдение и сбрасываем кэш
+                watchedEcosystems.remove(key);
+                if (ecosystemName != null) {
+                    watchedNames.remove(ecosystemName);
+                    conditionsCache.remove(ecosystemName);
+                }
+            }
+        }
     }
 
     // Проверяет, существует ли директория экосистемы
@@ -136,7 +244,121 @@ public class SimulationRepositoryImpl implements SimulationRepository {
         return Files.exists(ecosystemDirPath);
     }
 
-    // Парсит условия экосистемы из файла, возвращая значения температуры, влажности и воды
+    // Находит все экосистемы: поддиректории корневой директории, в которых есть файл условий
+    @Override
+    public List<String> listEcosystems() {
+        Path root = Paths.get(Config.getDirectory());
+        try (Stream<Path> dirs = Files.list(root)) {
+            return dirs.filter(Files::isDirectory)
+                    .filter(dir -> Files.exists(dir.resolve(Config.getProperty("resource.file"))))
+                    .map(dir -> dir.getFileName().toString())
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            uiService.displayMessage(ERROR_WHILE_READING_A_FILE + ": " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    @Override
+    public Stream<Species> streamSpecies(String ecosystemName, Predicate<? super Species> filter, long offset, long limit) {
+        Path plantsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("plants.file"));
+        Path animalsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("animals.file"));
+        // flatMap открывает файл животных, только если растений не хватило для страницы,
+        // и закрывает каждый файл после прохода. Вложенный flatMap здесь недопустим: при коротком
+        // замыкании внутренний поток читается через spliterator, который буферизует весь файл
+        return Stream.of(plantsFilePath, animalsFilePath)
+                .flatMap(path -> speciesFile(ecosystemName, path,
+                        path == plantsFilePath ? Plant::new : SpeciesIndex::parseAnimal))
+                .filter(filter)
+                .skip(offset)
+                .limit(limit);
+    }
+
+    @Override
+    public long countSpecies(String ecosystemName, Predicate<? super Species> filter) {
+        try (Stream<Species> species = streamSpecies(ecosystemName, filter, 0, Long.MAX_VALUE)) {
+            return species.count();
+        }
+    }
+
+    // Открывает файл видов: снимок файла и журнала берется под блокировкой чтения экосистемы
+    // при первом обращении к потоку видов, а не при его создании
+    private Stream<Species> speciesFile(String ecosystemName, Path filePath, Function<String, Species> parser) {
+        Stream<String> lines = metrics.time("simulation.openSpeciesFile", () -> EcosystemLocks.read(ecosystemName, () -> {
+            try {
+                return SpeciesLogStore.getInstance().streamLive(filePath);
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_WHILE_READING_A_FILE + ": " + e.getMessage());
+                return Stream.<String>empty();
+            }
+        }));
+        return lines.map(parser).filter(Objects::nonNull);
+    }
+
+    // Виды и условия читаются в памяти (виды — под блокировкой чтения экосистемы), а файл снимка
+    // пишется уже без блокировки, поэтому изменения экосистемы ждут только чтения, но не записи на диск
+    @Override
+    public void saveCheckpoint(String ecosystemName, GridWorld world) {
+        metrics.time("simulation.saveCheckpoint", () -> {
+            SymbolTable symbols = SymbolTables.forEcosystem(ecosystemName);
+            Conditions conditions = readEcosystemConditions(ecosystemName);
+            List<Species> species = EcosystemLocks.read(ecosystemName, () -> readSpeciesWithIds(ecosystemName, symbols));
+            Path checkpointPath = getCheckpointPath(ecosystemName);
+            try {
+                long size = CheckpointFile.write(checkpointPath,
+                        new EcosystemCheckpoint(System.currentTimeMillis(), conditions, species, world), symbols);
+                metrics.recordBytesWritten(ecosystemName, size);
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_WRITING_CHECKPOINT + ": " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public EcosystemCheckpoint loadCheckpoint(String ecosystemName) {
+        return metrics.time("simulation.loadCheckpoint", () -> {
+            Path checkpointPath = getCheckpointPath(ecosystemName);
+            if (!Files.exists(checkpointPath)) {
+                return null;
+            }
+            try {
+                EcosystemCheckpoint checkpoint = CheckpointFile.read(checkpointPath, SymbolTables.forEcosystem(ecosystemName));
+                metrics.recordBytesRead(ecosystemName, Files.size(checkpointPath));
+                return checkpoint;
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_READING_CHECKPOINT + ": " + e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    private Path getCheckpointPath(String ecosystemName) {
+        return Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("checkpoint.file"));
+    }
+
+    // Текущие виды экосистемы с id из ее таблицы символов; вызывается под блокировкой чтения
+    private List<Species> readSpeciesWithIds(String ecosystemName, SymbolTable symbols) {
+        List<Species> species = new ArrayList<>();
+        SpeciesLogStore store = SpeciesLogStore.getInstance();
+        try {
+            for (String line : store.readLive(Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("plants.file")))) {
+                species.add(new Plant(symbols.intern(line), line));
+            }
+            for (String line : store.readLive(Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("animals.file")))) {
+                Animal animal = SpeciesIndex.parseAnimal(line);
+                if (animal != null) {
+                    species.add(new Animal(symbols.intern(animal.getName()), animal.getName(), animal.getDietType()));
+                }
+            }
+        } catch (IOException e) {
+            uiService.displayMessage(ERROR_WHILE_READING_A_FILE + ": " + e.getMessage());
+        }
+        return species;
+    }
+
+    // Парсит условия экосистемы из файла, возвращая значения температуры, влажности и воды;
+    // при ошибке чтения возвращает null, чтобы ошибочный результат не попал в кэш
     private Conditions parseConditionsFromFile(Path filePath) {
         double temperature = 0.0;
         double humidity = 0.0;
@@ -155,13 +377,15 @@ public class SimulationRepositoryImpl implements SimulationRepository {
             }
         } catch (IOException e) {
             uiService.displayMessage(ERROR_WHILE_READING_A_FILE + ": " + e.getMessage());
+            return null;
         }
+        metrics.recordBytesRead(filePath, filePath.toFile().length());
 
         return new Conditions(temperature, humidity, waterAmount);
     }
 
     // Разбирает строку параметра и возвращает числовое значение после двоеточия
     private double parseParameter(String line) {
-        return Double.parseDouble(line.split(": ")[1]);
+        return Double.parseDouble(line.substring(line.indexOf(": ") + 2));
     }
 }
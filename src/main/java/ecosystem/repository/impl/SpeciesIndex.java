@@ -0,0 +1,100 @@
+package ecosystem.repository.impl;
+
+import ecosystem.model.Animal;
+import ecosystem.model.FoodWeb;
+import ecosystem.model.Plant;
+import ecosystem.model.SpeciesKind;
+import ecosystem.util.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Индекс видов одной экосистемы в памяти: имя -> вид и пищевая сеть по id видов.
+// Имена хранятся в единственном экземпляре из таблицы символов экосистемы.
+// Все обращения выполняются под монитором самого индекса.
+class SpeciesIndex {
+    final SymbolTable symbols;
+    // Растения и животные в порядке добавления
+    final Map<String, Plant> plants = new LinkedHashMap<>();
+    final Map<String, Animal> animals = new LinkedHashMap<>();
+    // Тип вида по id для проверок за O(1) и ребра "хищник -> жертва"; обновляется при каждом изменении вида
+    final FoodWeb foodWeb = new FoodWeb();
+
+    // Изменения, еще не записанные на диск: записи журнала SpeciesLogStore в порядке применения
+    final List<String> pendingPlantRecords = new ArrayList<>();
+    final List<String> pendingAnimalRecords = new ArrayList<>();
+    final List<String> pendingInteractions = new ArrayList<>();
+    boolean flushScheduled;
+    // Сериализует запись на диск между фоновым потоком и явными вызовами flush
+    final Object flushLock = new Object();
+
+    SpeciesIndex(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    Plant putPlant(String name) {
+        int id = symbols.intern(name);
+        Plant plant = new Plant(id, symbols.name(id));
+        plants.put(plant.getName(), plant);
+        refreshKind(id, plant.getName());
+        return plant;
+    }
+
+    Animal putAnimal(String name, String dietType) {
+        int id = symbols.intern(name);
+        Animal animal = new Animal(id, symbols.name(id), dietType);
+        animals.put(animal.getName(), animal);
+        refreshKind(id, animal.getName());
+        return animal;
+    }
+
+    Plant removePlant(String name) {
+        Plant plant = plants.remove(name);
+        if (plant != null) {
+            refreshKind(plant.getId(), name);
+        }
+        return plant;
+    }
+
+    Animal removeAnimal(String name) {
+        Animal animal = animals.remove(name);
+        if (animal != null) {
+            refreshKind(animal.getId(), name);
+        }
+        return animal;
+    }
+
+    SpeciesKind kindOf(int id) {
+        return foodWeb.kindOf(id);
+    }
+
+    // Пересчитывает тип вида после изменения: животное с тем же именем имеет приоритет над растением
+    private void refreshKind(int id, String name) {
+        Animal animal = animals.get(name);
+        if (animal != null) {
+            foodWeb.put(id, SpeciesKind.fromDiet(animal.getDietType()));
+        } else {
+            foodWeb.put(id, plants.containsKey(name) ? SpeciesKind.PLANT : SpeciesKind.UNKNOWN);
+        }
+    }
+
+    boolean hasPendingChanges() {
+        return !pendingPlantRecords.isEmpty() || !pendingAnimalRecords.isEmpty() || !pendingInteractions.isEmpty();
+    }
+
+    // Формат строки животного в файле: "Имя (диета)"
+    static String formatAnimal(Animal animal) {
+        return animal.getName() + " (" + animal.getDietType() + ")";
+    }
+
+    // Разбирает строку файла животных; возвращает null для некорректных строк
+    static Animal parseAnimal(String line) {
+        int open = line.lastIndexOf(" (");
+        if (open <= 0 || !line.endsWith(")")) {
+            return null;
+        }
+        return new Animal(line.substring(0, open), line.substring(open + 2, line.length() - 1));
+    }
+}
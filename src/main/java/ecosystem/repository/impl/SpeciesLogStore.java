@@ -0,0 +1,475 @@
+package ecosystem.repository.impl;
+
+import ecosystem.service.UIService;
+import ecosystem.service.impl.UIServiceImpl;
+import ecosystem.util.Config;
+import ecosystem.util.Metrics;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static ecosystem.util.Messages.*;
+
+// Лог-структурированное хранилище файла видов. Файл (plants.txt, animals.txt) остается базовым
+// снимком, а удаления и обновления дописываются в журнал рядом с ним (plants.txt.journal):
+//   "-<TAB>имя"                — удаление (tombstone)
+//   "=<TAB>имя<TAB>строка"     — замена строки вида (например, новая диета)
+//   "+<TAB>строка"             — добавление после уже записанных в журнал изменений
+// Текущее состояние = базовый файл + воспроизведенный журнал. Когда доля записей журнала
+// превышает порог, фоновый поток переписывает базовый файл и очищает журнал.
+public class SpeciesLogStore {
+    private static SpeciesLogStore instance;
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    private final UIService uiService = UIServiceImpl.getInstance();
+    // Учет прочитанных и записанных байт по экосистемам
+    private final Metrics metrics = Metrics.getInstance();
+    // Состояние каждого файла видов: размер базового файла и журнала в записях
+    private final Map<Path, FileState> states = new ConcurrentHashMap<>();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "species-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Доля мусора (записей журнала), при которой запускается уплотнение
+    private final double compactionThreshold = Config.getDoubleProperty("species.compaction.threshold", 0.3);
+    // Минимальный размер журнала, ниже которого уплотнение не имеет смысла
+    private final long compactionMinRecords = Config.getLongProperty("species.compaction.min.records", 100);
+
+    private static final class FileState {
+        long baseLines;
+        long journalRecords;
+        boolean compactionScheduled;
+        // Повторяющиеся в базовом файле имена с последней строкой каждого; null — не подсчитаны
+        // после последнего изменения базового файла
+        Map<String, String> baseDuplicates;
+    }
+
+    private SpeciesLogStore() {
+    }
+
+    public static synchronized SpeciesLogStore getInstance() {
+        if (instance == null) {
+            instance = new SpeciesLogStore();
+        }
+        return instance;
+    }
+
+    public static String addRecord(String line) {
+        return "+\t" + line;
+    }
+
+    public static String deleteRecord(String speciesName) {
+        return "-\t" + speciesName;
+    }
+
+    public static String updateRecord(String speciesName, String line) {
+        return "=\t" + speciesName + "\t" + line;
+    }
+
+    // Извлекает имя вида из строки файла ("Имя" или "Имя (диета)")
+    public static String speciesNameOf(String line) {
+        int open = line.lastIndexOf(" (");
+        return open > 0 && line.endsWith(")") ? line.substring(0, open) : line;
+    }
+
+    private static Path journalOf(Path file) {
+        return file.resolveSibling(file.getFileName() + JOURNAL_SUFFIX);
+    }
+
+    // Возвращает состояние файла, при первом обращении подсчитывая строки базы и журнала
+    private FileState stateOf(Path file) throws IOException {
+        FileState state = states.get(file);
+        if (state == null) {
+            FileState loaded = new FileState();
+            truncateTornRecord(journalOf(file));
+            loaded.baseLines = countLines(file);
+            loaded.journalRecords = countLines(journalOf(file));
+            state = states.putIfAbsent(file, loaded);
+            if (state == null) {
+                state = loaded;
+            }
+        }
+        return state;
+    }
+
+    // Отрезает недописанную при сбое последнюю запись журнала (без завершающего перевода строки),
+    // чтобы она не была воспроизведена обрезанной и к ней не приклеилась следующая запись
+    private void truncateTornRecord(Path journal) throws IOException {
+        if (!Files.exists(journal)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            while (end > 0) {
+                long start = Math.max(0, end - buffer.capacity());
+                buffer.clear().limit((int) (end - start));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) < 0) {
+                        break;
+                    }
+                }
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        truncate(channel, start + i + 1);
+                        return;
+                    }
+                }
+                end = start;
+            }
+            truncate(channel, 0);
+        }
+    }
+
+    private static void truncate(FileChannel channel, long size) throws IOException {
+        if (channel.size() > size) {
+            channel.truncate(size);
+        }
+    }
+
+    private long countLines(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file.toFile()))) {
+            long lines = reader.lines().count();
+            metrics.recordBytesRead(file, Files.size(file));
+            return lines;
+        }
+    }
+
+    // Дописывает записи одной операцией. Если журнал пуст и все записи — добавления,
+    // строки дописываются прямо в базовый файл; иначе все записи уходят в журнал,
+    // чтобы сохранить порядок относительно уже записанных удалений
+    public void append(Path file, List<String> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        FileState state = stateOf(file);
+        synchronized (state) {
+            boolean onlyAdds = state.journalRecords == 0 && records.stream().allMatch(record -> record.startsWith("+\t"));
+            if (onlyAdds) {
+                List<String> lines = new ArrayList<>(records.size());
+                for (String record : records) {
+                    lines.add(record.substring(2));
+                }
+                writeLines(file, lines, true);
+                state.baseLines += lines.size();
+                state.baseDuplicates = null;
+            } else {
+                writeLines(journalOf(file), records, true);
+                state.journalRecords += records.size();
+                scheduleCompactionIfNeeded(file, state);
+            }
+        }
+    }
+
+    public void append(Path file, String record) throws IOException {
+        append(file, List.of(record));
+    }
+
+    // Восстанавливает текущее содержимое файла: базовые строки с примененным журналом
+    public List<String> readLive(Path file) throws IOException {
+        FileState state = stateOf(file);
+        synchronized (state) {
+            return new ArrayList<>(replay(file).values());
+        }
+    }
+
+    // Ленивый поток текущих строк файла без загрузки базового файла в память: базовый файл
+    // читается через FileChannel, а журнал (его размер ограничен уплотнением) накладывается
+    // на прочитанные строки. Строки и их порядок совпадают с readLive, включая повторы имени
+    // в базовом файле. Снимок базового файла и журнала берется при вызове; поток нужно закрыть
+    public Stream<String> streamLive(Path file) throws IOException {
+        FileState state = stateOf(file);
+        FileChannel channel = null;
+        long size = 0;
+        JournalOverlay overlay;
+        Map<String, String> duplicates;
+        synchronized (state) {
+            if (Files.exists(file)) {
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+                size = channel.size();
+            }
+            overlay = readJournal(file);
+            duplicates = baseDuplicates(file, state);
+        }
+
+        Stream<String> base = Stream.empty();
+        if (channel != null) {
+            ChannelLineReader reader = new ChannelLineReader(channel, size, Charset.defaultCharset());
+            base = StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED), false)
+                    .onClose(() -> {
+                        try {
+                            metrics.recordBytesRead(file, reader.bytesRead());
+                            reader.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        }
+        Stream<String> lines = base.filter(line -> !line.isBlank());
+        if (!duplicates.isEmpty()) {
+            // Повторы имени схлопываются, как при воспроизведении в LinkedHashMap: строка остается
+            // на месте первого вхождения, а содержимое берется из последнего
+            Set<String> emitted = new HashSet<>();
+            lines = lines.map(line -> {
+                String name = speciesNameOf(line);
+                String last = duplicates.get(name);
+                return last == null ? line : emitted.add(name) ? last : null;
+            }).filter(Objects::nonNull);
+        }
+        if (overlay.touched.isEmpty()) {
+            return lines;
+        }
+        // Хвост (добавленные через журнал строки) вычисляется после прохода по базовому файлу
+        return Stream.concat(
+                lines.map(overlay::applyToBaseLine).filter(Objects::nonNull),
+                Stream.of(overlay).flatMap(JournalOverlay::tail));
+    }
+
+    // Повторяющиеся имена базового файла (их оставляют, например, добавления без проверки
+    // существования вида). Подсчитываются одним проходом по базовому файлу и запоминаются
+    // до его следующего изменения; вызывается под монитором состояния файла
+    private Map<String, String> baseDuplicates(Path file, FileState state) throws IOException {
+        if (state.baseDuplicates == null) {
+            Map<String, String> duplicates = new HashMap<>();
+            if (Files.exists(file)) {
+                Set<String> names = new HashSet<>();
+                try (BufferedReader reader = new BufferedReader(new FileReader(file.toFile()))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.isBlank() && !names.add(speciesNameOf(line))) {
+                            duplicates.put(speciesNameOf(line), line);
+                        }
+                    }
+                }
+                metrics.recordBytesRead(file, Files.size(file));
+            }
+            state.baseDuplicates = duplicates;
+        }
+        return state.baseDuplicates;
+    }
+
+    // Изменения журнала по именам видов в порядке, который дала бы LinkedHashMap при воспроизведении
+    private static final class JournalOverlay {
+        final Map<String, Entry> touched = new LinkedHashMap<>();
+
+        static final class Entry {
+            String line;            // null — вид удален
+            boolean removed;        // базовая строка вида удалена, новая строка идет в хвост
+            boolean replaceOnly;    // только замена: действует, если вид есть в базовом файле
+            boolean emitted;
+        }
+
+        void add(String name, String line) {
+            Entry entry = touched.get(name);
+            if (entry != null && entry.line != null && !entry.replaceOnly) {
+                entry.line = line;
+                return;
+            }
+            Entry added = new Entry();
+            added.line = line;
+            added.removed = entry != null && entry.removed;
+            touched.remove(name);
+            touched.put(name, added);
+        }
+
+        void remove(String name) {
+            Entry removed = new Entry();
+            removed.removed = true;
+            touched.remove(name);
+            touched.put(name, removed);
+        }
+
+        void replace(String name, String line) {
+            Entry entry = touched.get(name);
+            if (entry == null) {
+                entry = new Entry();
+                entry.replaceOnly = true;
+                touched.put(name, entry);
+            } else if (entry.line == null && !entry.replaceOnly) {
+                return;
+            }
+            entry.line = line;
+        }
+
+        String applyToBaseLine(String line) {
+            Entry entry = touched.get(speciesNameOf(line));
+            if (entry == null) {
+                return line;
+            }
+            if (entry.removed || entry.emitted) {
+                return null;
+            }
+            entry.emitted = true;
+            return entry.line;
+        }
+
+        Stream<String> tail() {
+            return touched.values().stream()
+                    .filter(entry -> !entry.emitted && !entry.replaceOnly && entry.line != null)
+                    .map(entry -> entry.line);
+        }
+    }
+
+    private JournalOverlay readJournal(Path file) throws IOException {
+        JournalOverlay overlay = new JournalOverlay();
+        Path journal = journalOf(file);
+        if (!Files.exists(journal)) {
+            return overlay;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(journal.toFile()))) {
+            String record;
+            while ((record = reader.readLine()) != null) {
+                if (record.length() < 2 || record.charAt(1) != '\t') {
+                    continue;
+                }
+                String body = record.substring(2);
+                switch (record.charAt(0)) {
+                    case '+':
+                        overlay.add(speciesNameOf(body), body);
+                        break;
+                    case '-':
+                        overlay.remove(body);
+                        break;
+                    case '=':
+                        int tab = body.indexOf('\t');
+                        if (tab > 0) {
+                            overlay.replace(body.substring(0, tab), body.substring(tab + 1));
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        metrics.recordBytesRead(journal, Files.size(journal));
+        return overlay;
+    }
+
+    // Воспроизводит журнал поверх базового файла; ключ — имя вида, значение — строка файла
+    private Map<String, String> replay(Path file) throws IOException {
+        Map<String, String> live = new LinkedHashMap<>();
+        if (Files.exists(file)) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file.toFile()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        live.put(speciesNameOf(line), line);
+                    }
+                }
+            }
+            metrics.recordBytesRead(file, Files.size(file));
+        }
+        Path journal = journalOf(file);
+        if (Files.exists(journal)) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(journal.toFile()))) {
+                String record;
+                while ((record = reader.readLine()) != null) {
+                    applyRecord(live, record);
+                }
+            }
+            metrics.recordBytesRead(journal, Files.size(journal));
+        }
+        return live;
+    }
+
+    private static void applyRecord(Map<String, String> live, String record) {
+        if (record.length() < 2 || record.charAt(1) != '\t') {
+            return; // Недописанная при сбое или поврежденная запись
+        }
+        String body = record.substring(2);
+        switch (record.charAt(0)) {
+            case '+':
+                live.put(speciesNameOf(body), body);
+                break;
+            case '-':
+                live.remove(body);
+                break;
+            case '=':
+                int tab = body.indexOf('\t');
+                if (tab > 0) {
+                    live.replace(body.substring(0, tab), body.substring(tab + 1));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Вызывается под монитором состояния файла
+    private void scheduleCompactionIfNeeded(Path file, FileState state) {
+        long total = state.baseLines + state.journalRecords;
+        boolean overThreshold = state.journalRecords >= compactionMinRecords
+                && (double) state.journalRecords / total >= compactionThreshold;
+        if (overThreshold && !state.compactionScheduled) {
+            state.compactionScheduled = true;
+            compactor.execute(() -> compact(file));
+        }
+    }
+
+    // Переписывает базовый файл по текущему состоянию и удаляет журнал
+    public void compact(Path file) {
+        try {
+            FileState state = stateOf(file);
+            synchronized (state) {
+                state.compactionScheduled = false;
+                Path journal = journalOf(file);
+                if (!Files.exists(journal)) {
+                    return;
+                }
+                List<String> live = new ArrayList<>(replay(file).values());
+                Path compacted = file.resolveSibling(file.getFileName() + COMPACT_SUFFIX);
+                writeLines(compacted, live, false);
+                Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(journal);
+                state.baseLines = live.size();
+                state.journalRecords = 0;
+                state.baseDuplicates = Map.of();
+            }
+        } catch (IOException e) {
+            uiService.displayMessage(ERROR_COMPACTING_SPECIES_FILE + ": " + e.getMessage());
+        }
+    }
+
+    // Сбрасывает учтенное состояние файла, например после удаления экосистемы извне
+    public void forget(Path file) {
+        states.remove(file);
+    }
+
+    private void writeLines(Path file, List<String> lines, boolean append) throws IOException {
+        Files.createDirectories(file.getParent());
+        long sizeBefore = append && Files.exists(file) ? Files.size(file) : 0;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file.toFile(), append))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        metrics.recordBytesWritten(file, Files.size(file) - sizeBefore);
+    }
+}
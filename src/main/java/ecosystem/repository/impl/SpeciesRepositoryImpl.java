@@ -1,18 +1,26 @@
 package ecosystem.repository.impl;
 
 import ecosystem.model.Animal;
+import ecosystem.model.FoodWeb;
+import ecosystem.model.InteractionResult;
 import ecosystem.model.Plant;
+import ecosystem.model.Species;
+import ecosystem.model.SpeciesKind;
 import ecosystem.repository.SpeciesRepository;
 import ecosystem.service.UIService;
 import ecosystem.service.impl.UIServiceImpl;
 import ecosystem.util.Config;
+import ecosystem.util.Metrics;
+import ecosystem.util.SymbolTable;
 
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 import static ecosystem.util.Messages.*;
 
@@ -20,6 +28,12 @@ public class SpeciesRepositoryImpl implements SpeciesRepository {
     // Singleton instance для обеспечения единственного экземпляра репозитория видов
     private static SpeciesRepositoryImpl instance;
     private final UIService uiService = UIServiceImpl.getInstance();
+    // Все операции с экосистемой выполняются под ее блокировкой из EcosystemLocks:
+    // чтения разных и одной экосистемы идут параллельно, изменения одной экосистемы сериализуются.
+    // Файлы видов хранятся как базовый снимок и журнал изменений: удаление и обновление — одна дописанная запись
+    private final SpeciesLogStore speciesLogStore = SpeciesLogStore.getInstance();
+    // Число и задержка файловых операций (с ожиданием блокировки экосистемы) — в Metrics под именами species.*
+    private final Metrics metrics = Metrics.getInstance();
 
     // Приватный конструктор для синглтона
     private SpeciesRepositoryImpl() {
@@ -52,60 +66,84 @@ public class SpeciesRepositoryImpl implements SpeciesRepository {
 
     // Добавляет вид (растение или животное) в файл с проверкой на существование файла
     private void addSpecies(String ecosystemName, String speciesName, String fileName) {
-        Path filePath = Paths.get(getEcosystemDirectory(ecosystemName), fileName);
-        createFileIfNotExists(filePath);
+        metrics.time("species.addSpecies", () -> EcosystemLocks.write(ecosystemName, () -> {
+            Path filePath = Paths.get(getEcosystemDirectory(ecosystemName), fileName);
+            createFileIfNotExists(filePath);
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath.toFile(), true))) {
-            writer.write(speciesName);
-            writer.newLine();
-            uiService.displayMessage(speciesName + " " + ADDED_TO_ECOSYSTEM + " " + ecosystemName);
-        } catch (IOException e) {
-            uiService.displayMessage(ERROR_ADDING_SPECIES + ": " + e.getMessage());
-        }
+            try {
+                speciesLogStore.append(filePath, SpeciesLogStore.addRecord(speciesName));
+                uiService.displayMessage(speciesName + " " + ADDED_TO_ECOSYSTEM + " " + ecosystemName);
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_ADDING_SPECIES + ": " + e.getMessage());
+            }
+        }));
     }
 
-    // Удаляет вид из файла, обновляя его, исключая строки с именем вида
+    // Удаляет вид, дописывая в журнал файла запись-надгробие вместо перезаписи файла
     @Override
     public void deleteSpecies(String ecosystemName, String speciesName, boolean isPlant) {
-        Path filePath = Paths.get(getEcosystemDirectory(ecosystemName), isPlant ? Config.getProperty("plants.file") : Config.getProperty("animals.file"));
+        metrics.time("species.deleteSpecies", () -> EcosystemLocks.write(ecosystemName, () -> {
+            Path filePath = Paths.get(getEcosystemDirectory(ecosystemName), isPlant ? Config.getProperty("plants.file") : Config.getProperty("animals.file"));
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath.toFile()))) {
-            List<String> updatedLines = reader.lines()
-                    .filter(line -> !(line.equals(speciesName) || line.startsWith(speciesName + " (")))
-                    .collect(Collectors.toList());
+            try {
+                speciesLogStore.append(filePath, SpeciesLogStore.deleteRecord(speciesName));
+                uiService.displayMessage(SPECIE + " " + speciesName + " " + REMOVED_FROM_THE_ECOSYSTEM + " " + ecosystemName);
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_WHEN_DELETING_A_SPECIE + ": " + e.getMessage());
+            }
+        }));
+    }
+
+    // Надгробие дописывается, только если вид есть в текущем содержимом файла; проверка и запись
+    // выполняются под одной блокировкой записи экосистемы
+    @Override
+    public boolean deleteSpeciesIfPresent(String ecosystemName, String speciesName, boolean isPlant) {
+        return metrics.time("species.deleteSpecies", () -> EcosystemLocks.write(ecosystemName, () -> {
+            Path filePath = Paths.get(getEcosystemDirectory(ecosystemName), isPlant ? Config.getProperty("plants.file") : Config.getProperty("animals.file"));
 
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath.toFile(), false))) {
-                for (String line : updatedLines) {
-                    writer.write(line);
-                    writer.newLine();
+            try {
+                if (!liveNames(filePath).contains(speciesName)) {
+                    return false;
                 }
+                speciesLogStore.append(filePath, SpeciesLogStore.deleteRecord(speciesName));
                 uiService.displayMessage(SPECIE + " " + speciesName + " " + REMOVED_FROM_THE_ECOSYSTEM + " " + ecosystemName);
+                return true;
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_WHEN_DELETING_A_SPECIE + ": " + e.getMessage());
+                return false;
             }
-        } catch (IOException e) {
-            uiService.displayMessage(ERROR_WHEN_DELETING_A_SPECIE + ": " + e.getMessage());
+        }));
+    }
+
+    // Имена видов в текущем содержимом файла
+    private Set<String> liveNames(Path filePath) throws IOException {
+        Set<String> names = new HashSet<>();
+        for (String line : speciesLogStore.readLive(filePath)) {
+            names.add(SpeciesLogStore.speciesNameOf(line));
         }
+        return names;
     }
 
-    // Обновляет тип диеты для животного в файле животных
+    // Обновляет тип диеты для животного, дописывая в журнал файла животных запись замены;
+    // проверка наличия и запись выполняются под одной блокировкой экосистемы
     @Override
-    public void updateAnimalDiet(String ecosystemName, String animalName, String newDietType) {
-        Path animalsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("animals.file"));
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(animalsFilePath.toFile()))) {
-            List<String> updatedLines = reader.lines()
-                    .map(line -> line.startsWith(animalName + " (") ? animalName + " (" + newDietType + ")" : line)
-                    .collect(Collectors.toList());
+    public boolean updateAnimalDiet(String ecosystemName, String animalName, String newDietType) {
+        return metrics.time("species.updateAnimalDiet", () -> EcosystemLocks.write(ecosystemName, () -> {
+            Path animalsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("animals.file"));
 
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(animalsFilePath.toFile(), false))) {
-                for (String line : updatedLines) {
-                    writer.write(line);
-                    writer.newLine();
+            try {
+                if (!liveNames(animalsFilePath).contains(animalName)) {
+                    return false;
                 }
+                speciesLogStore.append(animalsFilePath,
+                        SpeciesLogStore.updateRecord(animalName, animalName + " (" + newDietType + ")"));
                 uiService.displayMessage(ANIMAL_DIET + " " + animalName + " " + UPDATED_TO + " " + newDietType);
+                return true;
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_UPDATING_ANIMAL_DIET + ": " + e.getMessage());
+                return false;
             }
-        } catch (IOException e) {
-            uiService.displayMessage(ERROR_UPDATING_ANIMAL_DIET + ": " + e.getMessage());
-        }
+        }));
     }
 
     // Проверяет, является ли животное травоядным, по имени и типу диеты
@@ -125,30 +163,125 @@ public class SpeciesRepositoryImpl implements SpeciesRepository {
         return checkAnimalDiet(ecosystemName, speciesName, "omnivore");
     }
 
-    // Универсальный метод для проверки типа диеты животного
+    // Универсальный метод для проверки типа диеты животного: строка файла должна совпадать
+    // с "Имя (диета)" целиком, как в индексированном репозитории
     private boolean checkAnimalDiet(String ecosystemName, String animalName, String dietType) {
-        Path animalsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("animals.file"));
+        return metrics.time("species.checkAnimalDiet", () -> EcosystemLocks.read(ecosystemName, () -> {
+            Path animalsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("animals.file"));
+            String animalLine = animalName + " (" + dietType + ")";
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(animalsFilePath.toFile()))) {
-            return reader.lines()
-                    .anyMatch(line -> line.startsWith(animalName) && line.contains(dietType));
-        } catch (IOException e) {
-            uiService.displayMessage(ERROR_CHECKING_ANIMAL_DIET + ": " + e.getMessage());
-            return false;
-        }
+            try {
+                return speciesLogStore.readLive(animalsFilePath).contains(animalLine);
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_CHECKING_ANIMAL_DIET + ": " + e.getMessage());
+                return false;
+            }
+        }));
     }
 
-    // Проверяет, является ли вид растением
+    // Проверяет, является ли вид растением (точное совпадение имени со строкой файла)
     @Override
     public boolean checkIfPlant(String ecosystemName, String speciesName) {
-        Path plantsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("plants.file"));
+        return metrics.time("species.checkIfPlant", () -> EcosystemLocks.read(ecosystemName, () -> {
+            Path plantsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("plants.file"));
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(plantsFilePath.toFile()))) {
-            return reader.lines().anyMatch(line -> line.contains(speciesName));
-        } catch (IOException e) {
-            uiService.displayMessage(ERROR_WHEN_CHECKING_A_PLANT + ": " + e.getMessage());
-            return false;
+            try {
+                return speciesLogStore.readLive(plantsFilePath).contains(speciesName);
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_WHEN_CHECKING_A_PLANT + ": " + e.getMessage());
+                return false;
+            }
+        }));
+    }
+
+    // Определяет тип вида за один проход по животным и, при необходимости, по растениям
+    @Override
+    public SpeciesKind classifySpecies(String ecosystemName, String speciesName) {
+        return metrics.time("species.classifySpecies", () -> EcosystemLocks.read(ecosystemName, () -> {
+            Path animalsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("animals.file"));
+            String prefix = speciesName + " (";
+
+            try {
+                for (String line : speciesLogStore.readLive(animalsFilePath)) {
+                    if (line.startsWith(prefix) && line.endsWith(")")) {
+                        return SpeciesKind.fromDiet(line.substring(prefix.length(), line.length() - 1));
+                    }
+                }
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_CHECKING_ANIMAL_DIET + ": " + e.getMessage());
+            }
+
+            Path plantsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("plants.file"));
+            try {
+                return speciesLogStore.readLive(plantsFilePath).contains(speciesName) ? SpeciesKind.PLANT : SpeciesKind.UNKNOWN;
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_WHEN_CHECKING_A_PLANT + ": " + e.getMessage());
+                return SpeciesKind.UNKNOWN;
+            }
+        }));
+    }
+
+    // Файловый репозиторий не держит индекса по id: id переводится в имя через таблицу символов
+    @Override
+    public SpeciesKind classifySpecies(String ecosystemName, int speciesId) {
+        String speciesName = SymbolTables.forEcosystem(ecosystemName).name(speciesId);
+        return speciesName != null ? classifySpecies(ecosystemName, speciesName) : SpeciesKind.UNKNOWN;
+    }
+
+    // Имя регистрируется в таблице символов, только если вид есть в файлах экосистемы
+    @Override
+    public int findSpeciesId(String ecosystemName, String speciesName) {
+        return classifySpecies(ecosystemName, speciesName) != SpeciesKind.UNKNOWN
+                ? SymbolTables.forEcosystem(ecosystemName).intern(speciesName)
+                : -1;
+    }
+
+    // Строит пищевую сеть по файлам видов; id берутся из таблицы символов экосистемы
+    @Override
+    public FoodWeb findFoodWeb(String ecosystemName) {
+        SymbolTable symbols = SymbolTables.forEcosystem(ecosystemName);
+        FoodWeb foodWeb = new FoodWeb();
+        for (Species species : findAllSpecies(ecosystemName)) {
+            foodWeb.put(symbols.intern(species.getName()), SpeciesKind.of(species));
         }
+        return foodWeb;
+    }
+
+    // Читает все виды экосистемы: сначала растения, затем животные
+    @Override
+    public List<Species> findAllSpecies(String ecosystemName) {
+        return metrics.time("species.findAllSpecies", () -> EcosystemLocks.read(ecosystemName, () -> {
+            List<Species> species = new ArrayList<>();
+            Path plantsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("plants.file"));
+            Path animalsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("animals.file"));
+
+            try {
+                speciesLogStore.readLive(plantsFilePath).forEach(line -> species.add(new Plant(line)));
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_WHILE_READING_A_FILE + ": " + e.getMessage());
+            }
+            try {
+                for (String line : speciesLogStore.readLive(animalsFilePath)) {
+                    int open = line.lastIndexOf(" (");
+                    if (open > 0 && line.endsWith(")")) {
+                        species.add(new Animal(line.substring(0, open), line.substring(open + 2, line.length() - 1)));
+                    }
+                }
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_WHILE_READING_A_FILE + ": " + e.getMessage());
+            }
+            return species;
+        }));
+    }
+
+    // Изменения записываются в файлы сразу, отложенных нет
+    @Override
+    public void flush(String ecosystemName) {
+    }
+
+    // В памяти ничего не хранится
+    @Override
+    public void release(String ecosystemName) {
     }
 
     // Создает файл, если он не существует
@@ -166,15 +299,95 @@ public class SpeciesRepositoryImpl implements SpeciesRepository {
     // Записывает взаимодействие (например, взаимодействие между видами) в файл
     @Override
     public void recordInteraction(String interaction, String ecosystemName) {
-        Path interactionsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("interactions.file"));
-        createFileIfNotExists(interactionsFilePath);
+        metrics.time("species.recordInteraction", () -> EcosystemLocks.write(ecosystemName, () -> {
+            Path interactionsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("interactions.file"));
+            createFileIfNotExists(interactionsFilePath);
+
+            try {
+                appendLines(ecosystemName, interactionsFilePath, List.of(interaction));
+                uiService.displayMessage(INTERACTION_RECORDED + ": " + interaction);
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_RECORDING_INTERACTION + ": " + e.getMessage());
+            }
+        }));
+    }
+
+    // Применяет пакет взаимодействий: удаления съеденных видов дописываются в журнал каждого
+    // файла видов одной операцией, взаимодействия — в файл взаимодействий. Применяются только
+    // взаимодействия, жертва которых еще есть в файлах на момент применения
+    @Override
+    public List<InteractionResult> applyInteractions(String ecosystemName, List<InteractionResult> interactions) {
+        return metrics.time("species.applyInteractions", () -> EcosystemLocks.write(ecosystemName, () -> {
+            Path plantsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("plants.file"));
+            Path animalsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("animals.file"));
+            Set<String> livePlants;
+            Set<String> liveAnimals;
+            try {
+                livePlants = liveNames(plantsFilePath);
+                liveAnimals = liveNames(animalsFilePath);
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_WHILE_READING_A_FILE + ": " + e.getMessage());
+                return List.<InteractionResult>of();
+            }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(interactionsFilePath.toFile(), true))) {
-            writer.write(interaction);
-            writer.newLine();
-            System.out.println(INTERACTION_RECORDED + ": " + interaction);
+            Set<String> eatenPlants = new HashSet<>();
+            Set<String> eatenAnimals = new HashSet<>();
+            List<InteractionResult> applied = new ArrayList<>(interactions.size());
+            List<String> lines = new ArrayList<>(interactions.size());
+            for (InteractionResult interaction : interactions) {
+                // Вид удаляется из множества живых, поэтому повторное поедание в пакете не применяется
+                if ((interaction.isPreyPlant() ? livePlants : liveAnimals).remove(interaction.getPrey())) {
+                    (interaction.isPreyPlant() ? eatenPlants : eatenAnimals).add(interaction.getPrey());
+                    lines.add(interaction.getPredator() + " " + ATE + " " + interaction.getPrey());
+                    applied.add(interaction);
+                }
+            }
+            if (!eatenPlants.isEmpty()) {
+                removeSpeciesLines(ecosystemName, Config.getProperty("plants.file"), eatenPlants);
+            }
+            if (!eatenAnimals.isEmpty()) {
+                removeSpeciesLines(ecosystemName, Config.getProperty("animals.file"), eatenAnimals);
+            }
+            if (lines.isEmpty()) {
+                return applied;
+            }
+
+            Path interactionsFilePath = Paths.get(getEcosystemDirectory(ecosystemName), Config.getProperty("interactions.file"));
+            createFileIfNotExists(interactionsFilePath);
+            try {
+                appendLines(ecosystemName, interactionsFilePath, lines);
+            } catch (IOException e) {
+                uiService.displayMessage(ERROR_RECORDING_INTERACTION + ": " + e.getMessage());
+            }
+            return applied;
+        }));
+    }
+
+    // Дописывает строки в конец файла; записанные байты считаются по изменению размера файла,
+    // так как в кодировке файла символ имени может занимать больше одного байта
+    private void appendLines(String ecosystemName, Path filePath, List<String> lines) throws IOException {
+        long sizeBefore = Files.size(filePath);
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath.toFile(), true))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        metrics.recordBytesWritten(ecosystemName, Files.size(filePath) - sizeBefore);
+    }
+
+    // Дописывает записи-надгробия для перечисленных видов одной операцией
+    private void removeSpeciesLines(String ecosystemName, String fileName, Set<String> speciesNames) {
+        Path filePath = Paths.get(getEcosystemDirectory(ecosystemName), fileName);
+        List<String> records = new ArrayList<>(speciesNames.size());
+        for (String speciesName : speciesNames) {
+            records.add(SpeciesLogStore.deleteRecord(speciesName));
+        }
+
+        try {
+            speciesLogStore.append(filePath, records);
         } catch (IOException e) {
-            uiService.displayMessage(ERROR_RECORDING_INTERACTION + ": " + e.getMessage());
+            uiService.displayMessage(ERROR_WHEN_DELETING_A_SPECIE + ": " + e.getMessage());
         }
     }
 }
@@ -0,0 +1,37 @@
+package ecosystem.repository.impl;
+
+import ecosystem.util.Config;
+import ecosystem.util.SymbolTable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Таблицы символов экосистем, общие для индекса видов, журнала взаимодействий и симуляции.
+// Словарь хранится в species.dict директории журнала взаимодействий (там же, где его вел журнал),
+// поэтому id из уже записанных сегментов остаются действительными.
+public final class SymbolTables {
+    static final String DICTIONARY_FILE = "species.dict";
+    private static final Map<String, SymbolTable> TABLES = new ConcurrentHashMap<>();
+
+    private SymbolTables() {
+    }
+
+    // Возвращает таблицу экосистемы, загружая словарь с диска при первом обращении
+    public static SymbolTable forEcosystem(String ecosystemName) {
+        return TABLES.computeIfAbsent(ecosystemName, name -> {
+            try {
+                return SymbolTable.load(dictionaryPath(name));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static Path dictionaryPath(String ecosystemName) {
+        return Paths.get(Config.getDirectory() + ecosystemName, Config.getProperty("interactions.log.dir"), DICTIONARY_FILE);
+    }
+}
@@ -1,16 +1,39 @@
 package ecosystem.service;
 
+import ecosystem.model.Animal;
+import ecosystem.model.InteractionResult;
+import ecosystem.model.Species;
+
+import java.util.List;
+import java.util.Map;
+
 public interface ActionHandlerService {
     void addPlant(String ecosystemName);
 
+    void addPlant(String ecosystemName, String plantName);
+
     void addAnimal(String ecosystemName);
 
+    void addAnimal(String ecosystemName, Animal animal);
+
     void updateAnimalDiet(String ecosystemName);
 
+    // Возвращает false, если животного с таким именем нет
+    boolean updateAnimalDiet(String ecosystemName, String animalName, String newDiet);
+
     void deleteSpecies(String ecosystemName);
 
+    // Возвращает false, если вида с таким именем нет
+    boolean deleteSpecies(String ecosystemName, String speciesName, boolean isPlant);
+
     void handleInteraction(String ecosystemName);
 
+    InteractionResult handleInteraction(String ecosystemName, String predatorName, String preyName);
+
     void displayPopulationPredictions(String ecosystemName);
 
+    Map<String, String> getPopulationPredictions(String ecosystemName);
+
+    List<Species> listSpecies(String ecosystemName);
+
 }
@@ -0,0 +1,20 @@
+package ecosystem.service;
+
+import ecosystem.model.ClimateHistory;
+import ecosystem.model.ClimateModel;
+import ecosystem.model.Conditions;
+
+public interface ClimateService {
+    // История условий экосистемы; создается при первом обращении от сохраненных условий
+    ClimateHistory getHistory(String ecosystemName);
+
+    // Учитывает внешнее показание условий
+    void recordReading(String ecosystemName, double temperature, double humidity, double waterAmount);
+
+    // Продвигает условия по модели климата экосистемы на ticks тиков и возвращает последние
+    Conditions advance(String ecosystemName, long ticks);
+
+    ClimateModel getModel(String ecosystemName);
+
+    void setModel(String ecosystemName, ClimateModel model);
+}
@@ -0,0 +1,21 @@
+package ecosystem.service;
+
+import ecosystem.model.FoodWeb;
+
+import java.util.List;
+
+public interface FoodWebService {
+    FoodWeb getFoodWeb(String ecosystemName);
+
+    boolean canEat(String ecosystemName, String predatorName, String preyName);
+
+    List<String> findPrey(String ecosystemName, String speciesName, int limit);
+
+    List<String> findPredators(String ecosystemName, String speciesName, int limit);
+
+    double trophicLevel(String ecosystemName, String speciesName);
+
+    int foodChainLength(String ecosystemName, String speciesName);
+
+    int longestFoodChain(String ecosystemName);
+}
@@ -0,0 +1,10 @@
+package ecosystem.service;
+
+import ecosystem.model.Conditions;
+import ecosystem.model.GridWorld;
+
+public interface GridSimulationService {
+    GridWorld createWorld(String ecosystemName, int width, int height, double density, long seed);
+
+    void step(GridWorld world, Conditions conditions, int steps);
+}
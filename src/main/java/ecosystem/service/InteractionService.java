@@ -1,5 +1,35 @@
 package ecosystem.service;
 
+import ecosystem.model.BatchResult;
+import ecosystem.model.InteractionPair;
+import ecosystem.model.InteractionResult;
+import ecosystem.model.SpeciesCount;
+
+import java.nio.file.Path;
+import java.util.List;
+
 public interface InteractionService {
     void handleInteraction(String ecosystemName);
+
+    InteractionResult handleInteraction(String ecosystemName, String predatorName, String preyName);
+
+    InteractionResult resolveInteraction(String ecosystemName, String predatorName, String preyName);
+
+    BatchResult applyBatch(String ecosystemName, Iterable<InteractionPair> pairs);
+
+    // Выгружает историю взаимодействий в колоночный файл; возвращает число строк или -1 при ошибке
+    long exportHistory(String ecosystemName, Path target);
+
+    // Сколько раз predatorName съел preyName за всю историю экосистемы
+    long countInteractions(String ecosystemName, String predatorName, String preyName);
+
+    // Сколько раз вид выступал хищником и жертвой
+    long countAsPredator(String ecosystemName, String speciesName);
+
+    long countAsPrey(String ecosystemName, String speciesName);
+
+    // Самые активные хищники и чаще всего съедаемые виды, не более limit, по убыванию
+    List<SpeciesCount> topPredators(String ecosystemName, int limit);
+
+    List<SpeciesCount> mostEatenSpecies(String ecosystemName, int limit);
 }
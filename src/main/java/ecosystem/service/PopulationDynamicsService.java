@@ -0,0 +1,10 @@
+package ecosystem.service;
+
+import ecosystem.model.Conditions;
+import ecosystem.model.PopulationState;
+
+public interface PopulationDynamicsService {
+    PopulationState createState(String ecosystemName);
+
+    void advance(PopulationState state, Conditions conditions, long ticks);
+}
@@ -1,9 +1,25 @@
 package ecosystem.service;
 
+import ecosystem.model.ClimateHistory;
 import ecosystem.model.Conditions;
+import ecosystem.model.RuleVerification;
 
 import java.util.Map;
 
 public interface PredictionService {
     Map<String, String> predictPopulationChanges(Conditions conditions);
+
+    // Прогноз по скользящему среднему условий за окно истории
+    Map<String, String> predictFromRollingMean(ClimateHistory history);
+
+    // Прогноз по худшему сочетанию экстремумов окна истории
+    Map<String, String> predictFromExtremes(ClimateHistory history);
+
+    void predictBatch(double[] temperature, double[] humidity, double[] waterAmount, byte[] plantsOut, byte[] animalsOut);
+
+    // Перечитывает и компилирует правила прогноза; возвращает true, если новые правила применены
+    boolean reloadRules();
+
+    // Сверяет скомпилированную таблицу с действующими правилами на всей области значений
+    RuleVerification verifyRules();
 }
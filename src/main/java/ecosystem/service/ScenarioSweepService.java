@@ -0,0 +1,10 @@
+package ecosystem.service;
+
+import ecosystem.model.Conditions;
+import ecosystem.model.SweepResult;
+
+public interface ScenarioSweepService {
+    SweepResult sweep(String ecosystemName, long samples, long seed);
+
+    SweepResult sweep(Conditions baseConditions, long samples, long seed);
+}
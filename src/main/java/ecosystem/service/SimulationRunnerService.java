@@ -0,0 +1,11 @@
+package ecosystem.service;
+
+import ecosystem.model.EcosystemReport;
+
+import java.util.List;
+
+public interface SimulationRunnerService {
+    List<EcosystemReport> runAll(long ticks);
+
+    EcosystemReport run(String ecosystemName, long ticks);
+}
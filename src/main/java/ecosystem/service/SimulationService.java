@@ -1,11 +1,37 @@
 package ecosystem.service;
 
 import ecosystem.model.Conditions;
+import ecosystem.model.EcosystemCheckpoint;
+import ecosystem.model.GridWorld;
+import ecosystem.model.Species;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 public interface SimulationService {
     Conditions getCurrentConditions(String ecosystemName);
 
     String createEcosystem();
 
+    String createEcosystem(String ecosystemName, Conditions conditions);
+
+    boolean ecosystemExists(String ecosystemName);
+
+    List<String> listEcosystems();
+
+    List<Species> findSpecies(String ecosystemName, Predicate<? super Species> filter, long offset, long limit);
+
+    long countSpecies(String ecosystemName, Predicate<? super Species> filter);
+
     String loadEcosystem();
+
+    // Записывает снимок экосистемы; world — состояние симуляции на сетке или null
+    void saveCheckpoint(String ecosystemName, GridWorld world);
+
+    // Копирует состояние сетки и записывает снимок в фоне, не задерживая симуляцию
+    CompletableFuture<Void> saveCheckpointAsync(String ecosystemName, GridWorld world);
+
+    // Читает последний снимок экосистемы или возвращает null
+    EcosystemCheckpoint restoreCheckpoint(String ecosystemName);
 }
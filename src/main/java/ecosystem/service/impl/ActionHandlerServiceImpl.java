@@ -2,14 +2,18 @@ package ecosystem.service.impl;
 
 import ecosystem.model.Animal;
 import ecosystem.model.Conditions;
+import ecosystem.model.InteractionResult;
 import ecosystem.model.Plant;
+import ecosystem.model.Species;
 import ecosystem.repository.SpeciesRepository;
-import ecosystem.repository.impl.SpeciesRepositoryImpl;
+import ecosystem.repository.impl.IndexedSpeciesRepositoryImpl;
 import ecosystem.service.*;
 
+import java.util.List;
 import java.util.Map;
 
 import static ecosystem.util.Messages.POPULATION;
+import static ecosystem.util.Messages.SPECIES_NOT_FOUND;
 
 // Класс ActionHandlerServiceImpl реализует интерфейс ActionHandlerService
 public class ActionHandlerServiceImpl implements ActionHandlerService {
@@ -17,7 +21,7 @@ public class ActionHandlerServiceImpl implements ActionHandlerService {
     private static ActionHandlerServiceImpl instance;
 
     // Инициализируем зависимости
-    private final SpeciesRepository speciesRepository = SpeciesRepositoryImpl.getInstance(); // Репозиторий для работы с видами
+    private final SpeciesRepository speciesRepository = IndexedSpeciesRepositoryImpl.getInstance(); // Репозиторий для работы с видами
     private final SimulationService simulationService = SimulationServiceImpl.getInstance(); // Сервис для симуляций
     private final InteractionService interactionService = InteractionServiceImpl.getInstance(); // Сервис для взаимодействия между видами
     private final PredictionService predictionService = PredictionServiceImpl.getInstance(); // Сервис для предсказания изменений популяции
@@ -38,6 +42,11 @@ public class ActionHandlerServiceImpl implements ActionHandlerService {
     public void addPlant(String ecosystemName) {
         // Запрашиваем у пользователя имя растения
         String plantName = uiService.askForPlantName();
+        addPlant(ecosystemName, plantName);
+    }
+
+    @Override
+    public void addPlant(String ecosystemName, String plantName) {
         Plant plant = new Plant(plantName); // Создаем объект растения
         // Добавляем растение в экосистему через репозиторий
         speciesRepository.addPlant(ecosystemName, plant);
@@ -47,6 +56,11 @@ public class ActionHandlerServiceImpl implements ActionHandlerService {
     public void addAnimal(String ecosystemName) {
         // Запрашиваем у пользователя детали о новом животном
         Animal animal = uiService.askForAnimalDetails();
+        addAnimal(ecosystemName, animal);
+    }
+
+    @Override
+    public void addAnimal(String ecosystemName, Animal animal) {
         // Добавляем животное в экосистему через репозиторий
         speciesRepository.addAnimal(ecosystemName, animal);
     }
@@ -57,8 +71,15 @@ public class ActionHandlerServiceImpl implements ActionHandlerService {
         String animalName = uiService.askForAnimalNameToUpdate();
         // Запрашиваем новую диету для животного
         String newDiet = uiService.askForNewDiet();
+        if (!updateAnimalDiet(ecosystemName, animalName, newDiet)) {
+            uiService.displayMessage(SPECIES_NOT_FOUND + ": " + animalName);
+        }
+    }
+
+    @Override
+    public boolean updateAnimalDiet(String ecosystemName, String animalName, String newDiet) {
         // Обновляем диету животного в экосистеме через репозиторий
-        speciesRepository.updateAnimalDiet(ecosystemName, animalName, newDiet);
+        return speciesRepository.updateAnimalDiet(ecosystemName, animalName, newDiet);
     }
 
     @Override
@@ -67,8 +88,15 @@ public class ActionHandlerServiceImpl implements ActionHandlerService {
         boolean isPlant = uiService.askIsPlant();
         // Запрашиваем имя вида для удаления
         String speciesName = uiService.askForSpeciesName(isPlant);
-        // Удаляем вид из экосистемы через репозиторий
-        speciesRepository.deleteSpecies(ecosystemName, speciesName, isPlant);
+        if (!deleteSpecies(ecosystemName, speciesName, isPlant)) {
+            uiService.displayMessage(SPECIES_NOT_FOUND + ": " + speciesName);
+        }
+    }
+
+    @Override
+    public boolean deleteSpecies(String ecosystemName, String speciesName, boolean isPlant) {
+        // Удаляем вид из экосистемы через репозиторий; проверка наличия и удаление выполняются атомарно
+        return speciesRepository.deleteSpeciesIfPresent(ecosystemName, speciesName, isPlant);
     }
 
     @Override
@@ -77,15 +105,30 @@ public class ActionHandlerServiceImpl implements ActionHandlerService {
         interactionService.handleInteraction(ecosystemName);
     }
 
+    @Override
+    public InteractionResult handleInteraction(String ecosystemName, String predatorName, String preyName) {
+        return interactionService.handleInteraction(ecosystemName, predatorName, preyName);
+    }
+
     @Override
     public void displayPopulationPredictions(String ecosystemName) {
-        // Получаем текущие условия экосистемы
-        Conditions conditions = simulationService.getCurrentConditions(ecosystemName);
-        // Получаем прогноз изменений популяции на основе условий
-        Map<String, String> predictions = predictionService.predictPopulationChanges(conditions);
+        Map<String, String> predictions = getPopulationPredictions(ecosystemName);
         // Отображаем предсказания для каждого вида
         predictions.forEach((species, prediction) -> {
             uiService.displayMessage(species + " " + POPULATION + ": " + prediction);
         });
     }
+
+    @Override
+    public Map<String, String> getPopulationPredictions(String ecosystemName) {
+        // Получаем текущие условия экосистемы
+        Conditions conditions = simulationService.getCurrentConditions(ecosystemName);
+        // Получаем прогноз изменений популяции на основе условий
+        return predictionService.predictPopulationChanges(conditions);
+    }
+
+    @Override
+    public List<Species> listSpecies(String ecosystemName) {
+        return speciesRepository.findAllSpecies(ecosystemName);
+    }
 }
@@ -0,0 +1,93 @@
+package ecosystem.service.impl;
+
+import ecosystem.model.ClimateHistory;
+import ecosystem.model.ClimateModel;
+import ecosystem.model.Conditions;
+import ecosystem.model.SeasonalClimateModel;
+import ecosystem.repository.SimulationRepository;
+import ecosystem.repository.impl.SimulationRepositoryImpl;
+import ecosystem.service.ClimateService;
+import ecosystem.util.Config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Класс ClimateServiceImpl ведет историю условий каждой экосистемы в памяти. Условия меняются
+// по модели климата (по умолчанию — из свойств climate.*) или по внешним показаниям;
+// сохраненные условия экосистемы служат исходной точкой модели и не перезаписываются.
+public class ClimateServiceImpl implements ClimateService {
+    private static ClimateServiceImpl instance;
+
+    private final SimulationRepository simulationRepository = SimulationRepositoryImpl.getInstance();
+    private final Map<String, ClimateHistory> histories = new ConcurrentHashMap<>();
+    private final Map<String, ClimateModel> models = new ConcurrentHashMap<>();
+    // Емкость колец истории: по ней считаются скользящие статистики
+    private final int historySize = (int) Config.getLongProperty("climate.history.size", 365);
+    private final ClimateModel defaultModel = createDefaultModel();
+
+    private ClimateServiceImpl() {
+    }
+
+    public static synchronized ClimateServiceImpl getInstance() {
+        if (instance == null) {
+            instance = new ClimateServiceImpl();
+        }
+        return instance;
+    }
+
+    // climate.model=seasonal включает сезонные колебания и дрейф, иначе условия постоянны
+    private static ClimateModel createDefaultModel() {
+        if (!"seasonal".equals(Config.getProperty("climate.model"))) {
+            return ClimateModel.STATIC;
+        }
+        return new SeasonalClimateModel(
+                Config.getLongProperty("climate.season.ticks", 365),
+                Config.getDoubleProperty("climate.temperature.amplitude", 10.0),
+                Config.getDoubleProperty("climate.humidity.amplitude", 15.0),
+                Config.getDoubleProperty("climate.water.amplitude", 20.0),
+                Config.getDoubleProperty("climate.temperature.drift", 0.0),
+                Config.getDoubleProperty("climate.humidity.drift", 0.0),
+                Config.getDoubleProperty("climate.water.drift", 0.0));
+    }
+
+    // Исходные условия берутся из репозитория при каждом обращении (разбор файла кэшируется там
+    // до его изменения), поэтому правка файла условий доходит до модели климата
+    @Override
+    public ClimateHistory getHistory(String ecosystemName) {
+        Conditions base = simulationRepository.readEcosystemConditions(ecosystemName);
+        ClimateHistory history = histories.computeIfAbsent(ecosystemName, name -> new ClimateHistory(base, historySize));
+        history.setBase(base);
+        return history;
+    }
+
+    @Override
+    public void recordReading(String ecosystemName, double temperature, double humidity, double waterAmount) {
+        getHistory(ecosystemName).record(temperature, humidity, waterAmount);
+    }
+
+    // Буфер на три значения выделяется один раз на вызов, а не на тик
+    @Override
+    public Conditions advance(String ecosystemName, long ticks) {
+        ClimateHistory history = getHistory(ecosystemName);
+        ClimateModel model = getModel(ecosystemName);
+        double[] reading = new double[3];
+        // Монитор истории удерживается на весь прогон, чтобы параллельные вызовы не перемешали тики
+        synchronized (history) {
+            for (long i = 0; i < ticks; i++) {
+                model.conditionsAt(history.getTick(), history.getBase(), reading);
+                history.record(reading[0], reading[1], reading[2]);
+            }
+            return history.current();
+        }
+    }
+
+    @Override
+    public ClimateModel getModel(String ecosystemName) {
+        return models.getOrDefault(ecosystemName, defaultModel);
+    }
+
+    @Override
+    public void setModel(String ecosystemName, ClimateModel model) {
+        models.put(ecosystemName, model);
+    }
+}
@@ -0,0 +1,84 @@
+package ecosystem.service.impl;
+
+import ecosystem.model.FoodWeb;
+import ecosystem.model.SpeciesKind;
+import ecosystem.repository.SpeciesRepository;
+import ecosystem.repository.impl.IndexedSpeciesRepositoryImpl;
+import ecosystem.repository.impl.SymbolTables;
+import ecosystem.service.FoodWebService;
+import ecosystem.util.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// Класс FoodWebServiceImpl отвечает на вопросы о пищевой сети экосистемы: кто кого может съесть,
+// трофические уровни и длины пищевых цепей. Сеть поддерживается индексом видов инкрементально,
+// сервис работает с ее снимком и переводит id видов в имена через таблицу символов.
+public class FoodWebServiceImpl implements FoodWebService {
+    private static FoodWebServiceImpl instance;
+
+    private final SpeciesRepository speciesRepository = IndexedSpeciesRepositoryImpl.getInstance();
+
+    private FoodWebServiceImpl() {
+    }
+
+    public static synchronized FoodWebServiceImpl getInstance() {
+        if (instance == null) {
+            instance = new FoodWebServiceImpl();
+        }
+        return instance;
+    }
+
+    @Override
+    public FoodWeb getFoodWeb(String ecosystemName) {
+        return speciesRepository.findFoodWeb(ecosystemName);
+    }
+
+    // Одиночная проверка не копирует сеть: ребро определяется типами двух видов
+    @Override
+    public boolean canEat(String ecosystemName, String predatorName, String preyName) {
+        SpeciesKind predatorKind = speciesRepository.classifySpecies(ecosystemName,
+                speciesRepository.findSpeciesId(ecosystemName, predatorName));
+        SpeciesKind preyKind = speciesRepository.classifySpecies(ecosystemName,
+                speciesRepository.findSpeciesId(ecosystemName, preyName));
+        return predatorKind.canEat(preyKind);
+    }
+
+    @Override
+    public List<String> findPrey(String ecosystemName, String speciesName, int limit) {
+        int id = speciesRepository.findSpeciesId(ecosystemName, speciesName);
+        return names(ecosystemName, getFoodWeb(ecosystemName).preyOf(id), limit);
+    }
+
+    @Override
+    public List<String> findPredators(String ecosystemName, String speciesName, int limit) {
+        int id = speciesRepository.findSpeciesId(ecosystemName, speciesName);
+        return names(ecosystemName, getFoodWeb(ecosystemName).predatorsOf(id), limit);
+    }
+
+    @Override
+    public double trophicLevel(String ecosystemName, String speciesName) {
+        return getFoodWeb(ecosystemName).trophicLevel(speciesRepository.findSpeciesId(ecosystemName, speciesName));
+    }
+
+    @Override
+    public int foodChainLength(String ecosystemName, String speciesName) {
+        return getFoodWeb(ecosystemName).foodChainLength(speciesRepository.findSpeciesId(ecosystemName, speciesName));
+    }
+
+    @Override
+    public int longestFoodChain(String ecosystemName) {
+        return getFoodWeb(ecosystemName).longestFoodChain();
+    }
+
+    // Имена первых limit видов множества в порядке id (порядке регистрации в экосистеме)
+    private List<String> names(String ecosystemName, BitSet ids, int limit) {
+        SymbolTable symbols = SymbolTables.forEcosystem(ecosystemName);
+        List<String> names = new ArrayList<>(Math.min(limit, ids.cardinality()));
+        for (int id = ids.nextSetBit(0); id >= 0 && names.size() < limit; id = ids.nextSetBit(id + 1)) {
+            names.add(symbols.name(id));
+        }
+        return names;
+    }
+}
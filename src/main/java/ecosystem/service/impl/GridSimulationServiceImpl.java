@@ -0,0 +1,322 @@
+package ecosystem.service.impl;
+
+import ecosystem.model.Conditions;
+import ecosystem.model.GridWorld;
+import ecosystem.model.Species;
+import ecosystem.model.SpeciesKind;
+import ecosystem.repository.SpeciesRepository;
+import ecosystem.repository.impl.IndexedSpeciesRepositoryImpl;
+import ecosystem.service.GridSimulationService;
+import ecosystem.util.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Класс GridSimulationServiceImpl выполняет агентную симуляцию на сетке: особи растений
+// и животных экосистемы растут, перемещаются, размножаются и поедают соседей по таблице диет.
+// Шаг состоит из четырех фаз, каждая выполняется параллельно по прямоугольным плиткам сетки:
+//   1. намерение — каждая особь по текущему состоянию выбирает действие и соседнюю клетку;
+//   2. нападение — клетка отмечается, если на нее нацелился хищник (атакованная особь не действует);
+//   3. разрешение — каждая клетка выбирает одного претендента среди соседей с наибольшим
+//      приоритетом hash(seed, шаг, клетка претендента), при равенстве — с меньшим номером клетки;
+//   4. применение — каждая клетка вычисляет свое следующее состояние.
+// В каждой фазе клетка пишет только в собственные элементы массивов и читает соседей из массивов
+// предыдущей фазы, поэтому конфликты на границах плиток разрешаются одинаково при любом
+// разбиении и числе потоков, а результат определяется только seed.
+public class GridSimulationServiceImpl implements GridSimulationService {
+    private static GridSimulationServiceImpl instance;
+
+    private static final SpeciesKind[] KINDS = SpeciesKind.values();
+    private static final byte NONE = 0;
+    private static final byte MOVE = 1;
+    private static final byte EAT = 2;
+    private static final byte SPAWN = 3;
+    // Соль генератора приоритетов, чтобы он не совпадал с генератором выбора действий
+    private static final long PRIORITY_SALT = 0x5DEECE66DL;
+
+    // Энергия особей: растения копят ее от среды, животные тратят на обмен веществ и получают от добычи
+    private static final float PLANT_GROWTH = 0.1f;
+    private static final float PLANT_MAX_ENERGY = 2.0f;
+    private static final float PLANT_SPAWN_ENERGY = 1.0f;
+    private static final float ANIMAL_METABOLISM = 0.05f;
+    private static final float ANIMAL_SPAWN_ENERGY = 2.0f;
+    private static final float FOOD_CONVERSION = 0.8f;
+
+    private final SpeciesRepository speciesRepository = IndexedSpeciesRepositoryImpl.getInstance();
+    private final PopulationDynamicsServiceImpl populationDynamics = PopulationDynamicsServiceImpl.getInstance();
+    private final ForkJoinPool pool;
+    private final int tileSize;
+
+    private GridSimulationServiceImpl() {
+        this((int) Config.getLongProperty("grid.tile.size", 256), Runtime.getRuntime().availableProcessors());
+    }
+
+    // Экземпляр с заданными размером плитки и числом потоков, чтобы сравнивать разбиения в тестах
+    GridSimulationServiceImpl(int tileSize, int parallelism) {
+        this.tileSize = tileSize;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public static synchronized GridSimulationServiceImpl getInstance() {
+        if (instance == null) {
+            instance = new GridSimulationServiceImpl();
+        }
+        return instance;
+    }
+
+    // Заселяет сетку видами экосистемы: клетка занята с вероятностью density, вид выбирается
+    // равновероятно из всех видов; выбор зависит только от seed и номера клетки
+    @Override
+    public GridWorld createWorld(String ecosystemName, int width, int height, double density, long seed) {
+        GridWorld world = new GridWorld(width, height, seed);
+        List<Species> species = new ArrayList<>();
+        for (Species s : speciesRepository.findAllSpecies(ecosystemName)) {
+            if (SpeciesKind.of(s) != SpeciesKind.UNKNOWN) {
+                species.add(s);
+            }
+        }
+        if (species.isEmpty()) {
+            return world;
+        }
+        for (int cell = 0; cell < world.getCells(); cell++) {
+            long hash = mix(seed, -1, cell);
+            if ((hash >>> 11) * 0x1.0p-53 < density) {
+                Species s = species.get((int) Long.remainderUnsigned(hash >>> 7, species.size()));
+                float energy = 0.5f + (hash & 0x7F) / 128f;
+                world.place(cell, SpeciesKind.of(s), s.getId(), energy);
+            }
+        }
+        return world;
+    }
+
+    @Override
+    public void step(GridWorld world, Conditions conditions, int steps) {
+        double[] modifiers = populationDynamics.conditionModifiers(conditions);
+        float plantGrowth = (float) (PLANT_GROWTH * modifiers[SpeciesKind.PLANT.ordinal()]);
+        // При неблагоприятных условиях животным нужно больше энергии на поддержание жизни
+        float animalMetabolism = (float) (ANIMAL_METABOLISM / modifiers[SpeciesKind.HERBIVORE.ordinal()]);
+        for (int i = 0; i < steps; i++) {
+            forEachTile(world, this::chooseIntents);
+            forEachTile(world, this::markAttacked);
+            forEachTile(world, this::chooseWinners);
+            forEachTile(world, (w, x0, y0, x1, y1) -> apply(w, x0, y0, x1, y1, plantGrowth, animalMetabolism));
+            world.swapBuffers();
+        }
+    }
+
+    // Фаза выполняется над прямоугольником клеток [x0, x1) x [y0, y1)
+    @FunctionalInterface
+    private interface TilePhase {
+        void run(GridWorld world, int x0, int y0, int x1, int y1);
+    }
+
+    // Запускает фазу для всех плиток и дожидается их завершения перед следующей фазой
+    private void forEachTile(GridWorld world, TilePhase phase) {
+        int width = world.getWidth();
+        int height = world.getHeight();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int y0 = 0; y0 < height; y0 += tileSize) {
+            for (int x0 = 0; x0 < width; x0 += tileSize) {
+                int tileX = x0;
+                int tileY = y0;
+                tasks.add(pool.submit(() -> phase.run(world, tileX, tileY,
+                        Math.min(tileX + tileSize, width), Math.min(tileY + tileSize, height))));
+            }
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    // Фаза 1: хищник выбирает съедобного соседа, иначе особь с запасом энергии размножается
+    // в пустую соседнюю клетку, иначе животное с вероятностью 3/4 перемещается в пустую клетку.
+    // Соседи перебираются с направления, заданного хешем клетки
+    private void chooseIntents(GridWorld world, int x0, int y0, int x1, int y1) {
+        int width = world.getWidth();
+        int height = world.getHeight();
+        long seed = world.getSeed();
+        long step = world.getStep();
+        byte[] kinds = world.getKinds();
+        float[] energy = world.getEnergy();
+        int[] intents = world.getIntents();
+        byte[] actions = world.getActions();
+
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                int cell = y * width + x;
+                intents[cell] = -1;
+                actions[cell] = NONE;
+                if (kinds[cell] == 0) {
+                    continue;
+                }
+                SpeciesKind kind = KINDS[kinds[cell] - 1];
+                long hash = mix(seed, step, cell);
+                int start = (int) (hash & 3);
+
+                if (kind.isAnimal()) {
+                    for (int d = 0; d < 4; d++) {
+                        int neighbor = neighbor(x, y, (start + d) & 3, width, height);
+                        if (kinds[neighbor] != 0 && kind.canEat(KINDS[kinds[neighbor] - 1])) {
+                            intents[cell] = neighbor;
+                            actions[cell] = EAT;
+                            break;
+                        }
+                    }
+                    if (actions[cell] == EAT) {
+                        continue;
+                    }
+                }
+
+                boolean spawn = energy[cell] >= (kind.isAnimal() ? ANIMAL_SPAWN_ENERGY : PLANT_SPAWN_ENERGY);
+                boolean move = !spawn && kind.isAnimal() && ((hash >>> 2) & 3) != 0;
+                if (spawn || move) {
+                    for (int d = 0; d < 4; d++) {
+                        int neighbor = neighbor(x, y, (start + d) & 3, width, height);
+                        if (kinds[neighbor] == 0) {
+                            intents[cell] = neighbor;
+                            actions[cell] = spawn ? SPAWN : MOVE;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Фаза 2: клетка атакована, если хотя бы один сосед собирается ее съесть
+    private void markAttacked(GridWorld world, int x0, int y0, int x1, int y1) {
+        int width = world.getWidth();
+        int height = world.getHeight();
+        int[] intents = world.getIntents();
+        byte[] actions = world.getActions();
+        boolean[] attacked = world.getAttacked();
+
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                int cell = y * width + x;
+                boolean underAttack = false;
+                for (int d = 0; d < 4 && !underAttack; d++) {
+                    int neighbor = neighbor(x, y, d, width, height);
+                    underAttack = actions[neighbor] == EAT && intents[neighbor] == cell;
+                }
+                attacked[cell] = underAttack;
+            }
+        }
+    }
+
+    // Фаза 3: из соседей, нацелившихся на клетку и не атакованных, клетка принимает одного
+    private void chooseWinners(GridWorld world, int x0, int y0, int x1, int y1) {
+        int width = world.getWidth();
+        int height = world.getHeight();
+        long seed = world.getSeed() ^ PRIORITY_SALT;
+        long step = world.getStep();
+        int[] intents = world.getIntents();
+        byte[] actions = world.getActions();
+        boolean[] attacked = world.getAttacked();
+        int[] winners = world.getWinners();
+
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                int cell = y * width + x;
+                int winner = -1;
+                long best = 0;
+                for (int d = 0; d < 4; d++) {
+                    int neighbor = neighbor(x, y, d, width, height);
+                    if (intents[neighbor] != cell || actions[neighbor] == NONE || attacked[neighbor]) {
+                        continue;
+                    }
+                    long priority = mix(seed, step, neighbor);
+                    if (winner < 0 || priority > best || (priority == best && neighbor < winner)) {
+                        winner = neighbor;
+                        best = priority;
+                    }
+                }
+                winners[cell] = winner;
+            }
+        }
+    }
+
+    // Фаза 4: в клетку приходит принятый претендент (или потомок размножившейся особи);
+    // особь, успешно ушедшая или съевшая соседа, освобождает клетку; остальные остаются.
+    // Энергия обновляется, особь с исчерпанной энергией погибает
+    private void apply(GridWorld world, int x0, int y0, int x1, int y1, float plantGrowth, float animalMetabolism) {
+        int width = world.getWidth();
+        byte[] kinds = world.getKinds();
+        int[] species = world.getSpecies();
+        float[] energy = world.getEnergy();
+        int[] intents = world.getIntents();
+        byte[] actions = world.getActions();
+        boolean[] attacked = world.getAttacked();
+        int[] winners = world.getWinners();
+        byte[] nextKinds = world.getNextKinds();
+        int[] nextSpecies = world.getNextSpecies();
+        float[] nextEnergy = world.getNextEnergy();
+
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                int cell = y * width + x;
+                int source = -1;
+                float e = 0;
+                int winner = winners[cell];
+                if (winner >= 0) {
+                    source = winner;
+                    e = energy[winner];
+                    if (actions[winner] == SPAWN) {
+                        e /= 2;
+                    } else if (actions[winner] == EAT) {
+                        e += energy[cell] * FOOD_CONVERSION;
+                    }
+                } else if (kinds[cell] != 0) {
+                    byte action = actions[cell];
+                    boolean acted = action != NONE && !attacked[cell] && winners[intents[cell]] == cell;
+                    if (!acted || action == SPAWN) {
+                        source = cell;
+                        e = acted ? energy[cell] / 2 : energy[cell];
+                    }
+                }
+
+                if (source < 0) {
+                    nextKinds[cell] = 0;
+                    continue;
+                }
+                byte kind = kinds[source];
+                if (kind == SpeciesKind.PLANT.ordinal() + 1) {
+                    e = Math.min(PLANT_MAX_ENERGY, e + plantGrowth);
+                } else {
+                    e -= animalMetabolism;
+                }
+                if (e <= 0) {
+                    nextKinds[cell] = 0;
+                    continue;
+                }
+                nextKinds[cell] = kind;
+                nextSpecies[cell] = species[source];
+                nextEnergy[cell] = e;
+            }
+        }
+    }
+
+    // Сосед клетки (x, y) на торе: 0 — вверх, 1 — вправо, 2 — вниз, 3 — влево
+    private static int neighbor(int x, int y, int direction, int width, int height) {
+        switch (direction) {
+            case 0:
+                return (y == 0 ? height - 1 : y - 1) * width + x;
+            case 1:
+                return y * width + (x == width - 1 ? 0 : x + 1);
+            case 2:
+                return (y == height - 1 ? 0 : y + 1) * width + x;
+            default:
+                return y * width + (x == 0 ? width - 1 : x - 1);
+        }
+    }
+
+    // Детерминированный хеш (финализатор SplitMix64) от seed, шага и номера клетки
+    private static long mix(long seed, long step, int cell) {
+        long z = seed + step * 0x9E3779B97F4A7C15L + cell * 0xD1B54A32D192ED03L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,9 +1,23 @@
 package ecosystem.service.impl;
 
+import ecosystem.model.BatchResult;
+import ecosystem.model.InteractionPair;
+import ecosystem.model.InteractionResult;
+import ecosystem.model.SpeciesCount;
+import ecosystem.model.SpeciesKind;
+import ecosystem.repository.InteractionLogRepository;
 import ecosystem.repository.SpeciesRepository;
-import ecosystem.repository.impl.SpeciesRepositoryImpl;
+import ecosystem.repository.impl.IndexedSpeciesRepositoryImpl;
+import ecosystem.repository.impl.InteractionLogRepositoryImpl;
 import ecosystem.service.InteractionService;
 import ecosystem.service.UIService;
+import ecosystem.util.Metrics;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 import static ecosystem.util.Messages.*;
 
@@ -11,10 +25,19 @@ import static ecosystem.util.Messages.*;
 public class InteractionServiceImpl implements InteractionService {
     // Singleton instance для обеспечения единственного экземпляра репозитория симуляции
     private static InteractionServiceImpl instance;
+    // Сколько применённых взаимодействий накапливается перед одной групповой записью в репозиторий
+    private static final int BATCH_CHUNK_SIZE = 8192;
+    // Сколько отклоненных пар сохраняется в итоге пакета для диагностики
+    private static final int REJECTED_SAMPLE_SIZE = 100;
 
     // Инициализируем сервисы для взаимодействия с пользователем и репозиторием видов
     private final UIService uiService = UIServiceImpl.getInstance();
-    private final SpeciesRepository speciesRepository = SpeciesRepositoryImpl.getInstance(); // Репозиторий для работы с видами
+    private final SpeciesRepository speciesRepository = IndexedSpeciesRepositoryImpl.getInstance(); // Репозиторий для работы с видами
+    private final InteractionLogRepository interactionLogRepository = InteractionLogRepositoryImpl.getInstance(); // Бинарный журнал взаимодействий
+    // Счетчики примененных и отклоненных взаимодействий; скорость в секунду считает Metrics
+    private final Metrics metrics = Metrics.getInstance();
+    private final LongAdder appliedCounter = metrics.counter("interactions.applied");
+    private final LongAdder rejectedCounter = metrics.counter("interactions.rejected");
 
     private InteractionServiceImpl() {
     }
@@ -32,70 +55,160 @@ public class InteractionServiceImpl implements InteractionService {
         // Запрашиваем у пользователя имя хищника и жертвы
         String predatorName = uiService.askForPredator();
         String preyName = uiService.askForPrey();
+        handleInteraction(ecosystemName, predatorName, preyName);
+    }
 
-        // Проверяем, может ли травоядное съесть растение
-        if (canHerbivoreEatPlant(ecosystemName, predatorName, preyName)) {
-            performHerbivoreEatsPlant(ecosystemName, predatorName, preyName);
-            // Проверяем, может ли хищник съесть травоядное
-        } else if (canCarnivoreEatHerbivore(ecosystemName, predatorName, preyName)) {
-            performCarnivoreEatsHerbivore(ecosystemName, predatorName, preyName);
-        } else if (canOmnivoreEat(ecosystemName, predatorName, preyName)) {
-            performOmnivoreEats(ecosystemName, predatorName, preyName);
-        } else {
-            // Если взаимодействие невозможно, отображаем сообщение
-            uiService.displayMessage(INTERACTION_IS_NOT_POSSIBLE + ": " + predatorName + " " + CANT_EAT + " " + preyName);
+    // Выполняет взаимодействие без участия пользователя и возвращает результат проверки
+    @Override
+    public InteractionResult handleInteraction(String ecosystemName, String predatorName, String preyName) {
+        // Классифицируем обоих участников и проверяем допустимость по таблице диет
+        InteractionResult result = resolveInteraction(ecosystemName, predatorName, preyName);
+        if (result.isAllowed()) {
+            // Жертва удаляется атомарно с проверкой ее наличия: если ее уже съел параллельный вызов,
+            // взаимодействие не записывается и отклоняется, как с неизвестной жертвой
+            if (speciesRepository.deleteSpeciesIfPresent(ecosystemName, preyName, result.isPreyPlant())) {
+                appliedCounter.increment();
+                performInteraction(ecosystemName, result);
+                return result;
+            }
+            result = InteractionResult.of(result.getPredatorId(), predatorName, result.getPreyId(), preyName,
+                    result.getPredatorKind(), SpeciesKind.UNKNOWN);
         }
+        rejectedCounter.increment();
+        // Если взаимодействие невозможно, отображаем сообщение
+        uiService.displayMessage(INTERACTION_IS_NOT_POSSIBLE + ": " + predatorName + " " + CANT_EAT + " " + preyName);
+        return result;
     }
 
-    // Метод для проверки, может ли травоядное съесть растение
-    private boolean canHerbivoreEatPlant(String ecosystemName, String predator, String prey) {
-        // Проверяем, является ли предатор травоядным и жертва растением
-        return speciesRepository.checkIfHerbivore(ecosystemName, predator) && speciesRepository.checkIfPlant(ecosystemName, prey);
+    // Переводит имена хищника и жертвы в id и определяет их типы по id
+    @Override
+    public InteractionResult resolveInteraction(String ecosystemName, String predatorName, String preyName) {
+        int predatorId = speciesRepository.findSpeciesId(ecosystemName, predatorName);
+        SpeciesKind predatorKind = speciesRepository.classifySpecies(ecosystemName, predatorId);
+        // Если хищник не может есть ничего, жертву можно не искать
+        int preyId = predatorKind.isAnimal() ? speciesRepository.findSpeciesId(ecosystemName, preyName) : -1;
+        SpeciesKind preyKind = speciesRepository.classifySpecies(ecosystemName, preyId);
+        return InteractionResult.of(predatorId, predatorName, preyId, preyName, predatorKind, preyKind);
     }
 
-    // Метод для проверки, может ли хищник съесть травоядное
-    private boolean canCarnivoreEatHerbivore(String ecosystemName, String predator, String prey) {
-        // Проверяем, является ли предатор хищником и жертва травоядным
-        return speciesRepository.checkIfCarnivore(ecosystemName, predator) && speciesRepository.checkIfHerbivore(ecosystemName, prey);
+    // Пакетная обработка без участия пользователя: один проход по данным, проверка по таблице диет,
+    // групповая запись в репозиторий и итоговая сводка по примененным и отклоненным парам
+    @Override
+    public BatchResult applyBatch(String ecosystemName, Iterable<InteractionPair> pairs) {
+        long start = System.nanoTime();
+        long applied = 0;
+        long rejectedUnknown = 0;
+        long rejectedNotAllowed = 0;
+        List<InteractionResult> rejectedSample = new ArrayList<>();
+        List<InteractionResult> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+        // Id видов, съеденных в этом пакете: репозиторий видит их удаление только после групповой записи
+        BitSet eaten = new BitSet();
+        // Журнал открывается до первой групповой записи в текстовый файл взаимодействий
+        interactionLogRepository.open(ecosystemName);
+
+        for (InteractionPair pair : pairs) {
+            int predatorId = speciesRepository.findSpeciesId(ecosystemName, pair.getPredator());
+            SpeciesKind predatorKind = predatorId < 0 || eaten.get(predatorId)
+                    ? SpeciesKind.UNKNOWN
+                    : speciesRepository.classifySpecies(ecosystemName, predatorId);
+            int preyId = predatorKind.isAnimal() ? speciesRepository.findSpeciesId(ecosystemName, pair.getPrey()) : -1;
+            SpeciesKind preyKind = preyId < 0 || eaten.get(preyId)
+                    ? SpeciesKind.UNKNOWN
+                    : speciesRepository.classifySpecies(ecosystemName, preyId);
+            InteractionResult result = InteractionResult.of(predatorId, pair.getPredator(), preyId, pair.getPrey(),
+                    predatorKind, preyKind);
+
+            if (result.isAllowed()) {
+                eaten.set(preyId);
+                chunk.add(result);
+                if (chunk.size() == BATCH_CHUNK_SIZE) {
+                    applied += applyChunk(ecosystemName, chunk);
+                    chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+                }
+            } else {
+                if (predatorKind == SpeciesKind.UNKNOWN || (predatorKind.isAnimal() && preyKind == SpeciesKind.UNKNOWN)) {
+                    rejectedUnknown++;
+                } else {
+                    rejectedNotAllowed++;
+                }
+                if (rejectedSample.size() < REJECTED_SAMPLE_SIZE) {
+                    rejectedSample.add(result);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            applied += applyChunk(ecosystemName, chunk);
+        }
+        // Пары, жертв которых между проверкой и применением съел параллельный вызов
+        rejectedUnknown += eaten.cardinality() - applied;
+        // Счетчики пакета обновляются одним сложением, а не на каждой паре
+        appliedCounter.add(applied);
+        rejectedCounter.add(rejectedUnknown + rejectedNotAllowed);
+        metrics.recordLatency("interactions.applyBatch", start);
+        return new BatchResult(applied, rejectedUnknown, rejectedNotAllowed, System.nanoTime() - start, rejectedSample);
     }
 
-    // Метод для проверки, может ли всеядное съесть жертву (растение или животное)
-    private boolean canOmnivoreEat(String ecosystemName, String predator, String prey) {
-        // Проверяем, является ли предатор всеядным и жертва растением или животным
-        return speciesRepository.checkIfOmnivore(ecosystemName, predator) &&
-                (speciesRepository.checkIfPlant(ecosystemName, prey) || speciesRepository.checkIfHerbivore(ecosystemName, prey) || speciesRepository.checkIfCarnivore(ecosystemName, prey));
+    // Применяет часть пакета и записывает в журнал только примененные взаимодействия
+    private int applyChunk(String ecosystemName, List<InteractionResult> chunk) {
+        List<InteractionResult> applied = speciesRepository.applyInteractions(ecosystemName, chunk);
+        for (InteractionResult result : applied) {
+            interactionLogRepository.append(ecosystemName, result);
+        }
+        return applied.size();
     }
 
-    // Метод, выполняющий действие "травоядное ест растение"
-    private void performHerbivoreEatsPlant(String ecosystemName, String predator, String prey) {
-        // Удаляем растение из экосистемы
-        speciesRepository.deleteSpecies(ecosystemName, prey, true);
-        // Отображаем сообщение об успешном взаимодействии
-        uiService.displayMessage(HERBIVORE + " " + predator + " " + ATE_A_PLANT + " " + prey);
-        // Регистрируем взаимодействие в репозитории
-        speciesRepository.recordInteraction(predator + " " + ATE + " " + prey, ecosystemName);
+    @Override
+    public long exportHistory(String ecosystemName, Path target) {
+        return metrics.time("interactions.exportHistory", () -> interactionLogRepository.exportColumnar(ecosystemName, target));
     }
 
-    // Метод, выполняющий действие "хищник ест травоядное"
-    private void performCarnivoreEatsHerbivore(String ecosystemName, String predator, String prey) {
-        // Удаляем травоядное из экосистемы
-        speciesRepository.deleteSpecies(ecosystemName, prey, false);
-        // Отображаем сообщение об успешном взаимодействии
-        uiService.displayMessage(PREDATOR + " " + predator + " " + ATE_A_HERBIVORE + " " + prey);
-        // Регистрируем взаимодействие в репозитории
-        speciesRepository.recordInteraction(predator + " " + ATE + " " + prey, ecosystemName);
+    // Ответы берутся из агрегатов журнала, которые обновляются при записи каждого взаимодействия
+    @Override
+    public long countInteractions(String ecosystemName, String predatorName, String preyName) {
+        return interactionLogRepository.countInteractions(ecosystemName, predatorName, preyName);
+    }
+
+    @Override
+    public long countAsPredator(String ecosystemName, String speciesName) {
+        return interactionLogRepository.countAsPredator(ecosystemName, speciesName);
     }
 
-    // Метод для выполнения действия "всеядное ест растение или животное"
-    private void performOmnivoreEats(String ecosystemName, String predator, String prey) {
-        // Удаляем жертву из экосистемы
-        boolean isPlant = speciesRepository.checkIfPlant(ecosystemName, prey);
-        speciesRepository.deleteSpecies(ecosystemName, prey, isPlant);
+    @Override
+    public long countAsPrey(String ecosystemName, String speciesName) {
+        return interactionLogRepository.countAsPrey(ecosystemName, speciesName);
+    }
 
-        // Отображаем сообщение об успешном взаимодействии
-        uiService.displayMessage(OMNIVORE + " " + predator + " " + ATE + " " + prey);
+    @Override
+    public List<SpeciesCount> topPredators(String ecosystemName, int limit) {
+        return interactionLogRepository.topPredators(ecosystemName, limit);
+    }
 
-        // Регистрируем взаимодействие в репозитории
+    @Override
+    public List<SpeciesCount> mostEatenSpecies(String ecosystemName, int limit) {
+        return interactionLogRepository.topPrey(ecosystemName, limit);
+    }
+
+    // Сообщает и записывает взаимодействие, жертва которого уже удалена из экосистемы
+    private void performInteraction(String ecosystemName, InteractionResult result) {
+        String predator = result.getPredator();
+        String prey = result.getPrey();
+
+        // Отображаем сообщение об успешном взаимодействии
+        uiService.displayMessage(describeInteraction(result));
+        // Регистрируем взаимодействие в бинарном журнале и в текстовом файле взаимодействий
+        interactionLogRepository.append(ecosystemName, result);
         speciesRepository.recordInteraction(predator + " " + ATE + " " + prey, ecosystemName);
     }
+
+    // Формирует сообщение о взаимодействии в зависимости от типа хищника
+    private String describeInteraction(InteractionResult result) {
+        switch (result.getPredatorKind()) {
+            case HERBIVORE:
+                return HERBIVORE + " " + result.getPredator() + " " + ATE_A_PLANT + " " + result.getPrey();
+            case CARNIVORE:
+                return PREDATOR + " " + result.getPredator() + " " + ATE_A_HERBIVORE + " " + result.getPrey();
+            default:
+                return OMNIVORE + " " + result.getPredator() + " " + ATE + " " + result.getPrey();
+        }
+    }
 }
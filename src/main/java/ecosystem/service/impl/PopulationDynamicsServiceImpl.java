@@ -0,0 +1,163 @@
+package ecosystem.service.impl;
+
+import ecosystem.model.Conditions;
+import ecosystem.model.PopulationChange;
+import ecosystem.model.PopulationState;
+import ecosystem.model.Species;
+import ecosystem.model.SpeciesKind;
+import ecosystem.repository.SpeciesRepository;
+import ecosystem.repository.impl.IndexedSpeciesRepositoryImpl;
+import ecosystem.service.PopulationDynamicsService;
+import ecosystem.service.PredictionService;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Класс PopulationDynamicsServiceImpl продвигает популяции экосистемы дискретными тиками
+public class PopulationDynamicsServiceImpl implements PopulationDynamicsService {
+    private static PopulationDynamicsServiceImpl instance;
+
+    private static final SpeciesKind[] KINDS = SpeciesKind.values();
+    // Начальная численность, рождаемость и смертность по типам видов
+    private static final Map<SpeciesKind, Rates> RATES = new EnumMap<>(Map.of(
+            SpeciesKind.PLANT, new Rates(1000, 0.08, 0.02),
+            SpeciesKind.HERBIVORE, new Rates(100, 0.07, 0.02),
+            SpeciesKind.CARNIVORE, new Rates(20, 0.05, 0.02),
+            SpeciesKind.OMNIVORE, new Rates(30, 0.05, 0.02),
+            SpeciesKind.UNKNOWN, new Rates(0, 0, 0)));
+    // Множители рождаемости по прогнозу изменения популяции; для STABLE — 1
+    private static final Map<PopulationChange, Double> MODIFIERS = new EnumMap<>(Map.of(
+            PopulationChange.SIGNIFICANT_DECREASE, 0.25,
+            PopulationChange.DECREASE, 0.6,
+            PopulationChange.STABLE, 1.0,
+            PopulationChange.INCREASE, 1.4));
+    // Емкость среды на один вид растений при среднем количестве воды
+    private static final double PLANT_CAPACITY_PER_SPECIES = 2000;
+    // Сколько особей животных может прокормить одна единица пищи
+    private static final double FOOD_CONVERSION = 0.1;
+    // Максимальная доля популяции, теряемая за тик из-за хищников
+    private static final double PREDATION_RATE = 0.02;
+
+    private final SpeciesRepository speciesRepository = IndexedSpeciesRepositoryImpl.getInstance();
+    private final PredictionService predictionService = PredictionServiceImpl.getInstance();
+
+    private PopulationDynamicsServiceImpl() {
+    }
+
+    public static synchronized PopulationDynamicsServiceImpl getInstance() {
+        if (instance == null) {
+            instance = new PopulationDynamicsServiceImpl();
+        }
+        return instance;
+    }
+
+    // Создает состояние популяций по видам экосистемы со значениями по умолчанию для их типов
+    @Override
+    public PopulationState createState(String ecosystemName) {
+        List<Species> species = speciesRepository.findAllSpecies(ecosystemName);
+        PopulationState state = new PopulationState(species.size());
+        for (Species s : species) {
+            SpeciesKind kind = SpeciesKind.of(s);
+            Rates rates = RATES.get(kind);
+            state.add(s.getId(), kind, rates.initialPopulation, rates.birthRate, rates.deathRate);
+        }
+        return state;
+    }
+
+    // Продвигает популяции на заданное количество тиков. Все вспомогательные массивы
+    // выделяются один раз на вызов, сам тик — плотный цикл по примитивным столбцам.
+    @Override
+    public void advance(PopulationState state, Conditions conditions, long ticks) {
+        int size = state.getSize();
+        byte[] kinds = state.getKinds();
+        double[] population = state.getPopulation();
+        double[] birthRate = state.getBirthRate();
+        double[] deathRate = state.getDeathRate();
+
+        double[] modifiers = conditionModifiers(conditions);
+        double plantCapacity = plantCapacity(state, conditions);
+        double[] totals = new double[KINDS.length];
+        double[] growth = new double[KINDS.length];
+        double[] predation = new double[KINDS.length];
+
+        for (long tick = 0; tick < ticks; tick++) {
+            // Суммарная численность по типам
+            for (int k = 0; k < totals.length; k++) {
+                totals[k] = 0;
+            }
+            for (int i = 0; i < size; i++) {
+                totals[kinds[i]] += population[i];
+            }
+            // Коэффициенты роста и потерь от хищников для каждого типа
+            for (int k = 0; k < KINDS.length; k++) {
+                double food = 0;
+                double pressure = 0;
+                for (int m = 0; m < KINDS.length; m++) {
+                    if (KINDS[k].canEat(KINDS[m])) {
+                        food += totals[m];
+                    }
+                    if (KINDS[m].canEat(KINDS[k])) {
+                        pressure += totals[m];
+                    }
+                }
+                // Растения ограничены емкостью среды, животные — количеством доступной пищи;
+                // при нехватке пищи коэффициент становится отрицательным
+                double capacity = KINDS[k] == SpeciesKind.PLANT ? plantCapacity : FOOD_CONVERSION * food + 1;
+                double availability = 1 - totals[k] / capacity;
+                growth[k] = availability * modifiers[k];
+                predation[k] = PREDATION_RATE * pressure / (pressure + totals[k] + 1);
+            }
+            // Обновление популяций без ветвлений по типу вида
+            for (int i = 0; i < size; i++) {
+                int k = kinds[i];
+                double next = population[i] * (1 + birthRate[i] * growth[k] - deathRate[i] - predation[k]);
+                population[i] = Math.max(0, next);
+            }
+        }
+        state.advanceTick(ticks);
+    }
+
+    // Переводит прогноз по текущим условиям в множители рождаемости для каждого типа;
+    // используется также агентной симуляцией на сетке. Прогноз берется кодами PopulationChange,
+    // а не подписями, поэтому не зависит от их текста
+    double[] conditionModifiers(Conditions conditions) {
+        byte[] plantsChange = new byte[1];
+        byte[] animalsChange = new byte[1];
+        predictionService.predictBatch(new double[]{conditions.getTemperature()}, new double[]{conditions.getHumidity()},
+                new double[]{conditions.getWaterAmount()}, plantsChange, animalsChange);
+        double plants = MODIFIERS.get(PopulationChange.fromCode(plantsChange[0]));
+        double animals = MODIFIERS.get(PopulationChange.fromCode(animalsChange[0]));
+        double[] modifiers = new double[KINDS.length];
+        modifiers[SpeciesKind.PLANT.ordinal()] = plants;
+        modifiers[SpeciesKind.HERBIVORE.ordinal()] = animals;
+        modifiers[SpeciesKind.CARNIVORE.ordinal()] = animals;
+        modifiers[SpeciesKind.OMNIVORE.ordinal()] = animals;
+        return modifiers;
+    }
+
+    // Емкость среды для растений растет с количеством доступной воды
+    private double plantCapacity(PopulationState state, Conditions conditions) {
+        int plantSpecies = 0;
+        for (int i = 0; i < state.getSize(); i++) {
+            if (state.getKinds()[i] == SpeciesKind.PLANT.ordinal()) {
+                plantSpecies++;
+            }
+        }
+        double waterFactor = 0.5 + Math.max(0, conditions.getWaterAmount()) / 100;
+        return Math.max(1, plantSpecies * PLANT_CAPACITY_PER_SPECIES * waterFactor);
+    }
+
+    // Параметры популяции вида одного типа
+    private static final class Rates {
+        private final double initialPopulation;
+        private final double birthRate;
+        private final double deathRate;
+
+        Rates(double initialPopulation, double birthRate, double deathRate) {
+            this.initialPopulation = initialPopulation;
+            this.birthRate = birthRate;
+            this.deathRate = deathRate;
+        }
+    }
+}
@@ -1,16 +1,65 @@
 package ecosystem.service.impl;
 
+import ecosystem.model.ClimateHistory;
 import ecosystem.model.Conditions;
+import ecosystem.model.PopulationChange;
+import ecosystem.model.PredictionRules;
+import ecosystem.model.RuleTable;
+import ecosystem.model.RuleVerification;
 import ecosystem.service.PredictionService;
+import ecosystem.service.UIService;
+import ecosystem.util.Config;
+import ecosystem.util.LatencyHistogram;
+import ecosystem.util.Metrics;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
-// Класс PredictionServiceImpl реализует интерфейс PredictionService
+import static ecosystem.util.Messages.*;
+
+// Класс PredictionServiceImpl реализует интерфейс PredictionService. Прогноз строится по правилам
+// из файла prediction.rules.file (формат описан в PredictionRules), скомпилированным в таблицу
+// RuleTable: вычисление прогноза — номер ячейки таблицы и чтение одного байта.
 public class PredictionServiceImpl implements PredictionService {
     private static PredictionServiceImpl instance;
 
+    // Число вызовов прогноза, строк пакетных прогнозов и задержки вызовов
+    private final Metrics metrics = Metrics.getInstance();
+    private final LongAdder batchRows = metrics.counter("predictions.batchRows");
+    private final LatencyHistogram predictTimer = metrics.timer("predictions.predict");
+    private final LatencyHistogram batchTimer = metrics.timer("predictions.predictBatch");
+
+    private final UIService uiService = UIServiceImpl.getInstance();
+    // Файл правил в директории данных (prediction.rules.file) и время его последнего изменения при загрузке
+    private final Path rulesFile = Config.getProperty("prediction.rules.file") == null
+            ? null : Paths.get(Config.getDirectory(), Config.getProperty("prediction.rules.file"));
+    private FileTime rulesModified;
+    // Таблица действующих правил вместе с самими правилами; заменяется одной записью при перезагрузке
+    private volatile RuleTable table = RuleTable.compile(PredictionRules.defaults());
+
     private PredictionServiceImpl() {
+        reloadRules();
+        // Изменения файла правил подхватываются без перезапуска
+        long reloadMillis = Config.getLongProperty("prediction.rules.reload.ms", 2000);
+        if (rulesFile != null && reloadMillis > 0) {
+            ScheduledExecutorService watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "prediction-rules-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            watcher.scheduleWithFixedDelay(this::reloadIfModified, reloadMillis, reloadMillis, TimeUnit.MILLISECONDS);
+        }
     }
 
     public static synchronized PredictionServiceImpl getInstance() {
@@ -22,47 +71,91 @@ public class PredictionServiceImpl implements PredictionService {
 
     @Override
     public Map<String, String> predictPopulationChanges(Conditions conditions) {
+        long start = System.nanoTime();
         Map<String, String> predictions = new HashMap<>();
 
-        predictions.put("Plants", predictPlantsChange(conditions));
-        predictions.put("Animals", predictAnimalsChange(conditions));
+        RuleTable rules = table;
+        double temperature = conditions.getTemperature();
+        double humidity = conditions.getHumidity();
+        double waterAmount = conditions.getWaterAmount();
+        predictions.put("Plants", PopulationChange.fromCode(
+                rules.lookup(PredictionRules.PLANTS, temperature, humidity, waterAmount)).getLabel());
+        predictions.put("Animals", PopulationChange.fromCode(
+                rules.lookup(PredictionRules.ANIMALS, temperature, humidity, waterAmount)).getLabel());
 
+        predictTimer.record(System.nanoTime() - start);
         return predictions;
     }
 
-    private String predictPlantsChange(Conditions conditions) {
-        double temperature = conditions.getTemperature();
-        double humidity = conditions.getHumidity();
-        double waterAmount = conditions.getWaterAmount();
+    // Статистики окна уже поддерживаются историей, поэтому прогноз по окну стоит столько же,
+    // сколько прогноз по одной тройке условий
+    @Override
+    public Map<String, String> predictFromRollingMean(ClimateHistory history) {
+        return predictPopulationChanges(history.mean());
+    }
 
-        if (temperature > 35 && humidity < 30) {
-            return "Significant Decrease"; // Экстремальные условия приводят к значительному снижению
-        } else if (temperature > 30 && waterAmount < 20) {
-            return "Decrease"; // Высокая температура и недостаток воды снижают популяцию
-        } else if (temperature < 10 || humidity < 15) {
-            return "Stable"; // Холод и сухость стабилизируют популяцию
-        } else if (temperature > 15 && temperature <= 25 && humidity >= 50) {
-            return "Increase"; // Благоприятные условия для роста растений
-        } else {
-            return "Stable"; // Условия незначительно влияют на популяцию
+    // Жара, сухость и нехватка воды ухудшают прогноз и для растений, и для животных,
+    // поэтому худший случай — максимум температуры при минимумах влажности и воды
+    @Override
+    public Map<String, String> predictFromExtremes(ClimateHistory history) {
+        return predictPopulationChanges(history.worstCase());
+    }
+
+    // Пакетный прогноз по массивам условий: коды PopulationChange записываются в переданные массивы.
+    // Таблица берется один раз на пакет, поэтому перезагрузка правил посреди пакета его не затрагивает;
+    // цикл не выделяет память, а результат совпадает с predictPopulationChanges.
+    @Override
+    public void predictBatch(double[] temperature, double[] humidity, double[] waterAmount, byte[] plantsOut, byte[] animalsOut) {
+        int n = temperature.length;
+        if (humidity.length != n || waterAmount.length != n || plantsOut.length != n || animalsOut.length != n) {
+            throw new IllegalArgumentException(ARRAYS_LENGTH_MISMATCH);
         }
+        long start = System.nanoTime();
+        table.lookup(temperature, humidity, waterAmount, plantsOut, animalsOut, n);
+        batchRows.add(n);
+        batchTimer.record(System.nanoTime() - start);
     }
 
-    private String predictAnimalsChange(Conditions conditions) {
-        double temperature = conditions.getTemperature();
-        double humidity = conditions.getHumidity();
-        double waterAmount = conditions.getWaterAmount();
+    // Перечитывает файл правил, компилирует их и сверяет таблицу с правилами. Новые правила
+    // заменяют действующие одной записью volatile-поля только при успешной сверке; при ошибке
+    // продолжают действовать прежние. Без файла действуют правила по умолчанию
+    @Override
+    public synchronized boolean reloadRules() {
+        try {
+            boolean fromFile = rulesFile != null && Files.exists(rulesFile);
+            // Время изменения запоминается до разбора: ошибочный файл не перечитывается, пока его не исправят
+            rulesModified = fromFile ? Files.getLastModifiedTime(rulesFile) : null;
+            PredictionRules parsed = fromFile
+                    ? PredictionRules.parse(Files.readAllLines(rulesFile, StandardCharsets.UTF_8))
+                    : PredictionRules.defaults();
+            RuleTable compiled = RuleTable.compile(parsed);
+            RuleVerification verification = compiled.verify(parsed);
+            if (!verification.isValid()) {
+                uiService.displayMessage(RULES_TABLE_MISMATCH + ": " + verification.getFirstMismatch());
+                return false;
+            }
+            table = compiled;
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            uiService.displayMessage(ERROR_READING_RULES + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public RuleVerification verifyRules() {
+        return table.verify();
+    }
 
-        if (temperature > 35 && waterAmount < 30) {
-            return "Significant Decrease"; // Очень жарко и недостаток воды — значительное снижение
-        } else if (temperature > 30 && humidity < 40) {
-            return "Decrease"; // Высокая температура и низкая влажность уменьшают популяцию животных
-        } else if (temperature < 10 && waterAmount > 40) {
-            return "Stable"; // Низкая температура и достаточная вода — стабильная популяция
-        } else if (temperature >= 20 && temperature <= 30 && humidity > 60 && waterAmount > 50) {
-            return "Increase"; // Идеальные условия для увеличения популяции животных
-        } else {
-            return "Stable"; // Условия незначительно влияют на популяцию
+    // Перезагружает правила, если файл изменился с прошлой загрузки
+    private synchronized void reloadIfModified() {
+        try {
+            FileTime modified = Files.exists(rulesFile) ? Files.getLastModifiedTime(rulesFile) : null;
+            if (!Objects.equals(modified, rulesModified) && reloadRules()) {
+                uiService.displayMessage(RULES_RELOADED + ": " + table.getRules().size());
+            }
+        } catch (IOException e) {
+            uiService.displayMessage(ERROR_READING_RULES + ": " + e.getMessage());
         }
     }
 }
@@ -0,0 +1,117 @@
+package ecosystem.service.impl;
+
+import ecosystem.model.Conditions;
+import ecosystem.model.PopulationChange;
+import ecosystem.model.SweepResult;
+import ecosystem.repository.SimulationRepository;
+import ecosystem.repository.impl.SimulationRepositoryImpl;
+import ecosystem.service.PredictionService;
+import ecosystem.service.ScenarioSweepService;
+import ecosystem.util.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Класс ScenarioSweepServiceImpl оценивает долю исходов прогноза по множеству случайно
+// возмущенных условий вокруг сохраненных. Выборка делится на блоки фиксированного размера,
+// каждый блок получает свой поток случайных чисел, поэтому результат при одном seed
+// не зависит от количества потоков.
+public class ScenarioSweepServiceImpl implements ScenarioSweepService {
+    private static ScenarioSweepServiceImpl instance;
+    // Размер блока выборки; от него (а не от числа потоков) зависит разбиение случайных потоков
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int OUTCOMES = PopulationChange.values().length;
+
+    private final SimulationRepository simulationRepository = SimulationRepositoryImpl.getInstance();
+    private final PredictionService predictionService = PredictionServiceImpl.getInstance();
+    private final ForkJoinPool pool;
+
+    // Стандартные отклонения возмущений для каждого параметра
+    private final double temperatureStdDev = Config.getDoubleProperty("sweep.temperature.stddev", 5.0);
+    private final double humidityStdDev = Config.getDoubleProperty("sweep.humidity.stddev", 10.0);
+    private final double waterStdDev = Config.getDoubleProperty("sweep.water.stddev", 10.0);
+
+    private ScenarioSweepServiceImpl() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    // Экземпляр с заданным числом потоков, чтобы сравнивать результаты в тестах
+    ScenarioSweepServiceImpl(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public static synchronized ScenarioSweepServiceImpl getInstance() {
+        if (instance == null) {
+            instance = new ScenarioSweepServiceImpl();
+        }
+        return instance;
+    }
+
+    @Override
+    public SweepResult sweep(String ecosystemName, long samples, long seed) {
+        return sweep(simulationRepository.readEcosystemConditions(ecosystemName), samples, seed);
+    }
+
+    @Override
+    public SweepResult sweep(Conditions baseConditions, long samples, long seed) {
+        long start = System.nanoTime();
+        // Генераторы блоков создаются последовательно из корневого, до распределения по потокам
+        SplittableRandom root = new SplittableRandom(seed);
+        List<ForkJoinTask<long[]>> tasks = new ArrayList<>();
+        for (long offset = 0; offset < samples; offset += CHUNK_SIZE) {
+            SplittableRandom random = root.split();
+            int size = (int) Math.min(CHUNK_SIZE, samples - offset);
+            tasks.add(pool.submit(() -> evaluateChunk(baseConditions, random, size)));
+        }
+
+        // Суммы целочисленных гистограмм не зависят от порядка завершения блоков
+        long[] plants = new long[OUTCOMES];
+        long[] animals = new long[OUTCOMES];
+        for (ForkJoinTask<long[]> task : tasks) {
+            long[] histogram = task.join();
+            for (int i = 0; i < OUTCOMES; i++) {
+                plants[i] += histogram[i];
+                animals[i] += histogram[OUTCOMES + i];
+            }
+        }
+        return new SweepResult(baseConditions, samples, seed, plants, animals, System.nanoTime() - start);
+    }
+
+    // Генерирует блок возмущенных условий, прогоняет пакетный прогноз и возвращает
+    // гистограмму: первые OUTCOMES элементов — растения, следующие — животные
+    private long[] evaluateChunk(Conditions base, SplittableRandom random, int size) {
+        double[] temperature = new double[size];
+        double[] humidity = new double[size];
+        double[] water = new double[size];
+        for (int i = 0; i < size; i++) {
+            temperature[i] = base.getTemperature() + gaussian(random) * temperatureStdDev;
+            humidity[i] = clamp(base.getHumidity() + gaussian(random) * humidityStdDev, 0, 100);
+            water[i] = Math.max(0, base.getWaterAmount() + gaussian(random) * waterStdDev);
+        }
+
+        byte[] plants = new byte[size];
+        byte[] animals = new byte[size];
+        predictionService.predictBatch(temperature, humidity, water, plants, animals);
+
+        long[] histogram = new long[OUTCOMES * 2];
+        for (int i = 0; i < size; i++) {
+            histogram[plants[i]]++;
+            histogram[OUTCOMES + animals[i]]++;
+        }
+        return histogram;
+    }
+
+    // Нормальное распределение по методу Бокса — Мюллера (SplittableRandom не имеет nextGaussian в Java 17)
+    private static double gaussian(SplittableRandom random) {
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
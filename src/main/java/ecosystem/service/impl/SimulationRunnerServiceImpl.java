@@ -0,0 +1,105 @@
+package ecosystem.service.impl;
+
+import ecosystem.model.ClimateModel;
+import ecosystem.model.Conditions;
+import ecosystem.model.EcosystemReport;
+import ecosystem.model.PopulationState;
+import ecosystem.model.SpeciesKind;
+import ecosystem.repository.SimulationRepository;
+import ecosystem.repository.SpeciesRepository;
+import ecosystem.repository.impl.IndexedSpeciesRepositoryImpl;
+import ecosystem.repository.impl.SimulationRepositoryImpl;
+import ecosystem.service.ClimateService;
+import ecosystem.service.PopulationDynamicsService;
+import ecosystem.service.PredictionService;
+import ecosystem.service.SimulationRunnerService;
+import ecosystem.util.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Класс SimulationRunnerServiceImpl прогоняет прогноз и симуляцию по всем экосистемам параллельно
+public class SimulationRunnerServiceImpl implements SimulationRunnerService {
+    private static SimulationRunnerServiceImpl instance;
+
+    private final SimulationRepository simulationRepository = SimulationRepositoryImpl.getInstance();
+    private final SpeciesRepository speciesRepository = IndexedSpeciesRepositoryImpl.getInstance();
+    private final PredictionService predictionService = PredictionServiceImpl.getInstance();
+    private final PopulationDynamicsService populationDynamicsService = PopulationDynamicsServiceImpl.getInstance();
+    private final ClimateService climateService = ClimateServiceImpl.getInstance();
+    // Через сколько тиков симуляции пересчитываются условия, если они меняются по модели климата
+    private final long climateStepTicks = Math.max(1, Config.getLongProperty("climate.step.ticks", 10));
+    // Пул по числу ядер: экосистемы независимы, поэтому каждая обрабатывается отдельной задачей
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private SimulationRunnerServiceImpl() {
+    }
+
+    public static synchronized SimulationRunnerServiceImpl getInstance() {
+        if (instance == null) {
+            instance = new SimulationRunnerServiceImpl();
+        }
+        return instance;
+    }
+
+    // Находит все экосистемы и обрабатывает их параллельно, сохраняя порядок в отчете.
+    // Ошибка одной экосистемы попадает в ее отчет и не прерывает остальные; индекс видов
+    // экосистемы освобождается после ее обработки, чтобы прогон не держал в памяти все индексы
+    @Override
+    public List<EcosystemReport> runAll(long ticks) {
+        List<String> ecosystemNames = simulationRepository.listEcosystems();
+        List<ForkJoinTask<EcosystemReport>> tasks = new ArrayList<>();
+        for (String ecosystemName : ecosystemNames) {
+            tasks.add(pool.submit(() -> {
+                try {
+                    return run(ecosystemName, ticks);
+                } finally {
+                    speciesRepository.release(ecosystemName);
+                }
+            }));
+        }
+        List<EcosystemReport> reports = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                reports.add(tasks.get(i).join());
+            } catch (RuntimeException e) {
+                // join бросает копию исключения задачи, исходное исключение — ее причина
+                Throwable error = e.getCause() != null ? e.getCause() : e;
+                reports.add(EcosystemReport.failed(ecosystemNames.get(i), String.valueOf(error.getMessage())));
+            }
+        }
+        return reports;
+    }
+
+    // Прогноз по текущим условиям и симуляция популяций одной экосистемы. Если условия экосистемы
+    // меняются по модели климата, симуляция идет отрезками по climate.step.ticks тиков с условиями
+    // на конец отрезка, а отчет содержит условия и прогноз на последний тик
+    @Override
+    public EcosystemReport run(String ecosystemName, long ticks) {
+        long start = System.nanoTime();
+        PopulationState state = populationDynamicsService.createState(ecosystemName);
+        Conditions conditions;
+        if (climateService.getModel(ecosystemName) == ClimateModel.STATIC) {
+            conditions = simulationRepository.readEcosystemConditions(ecosystemName);
+            populationDynamicsService.advance(state, conditions, ticks);
+        } else {
+            conditions = climateService.getHistory(ecosystemName).current();
+            for (long done = 0; done < ticks; done += climateStepTicks) {
+                long step = Math.min(climateStepTicks, ticks - done);
+                conditions = climateService.advance(ecosystemName, step);
+                populationDynamicsService.advance(state, conditions, step);
+            }
+        }
+        Map<String, String> predictions = predictionService.predictPopulationChanges(conditions);
+
+        double[] populationByKind = new double[SpeciesKind.values().length];
+        for (SpeciesKind kind : SpeciesKind.values()) {
+            populationByKind[kind.ordinal()] = state.totalPopulation(kind);
+        }
+        return new EcosystemReport(ecosystemName, conditions, predictions, state.getSize(), populationByKind,
+                System.nanoTime() - start, null);
+    }
+}
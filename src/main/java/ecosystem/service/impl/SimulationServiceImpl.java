@@ -1,11 +1,24 @@
 package ecosystem.service.impl;
 
 import ecosystem.model.Conditions;
+import ecosystem.model.EcosystemCheckpoint;
+import ecosystem.model.GridWorld;
+import ecosystem.model.Species;
 import ecosystem.repository.SimulationRepository;
+import ecosystem.repository.SpeciesRepository;
+import ecosystem.repository.impl.IndexedSpeciesRepositoryImpl;
 import ecosystem.repository.impl.SimulationRepositoryImpl;
 import ecosystem.service.SimulationService;
 import ecosystem.service.UIService;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import static ecosystem.util.Messages.*;
 
 // Класс SimulationServiceImpl реализует интерфейс SimulationService
@@ -15,7 +28,14 @@ public class SimulationServiceImpl implements SimulationService {
 
     // Репозиторий для работы с данными симуляции и пользовательский интерфейс
     private final SimulationRepository simulationRepository = SimulationRepositoryImpl.getInstance();
+    private final SpeciesRepository speciesRepository = IndexedSpeciesRepositoryImpl.getInstance();
     private final UIService uiService = UIServiceImpl.getInstance();
+    // Один фоновый поток записи снимков: следующий снимок ждет окончания предыдущего
+    private final ExecutorService checkpointWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "checkpoint-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private SimulationServiceImpl() {
     }
@@ -45,27 +65,84 @@ public class SimulationServiceImpl implements SimulationService {
             return null; // Возвращаем null, если экосистема уже есть
         }
 
-        simulationRepository.createNewSimulation(ecosystemName); // Создаем новую симуляцию с заданным именем
-
         // Запрашиваем у пользователя параметры экосистемы
         Conditions conditions = new Conditions(
                 uiService.askForTemperature(), // Запрашиваем температуру
                 uiService.askForHumidity(),    // Запрашиваем влажность
                 uiService.askForAvailableWater() // Запрашиваем доступное количество воды
         );
+        return createEcosystem(ecosystemName, conditions);
+    }
+
+    // Метод для создания новой экосистемы с заданными условиями без участия пользователя
+    @Override
+    public String createEcosystem(String ecosystemName, Conditions conditions) {
+        // Проверка существования и создание выполняются одной операцией репозитория,
+        // поэтому параллельные запросы не перезапишут условия друг друга
+        if (!simulationRepository.createNewSimulation(ecosystemName)) {
+            uiService.displayMessage(THIS_ECOSYSTEM_ALREADY_EXISTS);
+            return null;
+        }
 
         simulationRepository.saveEcosystemParameters(ecosystemName, conditions); // Сохраняем параметры экосистемы в репозитории
         uiService.displayMessage(ECOSYSTEM_CREATE); // Уведомляем пользователя о создании экосистемы
         return ecosystemName; // Возвращаем имя созданной экосистемы
     }
 
-    // Метод для загрузки существующей экосистемы
+    @Override
+    public boolean ecosystemExists(String ecosystemName) {
+        return simulationRepository.ecosystemExists(ecosystemName);
+    }
+
+    @Override
+    public List<String> listEcosystems() {
+        return simulationRepository.listEcosystems();
+    }
+
+    // Метод для получения страницы видов экосистемы: читается только нужная часть файлов.
+    // Отложенные изменения индекса видов сначала сбрасываются, чтобы страница их учитывала
+    @Override
+    public List<Species> findSpecies(String ecosystemName, Predicate<? super Species> filter, long offset, long limit) {
+        speciesRepository.flush(ecosystemName);
+        try (Stream<Species> species = simulationRepository.streamSpecies(ecosystemName, filter, offset, limit)) {
+            return species.collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public long countSpecies(String ecosystemName, Predicate<? super Species> filter) {
+        speciesRepository.flush(ecosystemName);
+        return simulationRepository.countSpecies(ecosystemName, filter);
+    }
+
+    // Метод для загрузки существующей экосистемы; отложенные изменения индекса видов
+    // сначала сбрасываются, чтобы загрузка их учитывала
     @Override
     public String loadEcosystem() {
         String ecosystemName = uiService.askForEcosystemName(false); // Запрашиваем имя экосистемы у пользователя
+        speciesRepository.flush(ecosystemName);
         simulationRepository.loadSimulation(ecosystemName); // Загружаем симуляцию из репозитория
         uiService.displayMessage(ECOSYSTEM_LOADED); // Уведомляем пользователя о загрузке экосистемы
         return ecosystemName; // Возвращаем имя загруженной экосистемы
     }
 
+
+    // Отложенные изменения индекса видов сбрасываются, чтобы снимок их учитывал
+    @Override
+    public void saveCheckpoint(String ecosystemName, GridWorld world) {
+        speciesRepository.flush(ecosystemName);
+        simulationRepository.saveCheckpoint(ecosystemName, world);
+    }
+
+    // На вызывающем потоке копируются только массивы состояния сетки; чтение видов и запись файла идут в фоне
+    @Override
+    public CompletableFuture<Void> saveCheckpointAsync(String ecosystemName, GridWorld world) {
+        GridWorld snapshot = world != null ? world.snapshot() : null;
+        return CompletableFuture.runAsync(() -> saveCheckpoint(ecosystemName, snapshot), checkpointWriter);
+    }
+
+    @Override
+    public EcosystemCheckpoint restoreCheckpoint(String ecosystemName) {
+        return simulationRepository.loadCheckpoint(ecosystemName);
+    }
 }
@@ -0,0 +1,144 @@
+package ecosystem.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+// Разбивает поток команд на строки и слова без регулярных выражений и без Scanner.
+// Символы читаются блоками в один буфер, слова текущей строки хранятся как смещения
+// в буфере строки; String создается только для запрошенного слова.
+// Пустые строки и строки, начинающиеся с '#', пропускаются.
+public class CommandTokenizer {
+    private static final int MAX_TOKENS = 16;
+
+    private final Reader reader;
+    private final char[] input = new char[1 << 16];
+    private int inputPosition;
+    private int inputLength;
+
+    // Текущая строка и границы ее слов
+    private char[] line = new char[256];
+    private int lineLength;
+    private final int[] tokenStart = new int[MAX_TOKENS];
+    private final int[] tokenEnd = new int[MAX_TOKENS];
+    private int tokenCount;
+    private long lineNumber;
+
+    public CommandTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Переходит к следующей непустой строке; возвращает число слов или -1 в конце потока
+    public int next() throws IOException {
+        while (readLine()) {
+            tokenize();
+            if (tokenCount > 0 && line[tokenStart[0]] != '#') {
+                return tokenCount;
+            }
+        }
+        return -1;
+    }
+
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public String token(int index) {
+        if (index >= tokenCount) {
+            return null;
+        }
+        return new String(line, tokenStart[index], tokenEnd[index] - tokenStart[index]);
+    }
+
+    // Сравнение слова со строкой без создания String
+    public boolean tokenEquals(int index, String expected) {
+        if (index >= tokenCount || tokenEnd[index] - tokenStart[index] != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (line[tokenStart[index] + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Читает символы до конца строки (\n, \r\n или \r) в буфер строки
+    private boolean readLine() throws IOException {
+        lineLength = 0;
+        boolean readAny = false;
+        while (true) {
+            if (inputPosition == inputLength) {
+                inputLength = reader.read(input, 0, input.length);
+                inputPosition = 0;
+                if (inputLength <= 0) {
+                    inputLength = 0;
+                    if (readAny) {
+                        lineNumber++;
+                    }
+                    return readAny;
+                }
+            }
+            readAny = true;
+            char c = input[inputPosition++];
+            if (c == '\n') {
+                lineNumber++;
+                return true;
+            }
+            if (c == '\r') {
+                // \r\n считается одним переводом строки
+                if (inputPosition == inputLength) {
+                    inputLength = reader.read(input, 0, input.length);
+                    inputPosition = 0;
+                    inputLength = Math.max(inputLength, 0);
+                }
+                if (inputPosition < inputLength && input[inputPosition] == '\n') {
+                    inputPosition++;
+                }
+                lineNumber++;
+                return true;
+            }
+            if (lineLength == line.length) {
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[lineLength++] = c;
+        }
+    }
+
+    // Делит строку на слова по пробелам и табуляциям; лишние слова сверх MAX_TOKENS
+    // присоединяются к последнему
+    private void tokenize() {
+        tokenCount = 0;
+        int i = 0;
+        while (i < lineLength) {
+            while (i < lineLength && isSpace(line[i])) {
+                i++;
+            }
+            if (i == lineLength) {
+                break;
+            }
+            int start = i;
+            if (tokenCount == MAX_TOKENS - 1) {
+                i = lineLength;
+                while (i > start && isSpace(line[i - 1])) {
+                    i--;
+                }
+            } else {
+                while (i < lineLength && !isSpace(line[i])) {
+                    i++;
+                }
+            }
+            tokenStart[tokenCount] = start;
+            tokenEnd[tokenCount] = i;
+            tokenCount++;
+        }
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+}
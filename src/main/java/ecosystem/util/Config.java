@@ -28,9 +28,10 @@ public class Config {
         }
     }
 
-    // Метод для получения значения свойства по его ключу
+    // Метод для получения значения свойства по его ключу; системное свойство JVM с тем же
+    // ключом (-Dkey=value) имеет приоритет над application.properties
     public static String getProperty(String key) {
-        return properties.getProperty(key);
+        return System.getProperty(key, properties.getProperty(key));
     }
 
     // Метод для получения пути к директории из свойств
@@ -44,4 +45,16 @@ public class Config {
         // Возвращаем путь к директории
         return directory;
     }
+
+    // Метод для получения целочисленного свойства со значением по умолчанию
+    public static long getLongProperty(String key, long defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    // Метод для получения дробного свойства со значением по умолчанию
+    public static double getDoubleProperty(String key, double defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
 }
@@ -0,0 +1,128 @@
+package ecosystem.util;
+
+import java.io.PrintStream;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Буферизованный вывод в консоль для UIService. Строки накапливаются в большом буфере
+// и пишутся в System.out пачками: фоновым потоком (console.async=true) или вызывающим
+// потоком при заполнении буфера. Перед запросом ввода вызывается flush, чтобы подсказка
+// и все предыдущие сообщения были на экране.
+public class ConsoleSink {
+    private static ConsoleSink instance;
+
+    private final boolean async = Boolean.parseBoolean(Config.getProperty("console.async"));
+    private final int bufferSize = (int) Config.getLongProperty("console.buffer.size", 1 << 16);
+    private final long flushMillis = Config.getLongProperty("console.flush.ms", 20);
+
+    // Защищает буфер; запись в поток выполняется вне этого монитора
+    private final Object lock = new Object();
+    // Сохраняет порядок пачек: берется под монитором буфера и отпускается после записи
+    private final ReentrantLock outputLock = new ReentrantLock();
+    private StringBuilder buffer = new StringBuilder();
+
+    private ConsoleSink() {
+        if (async) {
+            Thread writer = new Thread(this::writeLoop, "console-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+        // Несброшенный вывод печатается при завершении программы
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "console-flush-on-exit"));
+    }
+
+    public static synchronized ConsoleSink getInstance() {
+        if (instance == null) {
+            instance = new ConsoleSink();
+        }
+        return instance;
+    }
+
+    public void println(String line) {
+        print(line + System.lineSeparator());
+    }
+
+    public void print(String text) {
+        String batch = null;
+        synchronized (lock) {
+            if (async) {
+                // Если фоновый поток не успевает, производитель ждет, чтобы память не росла без ограничений
+                while (buffer.length() >= bufferSize * 2) {
+                    lock.notifyAll();
+                    waitQuietly(flushMillis);
+                }
+                // Будим фоновый поток при появлении первых данных и при заполнении буфера
+                boolean wasEmpty = buffer.length() == 0;
+                buffer.append(text);
+                if (wasEmpty || buffer.length() >= bufferSize) {
+                    lock.notifyAll();
+                }
+            } else {
+                buffer.append(text);
+                if (buffer.length() >= bufferSize) {
+                    batch = take();
+                }
+            }
+        }
+        if (batch != null) {
+            write(batch);
+        }
+    }
+
+    // Немедленно выводит все накопленное; вызывается перед чтением ввода
+    public void flush() {
+        String batch;
+        synchronized (lock) {
+            batch = take();
+        }
+        write(batch);
+    }
+
+    // Фоновый поток: пишет буфер при заполнении или не реже раза в console.flush.ms
+    private void writeLoop() {
+        while (true) {
+            String batch;
+            synchronized (lock) {
+                while (buffer.length() == 0) {
+                    waitQuietly(0);
+                }
+                if (buffer.length() < bufferSize) {
+                    // Даем пачке накопиться, но не дольше интервала сброса
+                    waitQuietly(flushMillis);
+                }
+                batch = take();
+                lock.notifyAll();
+            }
+            write(batch);
+        }
+    }
+
+    // Забирает содержимое буфера и захватывает outputLock (вызывается под монитором буфера),
+    // чтобы пачки выводились в том порядке, в котором были забраны
+    private String take() {
+        String batch = buffer.toString();
+        buffer = new StringBuilder(Math.min(bufferSize, batch.length() * 2 + 16));
+        outputLock.lock();
+        return batch;
+    }
+
+    private void write(String batch) {
+        try {
+            if (!batch.isEmpty()) {
+                // System.out берется при каждой записи, чтобы учитывать его подмену (System.setOut)
+                PrintStream out = System.out;
+                out.print(batch);
+                out.flush();
+            }
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
+    private void waitQuietly(long millis) {
+        try {
+            lock.wait(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
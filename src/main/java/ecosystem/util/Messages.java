@@ -71,5 +71,46 @@ public class Messages {
     public static final String RESOURCE_DIRECTORY_IS_NOT_SET = "Resource directory property is not set in application.properties";
     public static final String OMNIVORE = "Omnivore";
     public static final String PREDICTION = "Prediction";
+    public static final String SIMULATION_REPORT = "Simulation report";
+    public static final String ECOSYSTEMS_PROCESSED = "ecosystems processed in";
+    public static final String ECOSYSTEM_FAILED = "Ecosystem failed";
+    public static final String SPECIES_COUNT = "species";
+    public static final String ERROR_WATCHING_FILES = "Error watching ecosystem files";
+    public static final String SCENARIO_SWEEP = "Scenario sweep";
+    public static final String SAMPLES = "samples";
+    public static final String GRID_SIMULATION = "Grid simulation";
+    public static final String STEP = "Step";
+    public static final String STEPS = "steps";
+    public static final String STEPS_PER_SECOND = "steps/s";
+    public static final String SEED = "seed";
+    public static final String ARRAYS_LENGTH_MISMATCH = "Input and output arrays must have the same length";
+    public static final String ERROR_WRITING_SPECIES_FILES = "Error writing species files";
+    public static final String ERROR_COMPACTING_SPECIES_FILE = "Error compacting species file";
+    public static final String SERVER_STARTED = "Server started on";
+    public static final String ERROR_STARTING_SERVER = "Error starting server";
+    public static final String ECOSYSTEM_NOT_FOUND = "Ecosystem not found";
+    public static final String SPECIES_NOT_FOUND = "Species not found";
+    public static final String INVALID_PARAMETER = "Missing or invalid parameter";
+    public static final String UNKNOWN_ENDPOINT = "Unknown endpoint";
+    public static final String METHOD_NOT_ALLOWED = "Method not allowed";
+    public static final String INTERNAL_SERVER_ERROR = "Internal server error";
+    public static final String SCRIPT_ERROR_AT_LINE = "Script error at line";
+    public static final String UNKNOWN_COMMAND = "Unknown command";
+    public static final String WRONG_NUMBER_OF_ARGUMENTS = "Wrong number of arguments";
+    public static final String NO_ECOSYSTEM_SELECTED = "No ecosystem selected. Use create or load first";
+    public static final String ERROR_WRITING_CHECKPOINT = "Error writing checkpoint";
+    public static final String ERROR_READING_CHECKPOINT = "Error reading checkpoint";
+    public static final String NO_GRID_CHECKPOINT = "No grid checkpoint for ecosystem";
+    public static final String CHECKPOINT_RESTORED = "Checkpoint restored";
+    public static final String ERROR_EXPORTING_INTERACTIONS = "Error exporting interactions";
+    public static final String INTERACTIONS_EXPORTED = "Interactions exported";
+    public static final String ERROR_WRITING_AGGREGATES = "Error writing interaction aggregates";
+    public static final String ERROR_READING_RULES = "Error reading prediction rules";
+    public static final String RULES_TABLE_MISMATCH = "Compiled prediction table differs from the rules";
+    public static final String RULES_RELOADED = "Prediction rules reloaded";
+    public static final String RULES_VERIFIED = "Prediction rules verified";
+    public static final String COMMANDS_EXECUTED = "commands executed in";
+    public static final String SCRIPT_ERRORS = "errors";
+    public static final String ERROR_READING_SCRIPT = "Error reading script";
 }
 
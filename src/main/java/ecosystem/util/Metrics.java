@@ -0,0 +1,291 @@
+package ecosystem.util;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.logging.FileHandler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+// Встроенные метрики приложения: счетчики событий (LongAdder), гистограммы задержек операций
+// (LatencyHistogram) и объем чтения/записи по экосистемам. Запись — одно атомарное сложение без
+// блокировок; горячие места берут счетчик или гистограмму один раз и хранят ссылку в поле.
+// Метрики публикуются в платформенном MBeanServer как ecosystem:type=Metrics, а сводка
+// периодически пишется в журнал metrics.log.file (консоль не засоряется).
+public final class Metrics implements MetricsMXBean {
+    public static final String OBJECT_NAME = "ecosystem:type=Metrics";
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    private static Metrics instance;
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> bytesRead = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> bytesWritten = new ConcurrentHashMap<>();
+
+    // Значения счетчиков на момент предыдущей сводки для расчета скорости
+    private final Map<String, Long> previousCounts = new ConcurrentHashMap<>();
+    private volatile Map<String, Double> counterRates = Map.of();
+    private long previousOperations;
+    private long previousTickNanos = System.nanoTime();
+
+    private final Path dataRoot = Paths.get(Config.getDirectory()).toAbsolutePath().normalize();
+    private final Logger logger = Logger.getLogger("ecosystem.metrics");
+
+    private Metrics() {
+    }
+
+    // Метод для получения экземпляра Singleton; при первом обращении регистрирует MBean
+    // и запускает периодическую запись сводки
+    public static synchronized Metrics getInstance() {
+        if (instance == null) {
+            instance = new Metrics();
+            instance.register();
+            instance.startReporter();
+        }
+        return instance;
+    }
+
+    private void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "JMX registration failed", e);
+        }
+    }
+
+    private void startReporter() {
+        long intervalSeconds = Config.getLongProperty("metrics.log.interval.s", 60);
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        String logFile = Config.getProperty("metrics.log.file");
+        if (logFile != null) {
+            try {
+                FileHandler handler = new FileHandler(logFile, true);
+                handler.setFormatter(new SimpleFormatter());
+                logger.addHandler(handler);
+                logger.setUseParentHandlers(false);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Cannot open metrics log " + logFile, e);
+            }
+        }
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Счетчик событий; ссылку можно хранить, чтобы не искать его в карте при каждом событии
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    // Гистограмма задержек операции
+    public LatencyHistogram timer(String operation) {
+        return timers.computeIfAbsent(operation, key -> new LatencyHistogram());
+    }
+
+    public void increment(String name) {
+        counter(name).increment();
+    }
+
+    // Учитывает выполнение операции, начатой в момент startNanos (System.nanoTime())
+    public void recordLatency(String operation, long startNanos) {
+        timer(operation).record(System.nanoTime() - startNanos);
+    }
+
+    // Выполняет действие и учитывает его задержку, в том числе при исключении
+    public <T> T time(String operation, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            recordLatency(operation, start);
+        }
+    }
+
+    public void time(String operation, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            recordLatency(operation, start);
+        }
+    }
+
+    public void recordBytesRead(String ecosystemName, long bytes) {
+        if (bytes > 0) {
+            bytesRead.computeIfAbsent(ecosystemName, key -> new LongAdder()).add(bytes);
+        }
+    }
+
+    public void recordBytesWritten(String ecosystemName, long bytes) {
+        if (bytes > 0) {
+            bytesWritten.computeIfAbsent(ecosystemName, key -> new LongAdder()).add(bytes);
+        }
+    }
+
+    public void recordBytesRead(Path file, long bytes) {
+        recordBytesRead(ecosystemOf(file), bytes);
+    }
+
+    public void recordBytesWritten(Path file, long bytes) {
+        recordBytesWritten(ecosystemOf(file), bytes);
+    }
+
+    // Экосистема файла — первая директория его пути внутри directory.path
+    private String ecosystemOf(Path file) {
+        Path absolute = file.toAbsolutePath().normalize();
+        if (absolute.startsWith(dataRoot) && absolute.getNameCount() > dataRoot.getNameCount() + 1) {
+            return absolute.getName(dataRoot.getNameCount()).toString();
+        }
+        Path parent = absolute.getParent();
+        return parent != null && parent.getFileName() != null ? parent.getFileName().toString() : "";
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        return sums(counters);
+    }
+
+    @Override
+    public Map<String, Double> getCounterRates() {
+        return counterRates;
+    }
+
+    @Override
+    public Map<String, Long> getOperationCounts() {
+        Map<String, Long> result = new TreeMap<>();
+        timers.forEach((operation, histogram) -> result.put(operation, histogram.getCount()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getOperationMeanMicros() {
+        return timerStats(LatencyHistogram::getMeanNanos);
+    }
+
+    @Override
+    public Map<String, Double> getOperationP50Micros() {
+        return timerStats(histogram -> histogram.percentileNanos(0.5));
+    }
+
+    @Override
+    public Map<String, Double> getOperationP99Micros() {
+        return timerStats(histogram -> histogram.percentileNanos(0.99));
+    }
+
+    @Override
+    public Map<String, Double> getOperationMaxMicros() {
+        return timerStats(LatencyHistogram::getMaxNanos);
+    }
+
+    @Override
+    public Map<String, Long> getBytesRead() {
+        return sums(bytesRead);
+    }
+
+    @Override
+    public Map<String, Long> getBytesWritten() {
+        return sums(bytesWritten);
+    }
+
+    @Override
+    public synchronized String summary() {
+        StringBuilder summary = new StringBuilder("metrics");
+        Map<String, Double> rates = counterRates;
+        getCounters().forEach((name, value) -> summary.append(String.format("%n  %-36s %12d  %10.1f/s",
+                name, value, rates.getOrDefault(name, 0.0))));
+        new TreeMap<>(timers).forEach((operation, histogram) -> summary.append(String.format(
+                "%n  %-36s %12d  mean %.1f us  p50 %.1f us  p99 %.1f us  max %.1f us",
+                operation, histogram.getCount(), histogram.getMeanNanos() / NANOS_PER_MICRO,
+                histogram.percentileNanos(0.5) / NANOS_PER_MICRO, histogram.percentileNanos(0.99) / NANOS_PER_MICRO,
+                histogram.getMaxNanos() / NANOS_PER_MICRO)));
+        Map<String, Long> written = getBytesWritten();
+        getBytesRead().forEach((ecosystem, read) -> summary.append(String.format("%n  bytes %-30s read %d  written %d",
+                ecosystem, read, written.getOrDefault(ecosystem, 0L))));
+        written.forEach((ecosystem, bytes) -> {
+            if (!bytesRead.containsKey(ecosystem)) {
+                summary.append(String.format("%n  bytes %-30s read 0  written %d", ecosystem, bytes));
+            }
+        });
+        return summary.toString();
+    }
+
+    @Override
+    public synchronized void reset() {
+        counters.values().forEach(LongAdder::reset);
+        timers.values().forEach(LatencyHistogram::reset);
+        bytesRead.values().forEach(LongAdder::reset);
+        bytesWritten.values().forEach(LongAdder::reset);
+        previousCounts.clear();
+        previousOperations = 0;
+        counterRates = Map.of();
+        previousTickNanos = System.nanoTime();
+    }
+
+    // Пересчитывает скорости счетчиков и пишет сводку, если за интервал что-то происходило
+    private void report() {
+        try {
+            boolean active = updateRates();
+            if (active) {
+                logger.info(summary());
+            }
+        } catch (RuntimeException e) {
+            // Исключение остановило бы периодическую задачу
+            logger.log(Level.WARNING, "Metrics report failed", e);
+        }
+    }
+
+    private synchronized boolean updateRates() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - previousTickNanos) / 1e9);
+        previousTickNanos = now;
+        boolean active = false;
+        Map<String, Double> rates = new TreeMap<>();
+        for (Map.Entry<String, Long> entry : getCounters().entrySet()) {
+            long delta = entry.getValue() - previousCounts.getOrDefault(entry.getKey(), 0L);
+            previousCounts.put(entry.getKey(), entry.getValue());
+            rates.put(entry.getKey(), delta / seconds);
+            active |= delta != 0;
+        }
+        long operations = timers.values().stream().mapToLong(LatencyHistogram::getCount).sum();
+        active |= operations != previousOperations;
+        previousOperations = operations;
+        counterRates = rates;
+        return active;
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> adders) {
+        Map<String, Long> result = new TreeMap<>();
+        adders.forEach((name, adder) -> result.put(name, adder.sum()));
+        return result;
+    }
+
+    private Map<String, Double> timerStats(ToDoubleFunction<LatencyHistogram> stat) {
+        Map<String, Double> result = new TreeMap<>();
+        timers.forEach((operation, histogram) -> result.put(operation, stat.applyAsDouble(histogram) / NANOS_PER_MICRO));
+        return result;
+    }
+}
@@ -0,0 +1,35 @@
+package ecosystem.util;
+
+import java.util.Map;
+
+// Интерфейс метрик для JMX (jconsole, jcmd, VisualVM): объект ecosystem:type=Metrics.
+// Ключи карт — имена операций и счетчиков или названия экосистем; задержки — в микросекундах
+public interface MetricsMXBean {
+    // Значения счетчиков событий с момента запуска или последнего сброса
+    Map<String, Long> getCounters();
+
+    // Скорость счетчиков в событиях в секунду за последний интервал сводки
+    Map<String, Double> getCounterRates();
+
+    // Число выполненных операций по именам
+    Map<String, Long> getOperationCounts();
+
+    Map<String, Double> getOperationMeanMicros();
+
+    Map<String, Double> getOperationP50Micros();
+
+    Map<String, Double> getOperationP99Micros();
+
+    Map<String, Double> getOperationMaxMicros();
+
+    // Прочитанные и записанные байты по экосистемам
+    Map<String, Long> getBytesRead();
+
+    Map<String, Long> getBytesWritten();
+
+    // Текстовая сводка в том же виде, что пишется в журнал метрик
+    String summary();
+
+    // Обнуляет все счетчики и гистограммы
+    void reset();
+}
@@ -0,0 +1,176 @@
+package ecosystem.util;
+
+import java.util.Arrays;
+
+// Скользящее окно последних capacity значений ряда в кольцевом буфере примитивов.
+// Добавление значения обновляет сумму и монотонные очереди минимума и максимума за O(1)
+// (амортизированно) и не выделяет память; среднее, минимум и максимум окна читаются за O(1).
+// Очереди хранят порядковые номера значений: номер вне окна означает, что значение вытеснено.
+// Сумма окна ведется компенсированным суммированием (Kahan–Babuška, Neumaier), поэтому ошибки
+// округления от вычитания вытесненных значений не накапливаются без периодического пересчета.
+// NaN в очереди не попадает: пока он в окне, среднее, минимум и максимум равны NaN.
+// Класс не потокобезопасен.
+public class RollingWindow {
+    private final double[] values;
+    private final MonotonicDeque minimums;
+    private final MonotonicDeque maximums;
+    // Сколько значений добавлено за все время; номер следующего значения
+    private long count;
+    // Сумма конечных значений окна и накопленная поправка к ней на потерянные младшие разряды
+    private double sum;
+    private double compensation;
+    // Бесконечности и NaN в сумму не входят, а учитываются счетчиками: иначе сумма осталась бы
+    // NaN и после вытеснения такого значения из окна
+    private int nanCount;
+    private int positiveInfinityCount;
+    private int negativeInfinityCount;
+
+    public RollingWindow(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity");
+        }
+        values = new double[capacity];
+        minimums = new MonotonicDeque(capacity, false);
+        maximums = new MonotonicDeque(capacity, true);
+    }
+
+    public void add(double value) {
+        int capacity = values.length;
+        long sequence = count++;
+        int slot = (int) (sequence % capacity);
+        if (sequence >= capacity) {
+            // Вытесняемое значение сначала убирается из очередей, затем его ячейка перезаписывается
+            accumulate(values[slot], -1);
+            minimums.expire(sequence - capacity);
+            maximums.expire(sequence - capacity);
+        }
+        values[slot] = value;
+        if (!Double.isNaN(value)) {
+            // NaN несравним с остальными значениями и вытеснил бы их из очередей
+            minimums.push(sequence, values);
+            maximums.push(sequence, values);
+        }
+        accumulate(value, 1);
+    }
+
+    // Прибавляет (sign = 1) или вычитает (sign = -1) значение из суммы окна
+    private void accumulate(double value, int sign) {
+        if (Double.isNaN(value)) {
+            nanCount += sign;
+        } else if (value == Double.POSITIVE_INFINITY) {
+            positiveInfinityCount += sign;
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            negativeInfinityCount += sign;
+        } else {
+            double term = sign * value;
+            double total = sum + term;
+            // Поправка — то, что потеряло при округлении меньшее по модулю слагаемое
+            compensation += Math.abs(sum) >= Math.abs(term) ? (sum - total) + term : (term - total) + sum;
+            sum = total;
+        }
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    // Число значений в окне
+    public int size() {
+        return (int) Math.min(count, values.length);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // Последнее добавленное значение или NaN для пустого окна
+    public double last() {
+        return count == 0 ? Double.NaN : values[(int) ((count - 1) % values.length)];
+    }
+
+    public double mean() {
+        if (count == 0 || nanCount > 0 || (positiveInfinityCount > 0 && negativeInfinityCount > 0)) {
+            return Double.NaN;
+        }
+        if (positiveInfinityCount > 0 || negativeInfinityCount > 0) {
+            return positiveInfinityCount > 0 ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        }
+        return (sum + compensation) / size();
+    }
+
+    public double min() {
+        return count == 0 || nanCount > 0 ? Double.NaN : values[minimums.front(values.length)];
+    }
+
+    public double max() {
+        return count == 0 || nanCount > 0 ? Double.NaN : values[maximums.front(values.length)];
+    }
+
+    // Значения окна от старого к новому
+    public double[] toArray() {
+        int size = size();
+        double[] result = new double[size];
+        long first = count - size;
+        for (int i = 0; i < size; i++) {
+            result[i] = values[(int) ((first + i) % values.length)];
+        }
+        return result;
+    }
+
+    public void clear() {
+        count = 0;
+        sum = 0;
+        compensation = 0;
+        nanCount = 0;
+        positiveInfinityCount = 0;
+        negativeInfinityCount = 0;
+        Arrays.fill(values, 0);
+        minimums.clear();
+        maximums.clear();
+    }
+
+    // Очередь номеров значений, по которым значения монотонны: в начале — минимум (максимум) окна.
+    // Новое значение вытесняет с конца все, что не лучше него, поэтому очередь не длиннее окна
+    private static final class MonotonicDeque {
+        private final long[] sequences;
+        private final boolean maximum;
+        private int head;
+        private int size;
+
+        MonotonicDeque(int capacity, boolean maximum) {
+            this.sequences = new long[capacity];
+            this.maximum = maximum;
+        }
+
+        void expire(long sequence) {
+            if (size > 0 && sequences[head] == sequence) {
+                head = (head + 1) % sequences.length;
+                size--;
+            }
+        }
+
+        void push(long sequence, double[] values) {
+            double value = values[(int) (sequence % values.length)];
+            while (size > 0) {
+                int tail = (head + size - 1) % sequences.length;
+                double previous = values[(int) (sequences[tail] % values.length)];
+                if (maximum ? previous > value : previous < value) {
+                    break;
+                }
+                size--;
+            }
+            sequences[(head + size) % sequences.length] = sequence;
+            size++;
+        }
+
+        // Ячейка буфера значений для начала очереди
+        int front(int capacity) {
+            return (int) (sequences[head] % capacity);
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ecosystem.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Таблица символов экосистемы: каждому имени вида назначается плотный int id (0, 1, 2, ...),
+// а сама строка хранится в единственном экземпляре. Id не переиспользуются и не меняются,
+// поэтому индексы, журналы и массивы симуляции могут хранить и сравнивать id вместо строк.
+// Поиск id не блокирует; регистрация нового имени выполняется под монитором таблицы.
+public class SymbolTable {
+    public static final int NO_ID = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private volatile int size;
+    // Сколько первых имен уже записано в файл словаря
+    private int persisted;
+
+    // Возвращает id имени, регистрируя его при первом обращении
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+            }
+            int newId = size;
+            names[newId] = name;
+            // Имя публикуется в карте после записи в массив: получивший id поток увидит и имя
+            ids.put(name, newId);
+            size = newId + 1;
+            return newId;
+        }
+    }
+
+    // Возвращает id имени или NO_ID, если имя не зарегистрировано
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : NO_ID;
+    }
+
+    // Возвращает имя по id или null для неизвестного id
+    public String name(int id) {
+        String[] current = names;
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+
+    // Возвращает сохраненный экземпляр строки, чтобы одинаковые имена не дублировались в памяти
+    public String canonical(String name) {
+        return names[intern(name)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Загружает таблицу из файла словаря (одно имя на строку, номер строки — id)
+    public static SymbolTable load(Path dictionary) throws IOException {
+        SymbolTable table = new SymbolTable();
+        if (Files.exists(dictionary)) {
+            try (BufferedReader reader = Files.newBufferedReader(dictionary, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    table.intern(line);
+                }
+            }
+        }
+        table.persisted = table.size;
+        return table;
+    }
+
+    // Дописывает в файл словаря имена, зарегистрированные после последней записи
+    public synchronized void persist(Path dictionary) throws IOException {
+        if (persisted == size) {
+            return;
+        }
+        Files.createDirectories(dictionary.getParent());
+        List<String> pending = Arrays.asList(names).subList(persisted, size);
+        Files.write(dictionary, pending, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        persisted = size;
+    }
+}
@@ -0,0 +1,85 @@
+package ecosystem.api;
+
+import ecosystem.repository.impl.IndexedSpeciesRepositoryImpl;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// Коды ответов сервера на localhost: данные экосистем пишутся во временную директорию
+public class EcosystemServerTest extends TestCase {
+    private static final String ECOSYSTEM = "ServerTest";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Path directory;
+    private String previousDirectory;
+    private EcosystemServer server;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("ecosystems");
+        previousDirectory = System.getProperty("directory.path");
+        System.setProperty("directory.path", directory + "/");
+        server = new EcosystemServer("127.0.0.1", 0, 16);
+        server.start();
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        server.stop();
+        IndexedSpeciesRepositoryImpl.getInstance().release(ECOSYSTEM);
+        if (previousDirectory == null) {
+            System.clearProperty("directory.path");
+        } else {
+            System.setProperty("directory.path", previousDirectory);
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    public void testStatusCodes() throws Exception {
+        String ecosystem = "/ecosystems/" + ECOSYSTEM;
+        assertEquals(201, request("POST", "/ecosystems?name=" + ECOSYSTEM + "&temperature=20&humidity=60&water=50"));
+        assertEquals(409, request("POST", "/ecosystems?name=" + ECOSYSTEM + "&temperature=20&humidity=60&water=50"));
+        assertEquals(400, request("POST", "/ecosystems?name=Other&temperature=NaN&humidity=60&water=50"));
+        assertEquals(404, request("GET", "/ecosystems/Missing"));
+        assertEquals(404, request("GET", ecosystem + "/unknown"));
+        assertEquals(405, request("GET", ecosystem + "/plants"));
+        assertEquals(405, request("PUT", "/ecosystems"));
+
+        assertEquals(201, request("POST", ecosystem + "/plants?name=Oak"));
+        assertEquals(201, request("POST", ecosystem + "/animals?name=Wolf&diet=carnivore"));
+        assertEquals(200, request("GET", ecosystem));
+
+        // Удаление и смена диеты несуществующего вида
+        assertEquals(404, request("DELETE", ecosystem + "/species?name=Oak"));
+        assertEquals(404, request("DELETE", ecosystem + "/species?name=Pine&plant=true"));
+        assertEquals(404, request("POST", ecosystem + "/diet?name=Ghost&diet=herbivore"));
+        assertEquals(200, request("POST", ecosystem + "/diet?name=Wolf&diet=omnivore"));
+
+        // Хищник не может съесть несуществующую жертву
+        assertEquals(422, request("POST", ecosystem + "/interactions?predator=Wolf&prey=Ghost"));
+        assertEquals(200, request("POST", ecosystem + "/interactions?predator=Wolf&prey=Oak"));
+        assertEquals(422, request("POST", ecosystem + "/interactions?predator=Wolf&prey=Oak"));
+        assertEquals(404, request("DELETE", ecosystem + "/species?name=Oak&plant=true"));
+
+        assertEquals(200, request("DELETE", ecosystem + "/species?name=Wolf"));
+        assertEquals(404, request("DELETE", ecosystem + "/species?name=Wolf"));
+        assertEquals(200, request("GET", "/stats"));
+    }
+
+    private int request(String method, String pathAndQuery) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + pathAndQuery))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,76 @@
+package ecosystem.model;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Скомпилированная таблица классифицирует условия так же, как последовательный разбор правил
+public class RuleTableTest extends TestCase {
+    private final PredictionRules rules = PredictionRules.defaults();
+    private final RuleTable table = RuleTable.compile(rules);
+
+    public void testDefaultsVerify() {
+        assertTrue(table.verify().isValid());
+    }
+
+    public void testRandomConditions() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 200000; i++) {
+            assertSameChange(random.nextDouble(-50, 100), random.nextDouble(-10, 110), random.nextDouble(-10, 110));
+        }
+    }
+
+    // Пороги правил, соседние с ними значения, нули, бесконечности и NaN во всех сочетаниях
+    public void testThresholdEdges() {
+        List<double[]> values = new ArrayList<>();
+        for (int parameter = 0; parameter < 3; parameter++) {
+            List<Double> axis = new ArrayList<>(List.of(0.0, -0.0, Double.NaN, Double.NEGATIVE_INFINITY,
+                    Double.POSITIVE_INFINITY, Double.MAX_VALUE, -Double.MAX_VALUE));
+            for (int target = 0; target < 2; target++) {
+                for (double threshold : rules.thresholds(target, parameter)) {
+                    axis.add(threshold);
+                    axis.add(Math.nextDown(threshold));
+                    axis.add(Math.nextUp(threshold));
+                }
+            }
+            values.add(axis.stream().mapToDouble(Double::doubleValue).toArray());
+        }
+        for (double temperature : values.get(PredictionRules.TEMPERATURE)) {
+            for (double humidity : values.get(PredictionRules.HUMIDITY)) {
+                for (double waterAmount : values.get(PredictionRules.WATER)) {
+                    assertSameChange(temperature, humidity, waterAmount);
+                }
+            }
+        }
+    }
+
+    public void testBatchLookupMatchesSingleLookup() {
+        int n = 1000;
+        double[] temperature = new double[n];
+        double[] humidity = new double[n];
+        double[] waterAmount = new double[n];
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < n; i++) {
+            temperature[i] = random.nextInt(0, 45);
+            humidity[i] = random.nextInt(0, 100);
+            waterAmount[i] = random.nextInt(0, 100);
+        }
+        byte[] plants = new byte[n];
+        byte[] animals = new byte[n];
+        table.lookup(temperature, humidity, waterAmount, plants, animals, n);
+        for (int i = 0; i < n; i++) {
+            assertEquals(table.lookup(PredictionRules.PLANTS, temperature[i], humidity[i], waterAmount[i]), plants[i]);
+            assertEquals(table.lookup(PredictionRules.ANIMALS, temperature[i], humidity[i], waterAmount[i]), animals[i]);
+        }
+    }
+
+    private void assertSameChange(double temperature, double humidity, double waterAmount) {
+        for (int target = 0; target < 2; target++) {
+            PopulationChange expected = rules.evaluate(target, temperature, humidity, waterAmount);
+            PopulationChange actual = PopulationChange.fromCode(table.lookup(target, temperature, humidity, waterAmount));
+            assertEquals(target + ": " + temperature + ", " + humidity + ", " + waterAmount, expected, actual);
+        }
+    }
+}
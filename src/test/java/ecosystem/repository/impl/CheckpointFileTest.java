@@ -0,0 +1,162 @@
+package ecosystem.repository.impl;
+
+import ecosystem.model.Animal;
+import ecosystem.model.Conditions;
+import ecosystem.model.EcosystemCheckpoint;
+import ecosystem.model.GridWorld;
+import ecosystem.model.Plant;
+import ecosystem.model.Species;
+import ecosystem.model.SpeciesKind;
+import ecosystem.util.SymbolTable;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+// Снимок читается обратно без потерь, id переводятся в таблицу символов читающего,
+// а поврежденный байт обнаруживается по контрольной сумме
+public class CheckpointFileTest extends TestCase {
+    private static final long CREATED_AT = 1_700_000_000_000L;
+
+    private Path directory;
+    private Path file;
+    private SymbolTable symbols;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("checkpoint");
+        file = directory.resolve("checkpoint.eccp");
+        symbols = new SymbolTable();
+        for (String name : new String[]{"Wolf", "Rabbit", "Grass", "\u0412\u043e\u043b\u043a"}) {
+            symbols.intern(name);
+        }
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".tmp"));
+        Files.deleteIfExists(directory);
+    }
+
+    public void testRoundTripWithGrid() throws IOException {
+        EcosystemCheckpoint written = checkpoint(grid());
+        long size = CheckpointFile.write(file, written, symbols);
+        assertTrue(size > 0 && size <= Files.size(file));
+
+        EcosystemCheckpoint read = CheckpointFile.read(file, symbols);
+        assertEquals(CREATED_AT, read.getCreatedAt());
+        assertConditions(written.getConditions(), read.getConditions());
+        assertSpecies(written.getSpecies(), read.getSpecies());
+        assertGrid(written.getWorld(), read.getWorld());
+        assertEquals(4, symbols.size());
+    }
+
+    public void testRoundTripWithoutGrid() throws IOException {
+        CheckpointFile.write(file, checkpoint(null), symbols);
+
+        EcosystemCheckpoint read = CheckpointFile.read(file, symbols);
+        assertNull(read.getWorld());
+        assertSpecies(checkpoint(null).getSpecies(), read.getSpecies());
+    }
+
+    public void testIdsAreRemappedToReaderSymbolTable() throws IOException {
+        GridWorld world = grid();
+        CheckpointFile.write(file, checkpoint(world), symbols);
+
+        // Другой порядок регистрации имен и лишнее имя: у всех видов другие id
+        SymbolTable other = new SymbolTable();
+        other.intern("Oak");
+        other.intern("Grass");
+        other.intern("\u0412\u043e\u043b\u043a");
+        EcosystemCheckpoint read = CheckpointFile.read(file, other);
+
+        assertEquals(5, other.size());
+        for (Species species : read.getSpecies()) {
+            assertEquals(species.getName(), other.name(species.getId()));
+        }
+        assertEquals(other.idOf("Wolf"), read.getSpecies().get(0).getId());
+        assertEquals("meat", ((Animal) read.getSpecies().get(0)).getDietType());
+
+        GridWorld remapped = read.getWorld();
+        int[] expected = world.getSpecies().clone();
+        for (int cell = 0; cell < expected.length; cell++) {
+            if (world.getKinds()[cell] != 0) {
+                expected[cell] = other.idOf(symbols.name(expected[cell]));
+            }
+        }
+        assertTrue(Arrays.equals(expected, remapped.getSpecies()));
+        assertTrue(Arrays.equals(world.getKinds(), remapped.getKinds()));
+        assertTrue(Arrays.equals(world.getEnergy(), remapped.getEnergy()));
+    }
+
+    public void testFlippedByteIsAChecksumError() throws IOException {
+        CheckpointFile.write(file, checkpoint(grid()), symbols);
+        byte[] original = Files.readAllBytes(file);
+
+        // Байт в таблице секций и байт в данных последней секции (сетки)
+        for (int position : new int[]{CheckpointFile.HEADER_SIZE + 4, original.length - 1}) {
+            byte[] corrupted = original.clone();
+            corrupted[position] ^= 0x10;
+            Files.write(file, corrupted);
+            try {
+                CheckpointFile.read(file, new SymbolTable());
+                fail("corruption at byte " + position + " was not detected");
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("checksum mismatch"));
+            }
+        }
+    }
+
+    private EcosystemCheckpoint checkpoint(GridWorld world) {
+        List<Species> species = List.of(
+                new Animal(symbols.idOf("Wolf"), "Wolf", "meat"),
+                new Animal(symbols.idOf("Rabbit"), "Rabbit", "grass"),
+                new Plant(symbols.idOf("Grass"), "Grass"),
+                new Animal(symbols.idOf("\u0412\u043e\u043b\u043a"), "\u0412\u043e\u043b\u043a", "meat"));
+        return new EcosystemCheckpoint(CREATED_AT, new Conditions(21.5, 63.0, 48.25), species, world);
+    }
+
+    // Сетка 5x3 с пустыми клетками и особями всех трех видов
+    private GridWorld grid() {
+        GridWorld world = new GridWorld(5, 3, 42L, 17L);
+        String[] names = {"Wolf", "Rabbit", "Grass"};
+        SpeciesKind[] kinds = {SpeciesKind.CARNIVORE, SpeciesKind.HERBIVORE, SpeciesKind.PLANT};
+        for (int cell = 0; cell < world.getCells(); cell++) {
+            if (cell % 4 == 3) {
+                continue;
+            }
+            int species = cell % 3;
+            world.getKinds()[cell] = (byte) (kinds[species].ordinal() + 1);
+            world.getSpecies()[cell] = symbols.idOf(names[species]);
+            world.getEnergy()[cell] = 0.5f + cell;
+        }
+        return world;
+    }
+
+    private static void assertConditions(Conditions expected, Conditions actual) {
+        assertEquals(expected.getTemperature(), actual.getTemperature());
+        assertEquals(expected.getHumidity(), actual.getHumidity());
+        assertEquals(expected.getWaterAmount(), actual.getWaterAmount());
+    }
+
+    private static void assertSpecies(List<Species> expected, List<Species> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+        }
+    }
+
+    private static void assertGrid(GridWorld expected, GridWorld actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        assertEquals(expected.getSeed(), actual.getSeed());
+        assertEquals(expected.getStep(), actual.getStep());
+        assertTrue(Arrays.equals(expected.getKinds(), actual.getKinds()));
+        assertTrue(Arrays.equals(expected.getSpecies(), actual.getSpecies()));
+        assertTrue(Arrays.equals(expected.getEnergy(), actual.getEnergy()));
+    }
+}
@@ -0,0 +1,91 @@
+package ecosystem.repository.impl;
+
+import ecosystem.model.SpeciesKind;
+import ecosystem.util.SymbolTable;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+// Записанный колоночный файл читается обратно без потерь: строки, статистики и словарь видов
+public class ColumnarInteractionWriterTest extends TestCase {
+    private static final String[] NAMES = {"Wolf", "Rabbit", "Grass", "Bear", "\u0412\u043e\u043b\u043a", "Oak"};
+    private static final SpeciesKind[] KINDS = {SpeciesKind.CARNIVORE, SpeciesKind.HERBIVORE, SpeciesKind.PLANT,
+            SpeciesKind.OMNIVORE, SpeciesKind.CARNIVORE, SpeciesKind.PLANT};
+
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("interactions", ".eccf");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    public void testRoundTrip() throws IOException {
+        SymbolTable symbols = new SymbolTable();
+        for (String name : NAMES) {
+            symbols.intern(name);
+        }
+        // Неполная последняя группа, убывающие и равные метки времени
+        int n = 2500;
+        long[][] expected = new long[5][n];
+        SplittableRandom random = new SplittableRandom(17);
+        long timestamp = 1_700_000_000_000L;
+        try (ColumnarInteractionWriter writer = new ColumnarInteractionWriter(file, symbols, 1000)) {
+            for (int i = 0; i < n; i++) {
+                int predator = random.nextInt(NAMES.length);
+                int prey = random.nextInt(NAMES.length);
+                timestamp += random.nextInt(-5, 1000);
+                writer.append(predator, prey, timestamp, KINDS[predator], KINDS[prey]);
+                expected[0][i] = predator;
+                expected[1][i] = prey;
+                expected[2][i] = timestamp;
+                expected[3][i] = KINDS[predator].ordinal();
+                expected[4][i] = KINDS[prey].ordinal();
+            }
+            assertEquals(n, writer.getRowCount());
+        }
+
+        try (ColumnarInteractionReader reader = ColumnarInteractionReader.open(file)) {
+            assertEquals(n, reader.getRowCount());
+            assertEquals(3, reader.getRowGroupCount());
+            assertEquals(500, reader.getRowGroupRows(2));
+            for (int c = 0; c < ColumnarInteractionWriter.COLUMNS.length; c++) {
+                String column = ColumnarInteractionWriter.COLUMNS[c];
+                long[] values = expected[c];
+                int[] row = {0};
+                reader.forEach(column, value -> assertEquals(column + " row " + row[0], values[row[0]++], value));
+                assertEquals(n, row[0]);
+
+                long min = Long.MAX_VALUE;
+                long max = Long.MIN_VALUE;
+                for (long value : values) {
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                assertEquals(column, min, reader.getMin(column));
+                assertEquals(column, max, reader.getMax(column));
+            }
+            assertEquals(NAMES.length, reader.getSpeciesCount());
+            for (int id = 0; id < NAMES.length; id++) {
+                assertEquals(NAMES[id], reader.speciesName(id));
+                assertEquals(KINDS[id], reader.speciesKind(id));
+            }
+        }
+    }
+
+    public void testEmptyFile() throws IOException {
+        new ColumnarInteractionWriter(file, new SymbolTable(), 16).close();
+        try (ColumnarInteractionReader reader = ColumnarInteractionReader.open(file)) {
+            assertEquals(0, reader.getRowCount());
+            assertEquals(0, reader.getRowGroupCount());
+            assertEquals(0, reader.getSpeciesCount());
+        }
+    }
+}
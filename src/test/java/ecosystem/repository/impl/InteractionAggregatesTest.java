@@ -0,0 +1,69 @@
+package ecosystem.repository.impl;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Лидеры, накопленные записью по одной, совпадают с лидерами, восстановленными из файла
+// агрегатов, и с прямой сортировкой итогов, в том числе при равных счетчиках на границе top-k
+public class InteractionAggregatesTest extends TestCase {
+
+    public void testTiesKeepSmallerIdsAcrossRestart() {
+        InteractionAggregates aggregates = new InteractionAggregates(2);
+        // Все хищники набирают по два взаимодействия; первыми их набирают большие id
+        for (int predator : new int[]{3, 3, 2, 2, 1, 1}) {
+            aggregates.record(predator, 0);
+        }
+        assertTrue(Arrays.equals(new int[]{1, 2}, aggregates.topPredators(2)));
+        assertTrue(Arrays.equals(new int[]{1, 2}, restart(aggregates, 2).topPredators(2)));
+    }
+
+    public void testTopMatchesBruteForceBeforeAndAfterRestart() {
+        SplittableRandom random = new SplittableRandom(7);
+        int species = 40;
+        int capacity = 5;
+        InteractionAggregates aggregates = new InteractionAggregates(capacity);
+        long[] predatorTotals = new long[species];
+        long[] preyTotals = new long[species];
+        for (int i = 0; i < 3000; i++) {
+            // Узкий диапазон и перекос к малым id: много равных итогов
+            int predator = random.nextInt(species);
+            int prey = random.nextInt(1 + random.nextInt(species));
+            aggregates.record(predator, prey);
+            predatorTotals[predator]++;
+            preyTotals[prey]++;
+            if (i % 97 == 0) {
+                assertTop(predatorTotals, preyTotals, capacity, aggregates);
+                assertTop(predatorTotals, preyTotals, capacity, restart(aggregates, capacity));
+            }
+        }
+        InteractionAggregates restarted = restart(aggregates, capacity);
+        assertTop(predatorTotals, preyTotals, capacity, restarted);
+        assertEquals(aggregates.pairCount(3, 0), restarted.pairCount(3, 0));
+        assertEquals(predatorTotals[3], restarted.predatorTotal(3));
+        assertEquals(preyTotals[0], restarted.preyTotal(0));
+    }
+
+    private static InteractionAggregates restart(InteractionAggregates aggregates, int capacity) {
+        return InteractionAggregates.decode(aggregates.encode(0), capacity);
+    }
+
+    private static void assertTop(long[] predatorTotals, long[] preyTotals, int limit, InteractionAggregates aggregates) {
+        assertTrue(Arrays.equals(bruteTop(predatorTotals, limit), aggregates.topPredators(limit)));
+        assertTrue(Arrays.equals(bruteTop(preyTotals, limit), aggregates.topPrey(limit)));
+    }
+
+    // Виды с ненулевым итогом по убыванию итога, при равных — по возрастанию id
+    private static int[] bruteTop(long[] totals, int limit) {
+        return IntStream.range(0, totals.length)
+                .filter(id -> totals[id] > 0)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingLong(id -> -totals[id]).thenComparingInt(id -> id))
+                .limit(limit)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}
@@ -0,0 +1,106 @@
+package ecosystem.repository.impl;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static ecosystem.repository.impl.SpeciesLogStore.addRecord;
+import static ecosystem.repository.impl.SpeciesLogStore.deleteRecord;
+import static ecosystem.repository.impl.SpeciesLogStore.updateRecord;
+
+// Базовый файл с воспроизведенным журналом: readLive и streamLive дают одни и те же строки
+// до и после уплотнения, а недописанная последняя запись журнала отбрасывается
+public class SpeciesLogStoreTest extends TestCase {
+    private final SpeciesLogStore store = SpeciesLogStore.getInstance();
+    private Path directory;
+    private Path file;
+    private Path journal;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("species");
+        file = directory.resolve("animals.txt");
+        journal = directory.resolve("animals.txt.journal");
+        Files.write(file, List.of("Wolf (meat)", "Deer (grass)", "Grass"), Charset.defaultCharset());
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        store.forget(file);
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    public void testAddDeleteReAddAndUpdateAcrossCompaction() throws IOException {
+        // Пустой журнал: добавления идут прямо в базовый файл
+        store.append(file, addRecord("Fox (meat)"));
+        assertFalse(Files.exists(journal));
+
+        store.append(file, List.of(deleteRecord("Deer"), addRecord("Deer (leaves)")));
+        store.append(file, updateRecord("Wolf", "Wolf (deer)"));
+        // Замена отсутствующего вида ничего не добавляет
+        store.append(file, updateRecord("Bear", "Bear (fish)"));
+        assertTrue(Files.exists(journal));
+        List<String> expected = List.of("Wolf (deer)", "Grass", "Fox (meat)", "Deer (leaves)");
+        assertLive(expected);
+
+        store.compact(file);
+        assertFalse(Files.exists(journal));
+        assertEquals(expected, Files.readAllLines(file, Charset.defaultCharset()));
+        assertLive(expected);
+
+        // Изменения после уплотнения накладываются на новый базовый файл
+        store.append(file, List.of(deleteRecord("Fox"), deleteRecord("Grass")));
+        store.append(file, addRecord("Fox (rabbit)"));
+        store.append(file, updateRecord("Deer", "Deer (bark)"));
+        expected = List.of("Wolf (deer)", "Deer (bark)", "Fox (rabbit)");
+        assertLive(expected);
+
+        store.compact(file);
+        assertEquals(expected, Files.readAllLines(file, Charset.defaultCharset()));
+        assertLive(expected);
+    }
+
+    public void testTornLastJournalRecordIsDropped() throws IOException {
+        store.append(file, deleteRecord("Deer"));
+        store.forget(file);
+        // Сбой посреди записи: замена оборвана, перевода строки в конце нет
+        Files.write(journal, "=\tWolf\tWolf (de".getBytes(Charset.defaultCharset()), StandardOpenOption.APPEND);
+
+        List<String> expected = List.of("Wolf (meat)", "Grass");
+        assertLive(expected);
+        assertEquals(List.of(deleteRecord("Deer")), Files.readAllLines(journal, Charset.defaultCharset()));
+
+        // Следующая запись не склеивается с оборванной
+        store.append(file, addRecord("Bear (fish)"));
+        assertLive(List.of("Wolf (meat)", "Grass", "Bear (fish)"));
+
+        store.compact(file);
+        assertLive(List.of("Wolf (meat)", "Grass", "Bear (fish)"));
+    }
+
+    public void testTornOnlyJournalRecordLeavesBaseFile() throws IOException {
+        Files.write(journal, "+\tBe".getBytes(Charset.defaultCharset()));
+
+        assertLive(List.of("Wolf (meat)", "Deer (grass)", "Grass"));
+        assertEquals(0, Files.size(journal));
+    }
+
+    private void assertLive(List<String> expected) throws IOException {
+        assertEquals(expected, store.readLive(file));
+        try (Stream<String> lines = store.streamLive(file)) {
+            assertEquals(expected, lines.collect(Collectors.toList()));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ecosystem.service.impl;
+
+import ecosystem.model.Conditions;
+import ecosystem.model.GridWorld;
+import ecosystem.model.SpeciesKind;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Результат шага сетки определяется только seed и не зависит от разбиения на плитки и числа потоков
+public class GridSimulationServiceImplTest extends TestCase {
+    private static final int WIDTH = 300;
+    private static final int HEIGHT = 200;
+    private static final int STEPS = 25;
+    private static final Conditions CONDITIONS = new Conditions(22, 55, 60);
+
+    public void testTileSizeDoesNotChangeResult() {
+        GridWorld expected = simulate(new GridSimulationServiceImpl(4096, 1));
+        for (int tileSize : new int[]{37, 256}) {
+            assertSameState("tile " + tileSize, expected, simulate(new GridSimulationServiceImpl(tileSize, 4)));
+        }
+    }
+
+    public void testThreadCountDoesNotChangeResult() {
+        GridWorld expected = simulate(new GridSimulationServiceImpl(37, 1));
+        assertSameState("8 threads", expected, simulate(new GridSimulationServiceImpl(37, 8)));
+    }
+
+    // Заселяет мир всеми типами видов и выполняет шаги
+    private static GridWorld simulate(GridSimulationServiceImpl service) {
+        GridWorld world = new GridWorld(WIDTH, HEIGHT, 42);
+        SplittableRandom random = new SplittableRandom(7);
+        SpeciesKind[] kinds = {SpeciesKind.PLANT, SpeciesKind.HERBIVORE, SpeciesKind.CARNIVORE, SpeciesKind.OMNIVORE};
+        for (int cell = 0; cell < world.getCells(); cell++) {
+            if (random.nextDouble() < 0.4) {
+                int kind = random.nextInt(kinds.length);
+                world.place(cell, kinds[kind], kind, 0.5f + random.nextInt(128) / 128f);
+            }
+        }
+        service.step(world, CONDITIONS, STEPS);
+        return world;
+    }
+
+    private static void assertSameState(String message, GridWorld expected, GridWorld actual) {
+        assertEquals(message, expected.getStep(), actual.getStep());
+        assertTrue(message, Arrays.equals(expected.getKinds(), actual.getKinds()));
+        assertTrue(message, Arrays.equals(expected.getSpecies(), actual.getSpecies()));
+        assertTrue(message, Arrays.equals(expected.getEnergy(), actual.getEnergy()));
+    }
+}
@@ -0,0 +1,64 @@
+package ecosystem.service.impl;
+
+import ecosystem.model.Conditions;
+import ecosystem.model.PopulationState;
+import ecosystem.model.SpeciesKind;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+// Тики популяций детерминированы, а численность ограничена емкостью среды и пищей
+public class PopulationDynamicsServiceImplTest extends TestCase {
+    // Растения: increase, животные: stable; емкость среды — 2000 на вид растений
+    private static final Conditions CONDITIONS = new Conditions(20, 60, 50);
+    private static final double PLANT_CAPACITY = 2000;
+
+    private final PopulationDynamicsServiceImpl populationDynamics = PopulationDynamicsServiceImpl.getInstance();
+
+    public void testHerbivoresWithoutFoodDieOut() {
+        PopulationState state = new PopulationState(1);
+        state.add(0, SpeciesKind.HERBIVORE, 100, 0.07, 0.02);
+        populationDynamics.advance(state, CONDITIONS, 10);
+        assertEquals(0.0, state.totalPopulation(SpeciesKind.HERBIVORE));
+        assertEquals(10, state.getTick());
+    }
+
+    public void testPlantsBoundedByCapacity() {
+        PopulationState state = new PopulationState(1);
+        state.add(0, SpeciesKind.PLANT, 10, 0.08, 0.02);
+        populationDynamics.advance(state, CONDITIONS, 2000);
+        double plants = state.totalPopulation(SpeciesKind.PLANT);
+        assertTrue(plants > 10);
+        assertTrue(plants <= PLANT_CAPACITY);
+    }
+
+    public void testHerbivoresBoundedByFood() {
+        PopulationState state = plantsAndHerbivores();
+        for (int i = 0; i < 40; i++) {
+            populationDynamics.advance(state, CONDITIONS, 50);
+            double plants = state.totalPopulation(SpeciesKind.PLANT);
+            double herbivores = state.totalPopulation(SpeciesKind.HERBIVORE);
+            // Травоядные растут, только пока их меньше, чем может прокормить пища
+            assertTrue(herbivores + " herbivores, " + plants + " plants", herbivores <= 0.1 * plants + 1);
+        }
+        assertTrue(state.totalPopulation(SpeciesKind.HERBIVORE) > 0);
+    }
+
+    public void testDeterministic() {
+        PopulationState first = plantsAndHerbivores();
+        PopulationState second = plantsAndHerbivores();
+        populationDynamics.advance(first, CONDITIONS, 500);
+        for (int i = 0; i < 5; i++) {
+            populationDynamics.advance(second, CONDITIONS, 100);
+        }
+        assertTrue(Arrays.equals(first.getPopulation(), second.getPopulation()));
+    }
+
+    private static PopulationState plantsAndHerbivores() {
+        PopulationState state = new PopulationState(3);
+        state.add(0, SpeciesKind.PLANT, 1000, 0.08, 0.02);
+        state.add(1, SpeciesKind.HERBIVORE, 100, 0.07, 0.02);
+        state.add(2, SpeciesKind.HERBIVORE, 10, 0.07, 0.02);
+        return state;
+    }
+}
@@ -0,0 +1,98 @@
+package ecosystem.service.impl;
+
+import ecosystem.model.Conditions;
+import ecosystem.model.PopulationChange;
+import junit.framework.TestCase;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static ecosystem.model.PopulationChange.*;
+
+// Прогноз совпадает с исходными цепочками условий predictPlantsChange/predictAnimalsChange на их порогах,
+// а пакетный прогноз дает по каждой строке тот же исход, что и прогноз по одной тройке условий
+public class PredictionServiceImplTest extends TestCase {
+    private final PredictionServiceImpl predictionService = PredictionServiceImpl.getInstance();
+
+    // Ожидаемые исходы вычислены по цепочкам условий, которые действовали до правил в файле
+    public void testPredictionsAtThresholds() {
+        assertPrediction(36, 29, 50, SIGNIFICANT_DECREASE, DECREASE);
+        assertPrediction(36, 29, 29, SIGNIFICANT_DECREASE, SIGNIFICANT_DECREASE);
+        assertPrediction(35, 29, 10, DECREASE, DECREASE);
+        assertPrediction(31, 50, 19, DECREASE, STABLE);
+        assertPrediction(31, 50, 20, STABLE, STABLE);
+        assertPrediction(30, 50, 10, STABLE, STABLE);
+        assertPrediction(31, 39, 50, STABLE, DECREASE);
+        assertPrediction(31, 40, 50, STABLE, STABLE);
+        assertPrediction(9, 80, 80, STABLE, STABLE);
+        assertPrediction(10, 14, 80, STABLE, STABLE);
+        assertPrediction(16, 50, 0, INCREASE, STABLE);
+        assertPrediction(15, 50, 50, STABLE, STABLE);
+        assertPrediction(25, 50, 50, INCREASE, STABLE);
+        assertPrediction(26, 50, 50, STABLE, STABLE);
+        assertPrediction(16, 49, 50, STABLE, STABLE);
+        assertPrediction(20, 61, 51, INCREASE, INCREASE);
+        assertPrediction(20, 60, 51, INCREASE, STABLE);
+        assertPrediction(20, 61, 50, INCREASE, STABLE);
+        assertPrediction(30, 61, 51, STABLE, INCREASE);
+        assertPrediction(31, 61, 51, STABLE, STABLE);
+        assertPrediction(19, 61, 51, INCREASE, STABLE);
+    }
+
+    public void testBatchMatchesSinglePrediction() {
+        int n = 20000;
+        double[] temperature = new double[n];
+        double[] humidity = new double[n];
+        double[] waterAmount = new double[n];
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < n; i++) {
+            // Целые значения чаще попадают точно на пороги правил
+            temperature[i] = i % 2 == 0 ? random.nextInt(-10, 51) : random.nextDouble(-10, 50);
+            humidity[i] = i % 3 == 0 ? random.nextInt(0, 101) : random.nextDouble(0, 100);
+            waterAmount[i] = i % 5 == 0 ? random.nextInt(0, 101) : random.nextDouble(0, 100);
+        }
+        byte[] plants = new byte[n];
+        byte[] animals = new byte[n];
+        predictionService.predictBatch(temperature, humidity, waterAmount, plants, animals);
+
+        for (int i = 0; i < n; i++) {
+            Map<String, String> single = predictionService.predictPopulationChanges(
+                    new Conditions(temperature[i], humidity[i], waterAmount[i]));
+            String row = "row " + i;
+            assertEquals(row, single.get("Plants"), PopulationChange.fromCode(plants[i]).getLabel());
+            assertEquals(row, single.get("Animals"), PopulationChange.fromCode(animals[i]).getLabel());
+        }
+    }
+
+    public void testBatchRejectsArraysOfDifferentLength() {
+        assertLengthMismatch(new double[3], new double[3], new double[2], new byte[3], new byte[3]);
+        assertLengthMismatch(new double[3], new double[3], new double[3], new byte[4], new byte[3]);
+        assertLengthMismatch(new double[3], new double[4], new double[3], new byte[3], new byte[3]);
+    }
+
+    // Исход проверяется и одиночным, и пакетным прогнозом
+    private void assertPrediction(double temperature, double humidity, double waterAmount,
+                                  PopulationChange plants, PopulationChange animals) {
+        String conditions = temperature + ", " + humidity + ", " + waterAmount;
+        Map<String, String> single = predictionService.predictPopulationChanges(new Conditions(temperature, humidity, waterAmount));
+        assertEquals(conditions, plants.getLabel(), single.get("Plants"));
+        assertEquals(conditions, animals.getLabel(), single.get("Animals"));
+
+        byte[] plantsOut = new byte[1];
+        byte[] animalsOut = new byte[1];
+        predictionService.predictBatch(new double[]{temperature}, new double[]{humidity}, new double[]{waterAmount},
+                plantsOut, animalsOut);
+        assertEquals(conditions, plants, PopulationChange.fromCode(plantsOut[0]));
+        assertEquals(conditions, animals, PopulationChange.fromCode(animalsOut[0]));
+    }
+
+    private void assertLengthMismatch(double[] temperature, double[] humidity, double[] waterAmount,
+                                      byte[] plantsOut, byte[] animalsOut) {
+        try {
+            predictionService.predictBatch(temperature, humidity, waterAmount, plantsOut, animalsOut);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // длины массивов не совпадают
+        }
+    }
+}
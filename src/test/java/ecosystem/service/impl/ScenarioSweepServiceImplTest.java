@@ -0,0 +1,29 @@
+package ecosystem.service.impl;
+
+import ecosystem.model.Conditions;
+import ecosystem.model.SweepResult;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+// Гистограммы прогона при одном seed не зависят от числа потоков
+public class ScenarioSweepServiceImplTest extends TestCase {
+    private static final Conditions BASE = new Conditions(28, 45, 35);
+    // Несколько полных блоков и неполный последний
+    private static final long SAMPLES = 3 * (1 << 16) + 1234;
+
+    public void testThreadCountDoesNotChangeResult() {
+        SweepResult expected = new ScenarioSweepServiceImpl(1).sweep(BASE, SAMPLES, 2024);
+        for (int threads : new int[]{2, 8}) {
+            SweepResult actual = new ScenarioSweepServiceImpl(threads).sweep(BASE, SAMPLES, 2024);
+            assertTrue(threads + " threads", Arrays.equals(expected.getPlantsHistogram(), actual.getPlantsHistogram()));
+            assertTrue(threads + " threads", Arrays.equals(expected.getAnimalsHistogram(), actual.getAnimalsHistogram()));
+        }
+    }
+
+    public void testHistogramsCoverAllSamples() {
+        SweepResult result = new ScenarioSweepServiceImpl(4).sweep(BASE, SAMPLES, 99);
+        assertEquals(SAMPLES, Arrays.stream(result.getPlantsHistogram()).sum());
+        assertEquals(SAMPLES, Arrays.stream(result.getAnimalsHistogram()).sum());
+    }
+}
@@ -0,0 +1,164 @@
+package ecosystem.util;
+
+import junit.framework.TestCase;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.SplittableRandom;
+
+// Окно сверяется после каждого добавления с прямым пересчетом по последним capacity значениям:
+// случайные ряды с NaN и бесконечностями проходят буфер по нескольку раз
+public class RollingWindowTest extends TestCase {
+
+    public void testMatchesBruteForceWindow() {
+        SplittableRandom random = new SplittableRandom(2024);
+        for (int capacity : new int[]{1, 2, 3, 7, 64}) {
+            RollingWindow window = new RollingWindow(capacity);
+            Deque<Double> expected = new ArrayDeque<>();
+            int length = capacity * 9 + 5;
+            for (int i = 0; i < length; i++) {
+                double value = nextValue(random);
+                window.add(value);
+                expected.addLast(value);
+                if (expected.size() > capacity) {
+                    expected.removeFirst();
+                }
+                assertWindow("capacity " + capacity + ", value " + i, expected, window);
+            }
+            assertEquals(length, window.getCount());
+
+            window.clear();
+            expected.clear();
+            assertWindow("capacity " + capacity + " after clear", expected, window);
+            for (int i = 0; i < capacity * 3; i++) {
+                double value = nextValue(random);
+                window.add(value);
+                expected.addLast(value);
+                if (expected.size() > capacity) {
+                    expected.removeFirst();
+                }
+                assertWindow("capacity " + capacity + " after clear, value " + i, expected, window);
+            }
+        }
+    }
+
+    // Вытесненное большое значение не оставляет в сумме потерянных при сложении младших разрядов
+    public void testSumStaysExactAfterLargeValueIsEvicted() {
+        RollingWindow window = new RollingWindow(4);
+        window.add(1e16);
+        for (int i = 0; i < 4; i++) {
+            window.add(1.0);
+        }
+        assertEquals(1.0, window.mean(), 0.0);
+
+        window.add(-1e16);
+        window.add(3.0);
+        window.add(1e16);
+        window.add(0.5);
+        window.add(0.25);
+        window.add(0.125);
+        window.add(0.0625);
+        assertEquals((0.5 + 0.25 + 0.125 + 0.0625) / 4, window.mean(), 0.0);
+    }
+
+    // Минимум и максимум равны NaN, пока NaN остается в окне, даже если после него пришли
+    // обычные значения; после вытеснения NaN очереди дают минимум и максимум остальных
+    public void testNaNMakesMinimumAndMaximumNaNWhileInWindow() {
+        RollingWindow window = new RollingWindow(3);
+        window.add(5.0);
+        window.add(Double.NaN);
+        window.add(3.0);
+        assertTrue(Double.isNaN(window.min()));
+        assertTrue(Double.isNaN(window.max()));
+        window.add(4.0);
+        assertTrue(Double.isNaN(window.min()));
+        window.add(6.0);
+        assertEquals(3.0, window.min(), 0.0);
+        assertEquals(6.0, window.max(), 0.0);
+    }
+
+    // Обычные значения разного масштаба, повторы и изредка NaN и бесконечности
+    private static double nextValue(SplittableRandom random) {
+        int kind = random.nextInt(100);
+        if (kind < 3) {
+            return Double.NaN;
+        } else if (kind < 6) {
+            return Double.POSITIVE_INFINITY;
+        } else if (kind < 9) {
+            return Double.NEGATIVE_INFINITY;
+        } else if (kind < 15) {
+            return random.nextInt(5);
+        } else if (kind < 20) {
+            return (random.nextBoolean() ? 1 : -1) * random.nextDouble() * 1e15;
+        }
+        return random.nextDouble(-1000, 1000);
+    }
+
+    private static void assertWindow(String message, Deque<Double> expected, RollingWindow window) {
+        assertEquals(message, expected.size(), window.size());
+        double[] values = window.toArray();
+        assertEquals(message, expected.size(), values.length);
+        int i = 0;
+        for (double value : expected) {
+            assertSameDouble(message + " [" + i + "]", value, values[i++]);
+        }
+        assertSameDouble(message + " last", expected.isEmpty() ? Double.NaN : expected.peekLast(), window.last());
+        assertSameDouble(message + " min", bruteMin(expected), window.min());
+        assertSameDouble(message + " max", bruteMax(expected), window.max());
+
+        double mean = bruteMean(expected);
+        if (Double.isNaN(mean) || Double.isInfinite(mean)) {
+            assertSameDouble(message + " mean", mean, window.mean());
+        } else {
+            double scale = 0;
+            for (double value : expected) {
+                scale = Math.max(scale, Math.abs(value));
+            }
+            assertEquals(message + " mean", mean, window.mean(), scale * 1e-15 + 1e-12);
+        }
+    }
+
+    private static double bruteMin(Deque<Double> values) {
+        double min = values.isEmpty() ? Double.NaN : Double.POSITIVE_INFINITY;
+        for (double value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private static double bruteMax(Deque<Double> values) {
+        double max = values.isEmpty() ? Double.NaN : Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    // Точное среднее конечных значений через BigDecimal; NaN и бесконечности — как в арифметике double
+    private static double bruteMean(Deque<Double> values) {
+        if (values.isEmpty()) {
+            return Double.NaN;
+        }
+        BigDecimal sum = BigDecimal.ZERO;
+        double special = 0;
+        for (double value : values) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                special += value;
+            } else {
+                sum = sum.add(new BigDecimal(value));
+            }
+        }
+        if (special != 0 || Double.isNaN(special)) {
+            return special;
+        }
+        return sum.divide(BigDecimal.valueOf(values.size()), MathContext.DECIMAL128).doubleValue();
+    }
+
+    private static void assertSameDouble(String message, double expected, double actual) {
+        if (Double.compare(expected, actual) != 0 && expected != actual) {
+            fail(message + " expected:<" + expected + "> but was:<" + actual + ">");
+        }
+    }
+}